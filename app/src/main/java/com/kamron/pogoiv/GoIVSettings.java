@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.google.common.base.Strings;
 import com.kamron.pogoiv.clipboardlogic.ClipboardToken;
@@ -13,6 +14,7 @@ import com.kamron.pogoiv.clipboardlogic.tokens.IVPercentageTokenMode;
 import com.kamron.pogoiv.clipboardlogic.tokens.PokemonNameToken;
 import com.kamron.pogoiv.clipboardlogic.tokens.SeparatorToken;
 import com.kamron.pogoiv.clipboardlogic.tokens.UnicodeToken;
+import com.kamron.pogoiv.pokeflycomponents.ocrhelper.CalibrationProfile;
 import com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames;
 import com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldResults;
 import com.kamron.pogoiv.scanlogic.Data;
@@ -44,6 +46,7 @@ public class GoIVSettings {
     public static final String SEND_CRASH_REPORTS = "sendCrashReports";
     public static final String AUTO_UPDATE_ENABLED = "autoUpdateEnabled";
     public static final String POKESPAM_ENABLED = "pokeSpamEnabled";
+    public static final String OCR_DISK_MEMO_ENABLED = "ocrDiskMemoEnabled";
     public static final String TEAM_NAME = "teamName";
     public static final String APPRAISAL_WINDOW_POSITION = "appraisalWindowPosition";
     public static final String MOVESET_WINDOW_POSITION = "movesetWindowPosition";
@@ -60,6 +63,7 @@ public class GoIVSettings {
     public static final String MANUAL_SCREEN_CALIBRATION_ACTIVE = "manual_screen_calibration_active";
     public static final String MANUAL_SCREEN_CALIBRATION_VERSION = "manual_screen_calibration_version";
     public static final String DOWNLOADED_MOVESET_INFO = "downloaded_moveset_info_goiv";
+    public static final String CALIBRATION_PROFILE_PREFIX = "calibration_profile_";
 
     // Increment this value when you want to make all users recalibrate GoIV
     public static int LATEST_SCREEN_CALIBRATION_VERSION = 1;
@@ -68,6 +72,15 @@ public class GoIVSettings {
     private static GoIVSettings instance;
     private final SharedPreferences prefs;
     private Context context;
+    /**
+     * The parsed screen calibration, loaded on first use. Guarded by this.
+     */
+    private CalibrationProfile calibrationProfile;
+    private boolean calibrationProfileLoaded = false;
+    /**
+     * The parsed calibrations of shared screenshots, null when there's none, by settings key. Guarded by this.
+     */
+    private final Map<String, CalibrationProfile> screenshotCalibrationProfiles = new HashMap<>();
 
     private GoIVSettings(Context context) {
         this.context = context;
@@ -105,6 +118,62 @@ public class GoIVSettings {
         return prefs.getString(valueName, "Error- no value saved");
     }
 
+    /**
+     * Get the screen calibration, without reading the preferences again once loaded.
+     *
+     * @return The calibration, or null if the screen isn't calibrated
+     */
+    public synchronized @Nullable CalibrationProfile getCalibrationProfile() {
+        if (!calibrationProfileLoaded) {
+            calibrationProfile = CalibrationProfile.fromSettings(this);
+            calibrationProfileLoaded = true;
+        }
+        return calibrationProfile;
+    }
+
+    /**
+     * Get the calibration of shared screenshots of a size, for example from another device. It's kept apart from the
+     * calibration of this screen, see {@link #getCalibrationProfile()}.
+     *
+     * @param screenWidth  The width of the screenshots
+     * @param screenHeight The height of the screenshots
+     * @return The calibration, or null if no shared screenshot of this size was calibrated
+     */
+    public synchronized @Nullable CalibrationProfile getScreenshotCalibrationProfile(int screenWidth,
+                                                                                   int screenHeight) {
+        String key = getScreenshotCalibrationProfileKey(screenWidth, screenHeight);
+        if (!screenshotCalibrationProfiles.containsKey(key)) {
+            screenshotCalibrationProfiles.put(key, CalibrationProfile.fromSettingsValue(prefs.getString(key, null)));
+        }
+        return screenshotCalibrationProfiles.get(key);
+    }
+
+    private static String getScreenshotCalibrationProfileKey(int screenWidth, int screenHeight) {
+        return CALIBRATION_PROFILE_PREFIX + screenWidth + "x" + screenHeight;
+    }
+
+    /**
+     * Save the calibration of a shared screenshot, for the shared screenshots of its size. The calibration of this
+     * screen is left as it is.
+     *
+     * @param results      The complete results of the calibration
+     * @param screenWidth  The width of the calibrated screenshot
+     * @param screenHeight The height of the calibrated screenshot
+     */
+    public void saveScreenshotCalibrationResults(ScanFieldResults results, int screenWidth, int screenHeight) {
+        CalibrationProfile profile = CalibrationProfile.fromResults(results);
+        String key = getScreenshotCalibrationProfileKey(screenWidth, screenHeight);
+        prefs.edit().putString(key, profile.toSettingsValue()).apply();
+        synchronized (this) {
+            screenshotCalibrationProfiles.put(key, profile);
+        }
+    }
+
+    /**
+     * Save the calibration of this screen.
+     *
+     * @param results The complete results of the calibration
+     */
     public void saveScreenCalibrationResults(ScanFieldResults results) {
         SharedPreferences.Editor editor = prefs.edit();
         editor.putString(ScanFieldNames.POKEMON_NAME_AREA,
@@ -142,6 +211,11 @@ public class GoIVSettings {
         editor.putBoolean(GoIVSettings.MANUAL_SCREEN_CALIBRATION_ACTIVE, true);
         editor.putInt(GoIVSettings.MANUAL_SCREEN_CALIBRATION_VERSION, LATEST_SCREEN_CALIBRATION_VERSION);
         editor.apply();
+
+        synchronized (this) {
+            calibrationProfile = CalibrationProfile.fromResults(results);
+            calibrationProfileLoaded = true;
+        }
     }
 
     public boolean shouldLaunchPokemonGo() {
@@ -288,6 +362,10 @@ public class GoIVSettings {
         return prefs.getBoolean(POKESPAM_ENABLED, false);
     }
 
+    public boolean isOcrDiskMemoEnabled() {
+        return prefs.getBoolean(OCR_DISK_MEMO_ENABLED, true);
+    }
+
     public boolean shouldAutoOpenExpandedAppraise() {
         return prefs.getBoolean(AUTO_OPEN_APPRAISE_DIALOGUE, false);
     }
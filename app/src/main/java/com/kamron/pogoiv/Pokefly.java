@@ -17,7 +17,10 @@ import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.content.LocalBroadcastManager;
 import android.util.DisplayMetrics;
@@ -47,14 +50,17 @@ import com.kamron.pogoiv.pokeflycomponents.fractions.IVResultFraction;
 import com.kamron.pogoiv.pokeflycomponents.fractions.InputFraction;
 import com.kamron.pogoiv.pokeflycomponents.fractions.MovesetFraction;
 import com.kamron.pogoiv.pokeflycomponents.fractions.PowerUpFraction;
+import com.kamron.pogoiv.pokeflycomponents.ocrhelper.CalibrationProfile;
 import com.kamron.pogoiv.pokeflycomponents.ocrhelper.OcrHelper;
 import com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanPoint;
+import com.kamron.pogoiv.scanlogic.ArcGeometry;
 import com.kamron.pogoiv.scanlogic.Data;
 import com.kamron.pogoiv.scanlogic.IVCombination;
 import com.kamron.pogoiv.scanlogic.MovesetData;
 import com.kamron.pogoiv.scanlogic.PokeInfoCalculator;
 import com.kamron.pogoiv.scanlogic.Pokemon;
 import com.kamron.pogoiv.scanlogic.PokemonNameCorrector;
+import com.kamron.pogoiv.scanlogic.ResourcesPokedexDataSource;
 import com.kamron.pogoiv.scanlogic.ScanData;
 import com.kamron.pogoiv.scanlogic.ScanResult;
 import com.kamron.pogoiv.utils.CopyUtils;
@@ -62,10 +68,10 @@ import com.kamron.pogoiv.utils.LevelRange;
 import com.kamron.pogoiv.utils.fractions.FractionManager;
 
 import java.io.File;
-import java.lang.ref.WeakReference;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
+import timber.log.Timber;
 
 /**
  * Currently, the central service in Pokemon Go, dealing with everything except
@@ -107,13 +113,24 @@ public class Pokefly extends Service {
     private static final String PREF_USER_CORRECTIONS = "com.kamron.pogoiv.USER_CORRECTIONS";
 
 
-    private static final ScanScreenRunnable scanScreenRunnable = new ScanScreenRunnable();
-
     private static boolean running = false;
     public static ScanData scanData;
     public static ScanResult scanResult;
+    /**
+     * Snapshot of the last IV solution before appraisal refinement, see solveIVs().
+     */
+    private ScanResult unrefinedScanResult;
 
     private int trainerLevel;
+    /**
+     * The level arc of an uncalibrated screen, guessed from its size.
+     */
+    private ScanPoint defaultArcInit;
+    private int defaultArcRadius;
+    /**
+     * The level arc, built again only when the calibration or the trainer level changes.
+     */
+    private volatile ArcGeometry arcGeometry;
 
     private boolean receivedInfo = false;
     private boolean infoShownSent = false;
@@ -130,6 +147,15 @@ public class Pokefly extends Service {
     private ScreenGrabber screen;
     private ScreenShotHelper screenShotHelper;
     private OcrHelper ocr;
+    /**
+     * How long Pokefly waits for a running scan when it stops. A full scan takes well under this.
+     */
+    private static final long SCAN_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    /**
+     * Runs the scans off the main thread, so the overlay stays responsive meanwhile.
+     */
+    private final ScanExecutor scanExecutor = new ScanExecutor();
+    private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
 
     // Pokefly components
     private ScreenWatcher screenWatcher;
@@ -257,6 +283,43 @@ public class Pokefly extends Service {
         return trainerLevel;
     }
 
+    /**
+     * Get the level arc, of the calibration if the screen was calibrated. Can be called from any thread.
+     *
+     * @return The level arc for the current trainer level
+     */
+    public @NonNull ArcGeometry getArcGeometry() {
+        return getArcGeometry(GoIVSettings.getInstance(this).getCalibrationProfile());
+    }
+
+    /**
+     * Get the level arc of a calibration. Can be called from any thread.
+     *
+     * @param calibration The calibration, or null for the default arc of this screen
+     * @return The level arc for the current trainer level
+     */
+    private @NonNull ArcGeometry getArcGeometry(@Nullable CalibrationProfile calibration) {
+        int arcCenterX = defaultArcInit.xCoord;
+        int arcCenterY = defaultArcInit.yCoord;
+        int arcRadius = defaultArcRadius;
+        if (calibration != null) {
+            arcCenterX = calibration.getArcCenterX();
+            arcCenterY = calibration.getArcCenterY();
+            arcRadius = calibration.getArcRadius();
+        }
+
+        ArcGeometry geometry = arcGeometry;
+        if (geometry == null || !geometry.isFor(arcCenterX, arcCenterY, arcRadius, trainerLevel)) {
+            geometry = new ArcGeometry(arcCenterX, arcCenterY, arcRadius, trainerLevel);
+            arcGeometry = geometry;
+        }
+        return geometry;
+    }
+
+    public ScanExecutor getScanExecutor() {
+        return scanExecutor;
+    }
+
     public IVPreviewPrinter getIvPreviewPrinter() {
         return ivPreviewPrinter;
     }
@@ -273,7 +336,7 @@ public class Pokefly extends Service {
 
         LocalBroadcastManager.getInstance(this).sendBroadcast(new Intent(ACTION_UPDATE_UI));
 
-        nameCorrector = PokemonNameCorrector.getInstance(this);
+        nameCorrector = PokemonNameCorrector.getInstance(new ResourcesPokedexDataSource(this));
         pokeInfoCalculator = PokeInfoCalculator.getInstance();
         displayMetrics = getResources().getDisplayMetrics();
         initOcr();
@@ -353,7 +416,8 @@ public class Pokefly extends Service {
             arcRadius++;
         }
 
-        Data.setupArcPoints(arcInit, arcRadius, trainerLevel);
+        defaultArcInit = arcInit;
+        defaultArcRadius = arcRadius;
     }
 
     /**
@@ -429,14 +493,20 @@ public class Pokefly extends Service {
 
         if (!startedInManualScreenshotMode) {
             screenWatcher.unwatchScreen();
-            if (screen != null) {
-                screen.exit();
-                screen = null;
-            }
         } else {
             screenShotHelper.stop();
             screenShotHelper = null;
         }
+
+        // A running scan reads the captured image buffers and the OCR engines: wait for it before releasing them
+        if (!scanExecutor.shutdownAndAwait(SCAN_SHUTDOWN_TIMEOUT_MILLIS)) {
+            Timber.w("The running scan didn't finish before Pokefly stopped");
+        }
+        if (screen != null) {
+            screen.exit();
+            screen = null;
+        }
+
         ivButton.setShown(false, infoShownSent);
         windowManager.removeView(ivButton);
         windowManager.removeView(sizeDetector1);
@@ -475,14 +545,15 @@ public class Pokefly extends Service {
      */
     public void setArcPointer(double pokeLevel) {
 
+        ArcGeometry arc = getArcGeometry();
         int index = Data.maxPokeLevelToIndex(pokeLevel);
 
         //If the pokemon is overleveled (Raid catch or weather modifier the arc indicator will be stuck at max)
-        if (index >= Data.arcX.length) {
-            index = Data.arcX.length - 1;
+        if (index >= arc.getLevelCount()) {
+            index = arc.getLevelCount() - 1;
         }
-        arcParams.x = Data.arcX[index] - arcParams.width / 2;
-        arcParams.y = Data.arcY[index] - arcParams.height / 2 - getCurrentStatusBarHeight();
+        arcParams.x = arc.getX(index) - arcParams.width / 2;
+        arcParams.y = arc.getY(index) - arcParams.height / 2 - getCurrentStatusBarHeight();
         //That is, (int) (arcCenter + (radius * Math.cos(angleInRadians))) and
         //(int) (arcInitialY + (radius * Math.sin(angleInRadians))).
         windowManager.updateViewLayout(arcPointer, arcParams);
@@ -547,9 +618,7 @@ public class Pokefly extends Service {
         deleteScreenShotIfRequired();
 
         //noinspection ConstantConditions
-        scanResult = new ScanResult(nameCorrector, scanData);
-
-        pokeInfoCalculator.getIVPossibilities(scanResult);
+        scanResult = solveIVs();
         scanResult.refineWithAvailableInfoFrom(appraisalManager);
 
         // Don't run clipboard logic if scan failed - some tokens might crash the program.
@@ -566,14 +635,29 @@ public class Pokefly extends Service {
      * @return
      */
     public ScanResult computeIVWithoutUIChange(){
-        ScanResult scanReturner = new ScanResult(nameCorrector, scanData);
-        pokeInfoCalculator.getIVPossibilities(scanReturner);
+        ScanResult scanReturner = solveIVs();
         if (appraisalManager != null){
             scanReturner.refineWithAvailableInfoFrom(appraisalManager);
         }
         return scanReturner;
     }
 
+    /**
+     * Creates a scan result from the current scanData with all the IV combinations matching its reading, before any
+     * appraisal refinement. Appraisal input changes the refinement but not the reading, so the last solution is
+     * reused and only filtered again.
+     */
+    private ScanResult solveIVs() {
+        ScanResult result = new ScanResult(nameCorrector, scanData);
+        if (unrefinedScanResult != null && unrefinedScanResult.hasSameReadingAs(result)) {
+            result.copyIVCombinationsFrom(unrefinedScanResult);
+        } else {
+            pokeInfoCalculator.getIVPossibilities(result);
+            unrefinedScanResult = new ScanResult(result);
+        }
+        return result;
+    }
+
     /**
      * Checks if the app is in battery saver mode, and if the user hasnt set the setting to avoid deleting
      * screenshot, and then deletes the screenshot.
@@ -693,22 +777,37 @@ public class Pokefly extends Service {
      * scanPokemon
      * Performs OCR on an image of a pokemon and sends the pulled info to PokeFly to display.
      *
+     * @param request        The scan request, whose result is dropped if a newer request cancelled it
      * @param pokemonImage   The image of the pokemon
+     * @param calibration    The calibration of screenshots of the size of the image, null for the default one
      * @param screenShotPath The screenshot path if it is a file, used to delete once checked
      */
-    private void scanPokemon(@NonNull Bitmap pokemonImage, @NonNull Optional<String> screenShotPath) {
+    @WorkerThread
+    private void scanPokemon(@NonNull ScanExecutor.Request request, @NonNull ScreenFrame pokemonImage,
+                             @Nullable CalibrationProfile calibration, @NonNull Optional<String> screenShotPath) {
         //WARNING: this method *must* always send an intent at the end, no matter what, to avoid the application
-        // hanging.
+        // hanging. Unless the request was cancelled: the newer request sends its own.
 
         Intent info = Pokefly.createNoInfoIntent();
         try {
-            ScanData data = ocr.scanPokemon(GoIVSettings.getInstance(this), pokemonImage, trainerLevel, true);
-            if (data.isFailed()) {
-                showToastOnPoke(getString(R.string.scan_pokemon_failed));
+            OcrHelper ocrHelper = ocr;
+            if (ocrHelper == null) {
+                return; // Pokefly is being destroyed
+            }
+            ScanData data = ocrHelper.scanPokemon(calibration, pokemonImage, trainerLevel,
+                    getArcGeometry(calibration), true);
+            if (data.isFailed() && !request.isCancelled()) {
+                mainThreadHandler.post(new Runnable() {
+                    @Override public void run() {
+                        showToastOnPoke(getString(R.string.scan_pokemon_failed));
+                    }
+                });
             }
             Pokefly.populateInfoIntent(info, data, screenShotPath);
         } finally {
-            LocalBroadcastManager.getInstance(Pokefly.this).sendBroadcast(info);
+            if (!request.isCancelled()) {
+                LocalBroadcastManager.getInstance(Pokefly.this).sendBroadcast(info);
+            }
         }
     }
 
@@ -719,33 +818,25 @@ public class Pokefly extends Service {
         // Cancel any pending screen check
         screenWatcher.cancelPendingScreenScan();
 
-        // Run this in a separate thread so the UI can be updated so that IV button hides before moveset scan starts
-        scanScreenRunnable.updateRefs(this, screen);
-        new Handler().postDelayed(scanScreenRunnable, 80); // Wait 2 frames (at 25ps) before scanning
-    }
-
-    private static class ScanScreenRunnable implements Runnable {
-        WeakReference<Pokefly> pokeflyRef;
-        WeakReference<ScreenGrabber> screenGrabberRef;
-
-        void updateRefs(Pokefly pokefly, ScreenGrabber screenGrabber) {
-            pokeflyRef = new WeakReference<>(pokefly);
-            screenGrabberRef = new WeakReference<>(screenGrabber);
-        }
-
-        @Override public void run() {
-            ScreenGrabber screenGrabber = screenGrabberRef.get();
-            if (screenGrabber != null) {
-                Bitmap bmp = screenGrabber.grabScreen();
-                if (bmp == null) {
+        final ScreenGrabber screenGrabber = screen;
+        // Wait 2 frames (at 25fps) before scanning, so that the IV button is hidden from the screenshot
+        scanExecutor.submit(new ScanExecutor.Scan() {
+            @Override public void run(@NonNull ScanExecutor.Request request) {
+                if (screenGrabber == null || request.isCancelled()) {
                     return;
                 }
-                Pokefly pokefly = pokeflyRef.get();
-                if (pokefly != null) {
-                    pokefly.scanPokemon(bmp, Optional.<String>absent());
+                ScreenFrame frame = screenGrabber.grabFrame();
+                if (frame == null) {
+                    return;
+                }
+                try {
+                    scanPokemon(request, frame, GoIVSettings.getInstance(Pokefly.this).getCalibrationProfile(),
+                            Optional.<String>absent());
+                } finally {
+                    frame.close();
                 }
             }
-        }
+        }, 80);
     }
 
     /**
@@ -755,29 +846,43 @@ public class Pokefly extends Service {
     private final BroadcastReceiver processBitmap = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
-            Bitmap bitmap = intent.getParcelableExtra(KEY_BITMAP);
+            final Bitmap bitmap = intent.getParcelableExtra(KEY_BITMAP);
             if (bitmap == null) {
                 return;
             }
             String screenShotPathRaw = intent.getStringExtra(KEY_SCREENSHOT_FILE);
-            Optional<String> screenShotPath;
+            final Optional<String> screenShotPath;
             if (screenShotPathRaw != null) {
                 screenShotPath = Optional.of(screenShotPathRaw);
             } else {
                 screenShotPath = Optional.absent();
             }
 
-            // this should allow processing of images where the displaymetrics don't match, for example a different
-            // phone, it is known that the red dot might not display correctly.
-            if (displayMetrics.heightPixels != bitmap.getHeight() || displayMetrics.widthPixels != bitmap.getWidth()) {
-                Matrix matrix = new Matrix();
-                float ratio = displayMetrics.widthPixels / (float) bitmap.getWidth();
-                matrix.postScale(ratio, ratio);
-                bitmap = Bitmap.createBitmap(bitmap, 0, 0, displayMetrics.widthPixels, displayMetrics.heightPixels,
-                        matrix, true);
-            }
+            scanExecutor.submit(new ScanExecutor.Scan() {
+                @Override public void run(@NonNull ScanExecutor.Request request) {
+                    Bitmap pokemonImage = bitmap;
+                    // Screenshots of a size whose shared screenshots were calibrated, for example from a different
+                    // phone, are scanned as they are with that calibration. Otherwise they're scanned with the
+                    // calibration of this screen, scaled to its size if they don't match it; it is known that the red
+                    // dot might not display correctly.
+                    GoIVSettings settings = GoIVSettings.getInstance(Pokefly.this);
+                    CalibrationProfile calibration = settings.getScreenshotCalibrationProfile(
+                            pokemonImage.getWidth(), pokemonImage.getHeight());
+                    if (calibration == null) {
+                        calibration = settings.getCalibrationProfile();
+                        if (displayMetrics.heightPixels != pokemonImage.getHeight()
+                                || displayMetrics.widthPixels != pokemonImage.getWidth()) {
+                            Matrix matrix = new Matrix();
+                            float ratio = displayMetrics.widthPixels / (float) pokemonImage.getWidth();
+                            matrix.postScale(ratio, ratio);
+                            pokemonImage = Bitmap.createBitmap(pokemonImage, 0, 0, displayMetrics.widthPixels,
+                                    displayMetrics.heightPixels, matrix, true);
+                        }
+                    }
 
-            scanPokemon(bitmap, screenShotPath);
+                    scanPokemon(request, ScreenFrame.of(pokemonImage), calibration, screenShotPath);
+                }
+            }, 0);
         }
     };
 
@@ -0,0 +1,113 @@
+package com.kamron.pogoiv;
+
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * A frame holding a copy of a few regions of the screen only. Reading a pixel outside of every region gives
+ * transparent black.
+ */
+class RegionFrame extends ScreenFrame {
+
+    /**
+     * Receives the pixels buffer back once the frame is closed, so the next capture can reuse it.
+     */
+    interface BufferRecycler {
+        void recycle(int[] pixels);
+    }
+
+    private final int width;
+    private final int height;
+    private final Rect[] regions;
+    /**
+     * Index of the first pixel of each region in pixels. Each region is stored row after row.
+     */
+    private final int[] offsets;
+    private final int[] pixels;
+    private final BufferRecycler recycler;
+
+    /**
+     * Copy regions of a frame.
+     *
+     * @param source   The frame to copy from, which can be closed afterwards
+     * @param regions  The regions to copy, clipped to the frame
+     * @param buffer   A buffer to copy the pixels to if it's large enough, or null to allocate one
+     * @param recycler Receives the buffer once this frame is closed
+     */
+    RegionFrame(@NonNull ScreenFrame source, @NonNull List<Rect> regions, int[] buffer,
+                @NonNull BufferRecycler recycler) {
+        width = source.getWidth();
+        height = source.getHeight();
+        this.recycler = recycler;
+
+        Rect bounds = new Rect(0, 0, width, height);
+        this.regions = new Rect[regions.size()];
+        offsets = new int[regions.size()];
+        int pixelCount = 0;
+        int largestRegion = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            Rect region = new Rect(regions.get(i));
+            if (!region.intersect(bounds)) {
+                region.setEmpty();
+            }
+            this.regions[i] = region;
+            offsets[i] = pixelCount;
+            int regionSize = region.width() * region.height();
+            pixelCount += regionSize;
+            largestRegion = Math.max(largestRegion, regionSize);
+        }
+
+        pixels = buffer != null && buffer.length >= pixelCount ? buffer : new int[pixelCount];
+        int[] regionPixels = new int[largestRegion];
+        for (int i = 0; i < this.regions.length; i++) {
+            Rect region = this.regions[i];
+            if (!region.isEmpty()) {
+                source.getPixels(regionPixels, region.left, region.top, region.width(), region.height());
+                System.arraycopy(regionPixels, 0, pixels, offsets[i], region.width() * region.height());
+            }
+        }
+    }
+
+    @Override public int getWidth() {
+        return width;
+    }
+
+    @Override public int getHeight() {
+        return height;
+    }
+
+    @Override public int getPixel(int x, int y) {
+        for (int i = 0; i < regions.length; i++) {
+            Rect region = regions[i];
+            if (region.contains(x, y)) {
+                return pixels[offsets[i] + (y - region.top) * region.width() + (x - region.left)];
+            }
+        }
+        return 0;
+    }
+
+    @Override public void getPixels(@NonNull int[] dst, int x, int y, int width, int height) {
+        for (int i = 0; i < regions.length; i++) {
+            Rect region = regions[i];
+            if (region.contains(x, y, x + width, y + height)) {
+                for (int row = 0; row < height; row++) {
+                    System.arraycopy(pixels, offsets[i] + (y + row - region.top) * region.width() + (x - region.left),
+                            dst, row * width, width);
+                }
+                return;
+            }
+        }
+        // Spans several regions, or none
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                dst[row * width + col] = getPixel(x + col, y + row);
+            }
+        }
+    }
+
+    @Override public void close() {
+        recycler.recycle(pixels);
+    }
+}
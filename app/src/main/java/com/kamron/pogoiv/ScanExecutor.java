@@ -0,0 +1,112 @@
+package com.kamron.pogoiv;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the scans requested to Pokefly one at a time on a background thread, so capturing and OCR'ing the screen
+ * doesn't block the overlay.
+ * <p>
+ * The latest request wins: a new request cancels the pending one, and marks the running one as cancelled so its
+ * result can be dropped. A running scan isn't interrupted, the OCR can't be stopped halfway anyway. Preview requests
+ * give way to the others instead, see {@link #submitPreview(Scan, long)}.
+ */
+public class ScanExecutor {
+
+    /**
+     * A scan, run on the scan thread.
+     */
+    public interface Scan {
+        @WorkerThread
+        void run(@NonNull Request request);
+    }
+
+    /**
+     * A scan request, which tells the scan whether a newer request superseded it.
+     */
+    public class Request {
+        private final int id;
+
+        private Request(int id) {
+            this.id = id;
+        }
+
+        public boolean isCancelled() {
+            return id != latestRequestId.get();
+        }
+    }
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("pokefly-scan").setDaemon(true).build());
+    private final AtomicInteger latestRequestId = new AtomicInteger();
+    private Future<?> pendingScan;
+    private boolean pendingScanIsPreview = false;
+
+    /**
+     * Request a scan, cancelling the previous request.
+     *
+     * @param scan    The scan to run
+     * @param delayMs How long to wait before running it
+     */
+    synchronized void submit(@NonNull Scan scan, long delayMs) {
+        schedule(scan, delayMs, false);
+    }
+
+    /**
+     * Request a preview scan, which gives way to the other requests: it's dropped while another scan is pending or
+     * running, and any later request cancels it. A preview doesn't report to Pokefly, so it mustn't cancel a scan
+     * which does.
+     *
+     * @param scan    The scan to run
+     * @param delayMs How long to wait before running it
+     */
+    public synchronized void submitPreview(@NonNull Scan scan, long delayMs) {
+        if (pendingScan != null && !pendingScan.isDone() && !pendingScanIsPreview) {
+            return;
+        }
+        schedule(scan, delayMs, true);
+    }
+
+    private void schedule(@NonNull final Scan scan, long delayMs, boolean isPreview) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        final Request request = new Request(latestRequestId.incrementAndGet());
+        if (pendingScan != null) {
+            pendingScan.cancel(false);
+        }
+        pendingScan = executor.schedule(new Runnable() {
+            @Override public void run() {
+                scan.run(request);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+        pendingScanIsPreview = isPreview;
+    }
+
+    /**
+     * Cancels every request, and waits for the running scan to finish. No scan can be requested afterwards.
+     *
+     * @param timeoutMs How long to wait for the running scan
+     * @return true if no scan is running anymore, false if the wait timed out or was interrupted
+     */
+    boolean shutdownAndAwait(long timeoutMs) {
+        synchronized (this) {
+            latestRequestId.incrementAndGet();
+            executor.shutdownNow();
+        }
+        try {
+            return executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.kamron.pogoiv;
+
+import android.graphics.Bitmap;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+
+import java.io.Closeable;
+
+/**
+ * A read only view on the pixels of a screenshot. Scanning only ever needs a few small regions and pixels of the
+ * screen, so a frame hands those out without requiring a Bitmap of the whole screen.
+ * <p>
+ * A frame may hold on to a capture buffer: close it once done with it.
+ */
+public abstract class ScreenFrame implements Closeable {
+
+    public abstract int getWidth();
+
+    public abstract int getHeight();
+
+    /**
+     * Get the color of a pixel.
+     *
+     * @param x Horizontal ordinate of the pixel, in [0, getWidth()[
+     * @param y Vertical ordinate of the pixel, in [0, getHeight()[
+     * @return The ARGB color of the pixel
+     */
+    public abstract @ColorInt int getPixel(int x, int y);
+
+    /**
+     * Copy the colors of a region of the frame, like {@link Bitmap#getPixels(int[], int, int, int, int, int, int)}
+     * with a stride equal to the width.
+     *
+     * @param pixels The array receiving the ARGB colors, at least width * height long
+     */
+    public abstract void getPixels(@NonNull int[] pixels, int x, int y, int width, int height);
+
+    /**
+     * Copy a region of the frame in a new mutable bitmap.
+     */
+    public @NonNull Bitmap getCrop(int x, int y, int width, int height) {
+        int[] pixels = new int[width * height];
+        getPixels(pixels, x, y, width, height);
+        Bitmap crop = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        crop.setPixels(pixels, 0, width, 0, 0, width, height);
+        return crop;
+    }
+
+    /**
+     * Release the resources backing this frame. The frame can't be read afterwards.
+     */
+    @Override public void close() {
+    }
+
+    /**
+     * Wrap a bitmap, for screenshots which aren't captured by the {@link ScreenGrabber}.
+     */
+    public static @NonNull ScreenFrame of(@NonNull final Bitmap bitmap) {
+        return new ScreenFrame() {
+            @Override public int getWidth() {
+                return bitmap.getWidth();
+            }
+
+            @Override public int getHeight() {
+                return bitmap.getHeight();
+            }
+
+            @Override public int getPixel(int x, int y) {
+                return bitmap.getPixel(x, y);
+            }
+
+            @Override public void getPixels(@NonNull int[] pixels, int x, int y, int width, int height) {
+                bitmap.getPixels(pixels, 0, width, x, y, width, height);
+            }
+
+            @Override public @NonNull Bitmap getCrop(int x, int y, int width, int height) {
+                return Bitmap.createBitmap(bitmap, x, y, width, height);
+            }
+        };
+    }
+}
@@ -2,7 +2,6 @@ package com.kamron.pogoiv;
 
 import android.annotation.TargetApi;
 import android.graphics.Bitmap;
-import android.graphics.Color;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.graphics.Rect;
@@ -12,12 +11,17 @@ import android.media.Image;
 import android.media.ImageReader;
 import android.media.projection.MediaProjection;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.WorkerThread;
 import android.util.DisplayMetrics;
 
-import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import timber.log.Timber;
@@ -27,18 +31,46 @@ import timber.log.Timber;
  */
 public class ScreenGrabber {
 
+    /**
+     * Receives every new frame of the screen.
+     */
+    public interface FrameListener {
+        /**
+         * Called on the capture thread for every new frame. Must return quickly: the following frames wait for it.
+         *
+         * @param frame The new frame, closed once this returns
+         */
+        @WorkerThread
+        void onFrame(@NonNull ScreenFrame frame);
+    }
+
     private static ScreenGrabber instance = null;
     private ImageReader imageReader;
     private MediaProjection projection = null;
     private DisplayMetrics rawDisplayMetrics;
     private VirtualDisplay virtualDisplay;
+    private HandlerThread captureThread;
+    /**
+     * The last captured image, kept until a newer one arrives so the screen can be grabbed even if it didn't change
+     * since. Guarded by this.
+     */
+    private SharedImage latestImage;
+    private volatile FrameListener frameListener;
+    /**
+     * The pixels buffer of the last closed region capture, reused by the next one.
+     */
+    private int[] regionBuffer;
 
     @TargetApi(Build.VERSION_CODES.LOLLIPOP)
     private ScreenGrabber(MediaProjection mediaProjection, DisplayMetrics raw) {
         rawDisplayMetrics = raw;
         projection = mediaProjection;
+        // The latest image is kept and frames being scanned hold older ones: keep room to acquire new ones meanwhile
         imageReader = ImageReader.newInstance(rawDisplayMetrics.widthPixels, rawDisplayMetrics.heightPixels,
-                PixelFormat.RGBA_8888, 2);
+                PixelFormat.RGBA_8888, 3);
+        captureThread = new HandlerThread("screen-capture");
+        captureThread.start();
+        imageReader.setOnImageAvailableListener(onImageAvailable, new Handler(captureThread.getLooper()));
         new Thread(new Runnable() {
             @Override
             public void run() {
@@ -72,6 +104,16 @@ public class ScreenGrabber {
         if (projection != null) {
             virtualDisplay.release();
             virtualDisplay = null;
+            imageReader.setOnImageAvailableListener(null, null);
+            captureThread.quitSafely();
+            captureThread = null;
+            frameListener = null;
+            synchronized (this) {
+                if (latestImage != null) {
+                    latestImage.release();
+                    latestImage = null;
+                }
+            }
             imageReader.close();
             imageReader = null;
             projection.stop();
@@ -81,54 +123,235 @@ public class ScreenGrabber {
         }
     }
 
+    /**
+     * Capture the screen in a bitmap.
+     *
+     * @return The screenshot, or null if the screen couldn't be captured
+     */
     @WorkerThread
     public @Nullable
     Bitmap grabScreen() {
-        Image image = null;
-        Bitmap bmp = null;
-        Integer retries = 60; // Retry for an entire second (given the rendering speed of 60fps)
+        ScreenFrame frame = grabFrame();
+        if (frame == null) {
+            return null;
+        }
+        try {
+            return frame.getCrop(0, 0, frame.getWidth(), frame.getHeight());
+        } catch (Exception exception) {
+            Timber.e("Exception thrown in grabScreen() - when creating bitmap");
+            Timber.e(exception);
+            return null;
+        } finally {
+            frame.close();
+        }
+    }
+
+    /**
+     * Capture the screen, reading its pixels straight from the capture buffer. Unlike grabScreen(), this doesn't
+     * copy the whole screen: only the parts which are read from the frame are.
+     *
+     * @return The screen, which must be closed once done with it, or null if the screen couldn't be captured
+     */
+    @WorkerThread
+    public @Nullable
+    ScreenFrame grabFrame() {
+        SharedImage image = retainLatestImage();
+        if (image == null) {
+            return null;
+        }
+        return new ImageFrame(image, rawDisplayMetrics.widthPixels, rawDisplayMetrics.heightPixels);
+    }
+
+    /**
+     * Get notified of every new frame of the screen, instead of polling it.
+     *
+     * @param listener The listener, replacing the previous one, or null to stop notifying
+     */
+    public void setFrameListener(@Nullable FrameListener listener) {
+        frameListener = listener;
+    }
+
+    /**
+     * Capture some regions of the screen only. Copying a few small regions is much cheaper than copying the screen,
+     * and the capture buffer is released right away.
+     *
+     * @param regions The regions to capture
+     * @return The captured regions, which must be closed once done with them, or null if the screen couldn't be
+     * captured. Pixels outside of the regions read as transparent black.
+     */
+    @WorkerThread
+    public @Nullable
+    ScreenFrame grabRegions(@NonNull List<Rect> regions) {
+        ScreenFrame frame = grabFrame();
+        if (frame == null) {
+            return null;
+        }
+        try {
+            int[] buffer;
+            synchronized (this) {
+                buffer = regionBuffer;
+                regionBuffer = null; // Taken until the returned frame is closed
+            }
+            return new RegionFrame(frame, regions, buffer, new RegionFrame.BufferRecycler() {
+                @Override public void recycle(int[] pixels) {
+                    synchronized (ScreenGrabber.this) {
+                        regionBuffer = pixels;
+                    }
+                }
+            });
+        } finally {
+            frame.close();
+        }
+    }
+
+    private final ImageReader.OnImageAvailableListener onImageAvailable =
+            new ImageReader.OnImageAvailableListener() {
+                @Override public void onImageAvailable(ImageReader reader) {
+                    Image image;
+                    try {
+                        image = reader.acquireLatestImage();
+                    } catch (IllegalStateException e) {
+                        return; // Frames being scanned hold every image: the next one will be acquired instead
+                    }
+                    if (image == null) {
+                        return;
+                    }
+
+                    SharedImage sharedImage = new SharedImage(image);
+                    FrameListener listener = frameListener;
+                    ScreenFrame frame = null;
+                    if (listener != null) {
+                        // Retained before it's published, since exit() may release it as soon as it is
+                        frame = new ImageFrame(sharedImage.retain(), image.getWidth(), image.getHeight());
+                    }
+                    SharedImage previousImage;
+                    synchronized (ScreenGrabber.this) {
+                        previousImage = latestImage;
+                        latestImage = sharedImage;
+                    }
+                    if (previousImage != null) {
+                        previousImage.release();
+                    }
+
+                    if (frame != null) {
+                        try {
+                            listener.onFrame(frame);
+                        } finally {
+                            frame.close();
+                        }
+                    }
+                }
+            };
+
+    private @Nullable SharedImage retainLatestImage() {
+        Integer retries = 60; // Wait for an entire second (given the rendering speed of 60fps) for a first image
 
         while (retries > 0) {
-            try {
-                //Note: imageReader shouldn't be null, but apparently sometimes is.
-                //Let's allow this to still happen.
-                image = imageReader.acquireLatestImage();
-                break;
-            } catch (Exception exception) {
-                Timber.e("Error thrown in grabScreen() - acquireLatestImage()");
-                Timber.e(exception);
+            synchronized (this) {
+                if (latestImage != null) {
+                    return latestImage.retain();
+                }
             }
-            // If the screenshot failed, wait 16 milliseconds (1/60 seconds, the duration of a frame at 60fps).
-            // This avoid useless and very fast executions (100 loops on a n-GHz lasts less then a nanosecond) because
-            // a new video frame will never be available in time. This also greatly reduce battery drain.
+            // If no image was captured yet, wait 16 milliseconds (1/60 seconds, the duration of a frame at 60fps).
+            // This avoid useless and very fast executions because a new video frame will never be available in
+            // time. This also greatly reduce battery drain.
             try {
-                TimeUnit.MILLISECONDS.wait(16);
+                TimeUnit.MILLISECONDS.sleep(16);
             } catch (InterruptedException e) {
                 Timber.e(e);
             }
             retries--;
         }
-        if (image != null) {
-            final Image.Plane[] planes = image.getPlanes();
-            final ByteBuffer buffer = planes[0].getBuffer();
-            int pixelStride = planes[0].getPixelStride();
-            int rowStride = planes[0].getRowStride();
-            int rowPaddingPx = (rowStride - pixelStride * rawDisplayMetrics.widthPixels) / pixelStride;
-            image.close();
+        return null;
+    }
 
-            try {
-                bmp = Bitmap.createBitmap(rawDisplayMetrics.widthPixels + rowPaddingPx,
-                        rawDisplayMetrics.heightPixels, Bitmap.Config.ARGB_8888);
-                bmp.copyPixelsFromBuffer(buffer);
-                // Crop padding
-                bmp = Bitmap.createBitmap(bmp, 0, 0, bmp.getWidth() - rowPaddingPx, bmp.getHeight());
-            } catch (Exception exception) {
-                Timber.e("Exception thrown in grabScreen() - when creating bitmap");
-                Timber.e(exception);
+    /**
+     * A captured image, closed once the grabber and every frame reading it let go of it.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static class SharedImage {
+        private final Image image;
+        private int references = 1;
+
+        SharedImage(Image image) {
+            this.image = image;
+        }
+
+        synchronized SharedImage retain() {
+            references++;
+            return this;
+        }
+
+        synchronized void release() {
+            references--;
+            if (references == 0) {
+                image.close();
+            }
+        }
+    }
+
+    /**
+     * A frame reading the RGBA_8888 buffer of a captured image, without copying it.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static class ImageFrame extends ScreenFrame {
+        private final SharedImage image;
+        private final int width;
+        private final int height;
+        /**
+         * The image buffer, a pixel per int.
+         */
+        private final IntBuffer pixelBuffer;
+        /**
+         * Pixels between the starts of two rows, which can be more than the width because of row padding.
+         */
+        private final int rowStridePx;
+
+        private boolean closed = false;
+
+        ImageFrame(SharedImage image, int width, int height) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            Image.Plane plane = image.image.getPlanes()[0];
+            rowStridePx = plane.getRowStride() / plane.getPixelStride();
+            // Each pixel is the bytes R, G, B, A: read little endian, that's the int ABGR
+            pixelBuffer = plane.getBuffer().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+
+        @Override public int getWidth() {
+            return width;
+        }
+
+        @Override public int getHeight() {
+            return height;
+        }
+
+        @Override public int getPixel(int x, int y) {
+            return abgrToArgb(pixelBuffer.get(y * rowStridePx + x));
+        }
+
+        @Override public void getPixels(@NonNull int[] pixels, int x, int y, int width, int height) {
+            IntBuffer buffer = pixelBuffer.duplicate(); // Own position, so several threads can read at once
+            for (int row = 0; row < height; row++) {
+                buffer.position((y + row) * rowStridePx + x);
+                buffer.get(pixels, row * width, width);
+            }
+            for (int i = 0; i < width * height; i++) {
+                pixels[i] = abgrToArgb(pixels[i]);
+            }
+        }
+
+        @Override public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                image.release();
             }
         }
 
-        return bmp;
+        private static @ColorInt int abgrToArgb(int abgr) {
+            return (abgr & 0xFF00FF00) | ((abgr & 0xFF) << 16) | ((abgr >>> 16) & 0xFF);
+        }
     }
 
     /**
@@ -140,54 +363,23 @@ public class ScreenGrabber {
     public @Nullable
     @ColorInt
     int[] grabPixels(Point[] points) {
-        Image image = null;
-        try {
-            //Note: imageReader shouldn't be null, but apparently sometimes is.
-            //Let's allow this to still happen.
-            image = imageReader.acquireLatestImage();
-        } catch (Exception exception) {
-            Timber.e("Error thrown in grabPixels() - acquireLatestImage()");
-            Timber.e(exception);
-        }
-
-        if (image == null) {
+        ScreenFrame frame = grabFrame();
+        if (frame == null) {
             return null;
         }
 
-        Rect imageBounds = new Rect(0, 0, image.getWidth(), image.getHeight());
-        @ColorInt int[] pixels = new int[points.length];
-
-        Image.Plane imgPlane = image.getPlanes()[0];
-        int pixelStride = imgPlane.getPixelStride();
-        int rowStride = imgPlane.getRowStride();
-        ByteBuffer buffer = imgPlane.getBuffer();
-
-        for (int i = 0; i < points.length; i++) {
-            Point p = points[i];
-            if (imageBounds.contains(p.x, p.y)) {
-                pixels[i] = getPixel(buffer, p, pixelStride, rowStride);
-            } else {
-                pixels = null;
-                //Jump to resource cleanup code.
-                break;
+        try {
+            @ColorInt int[] pixels = new int[points.length];
+            for (int i = 0; i < points.length; i++) {
+                Point p = points[i];
+                if (p.x < 0 || p.x >= frame.getWidth() || p.y < 0 || p.y >= frame.getHeight()) {
+                    return null;
+                }
+                pixels[i] = frame.getPixel(p.x, p.y);
             }
+            return pixels;
+        } finally {
+            frame.close();
         }
-
-        //Resource cleanup
-        image.close();
-
-        return pixels;
-    }
-
-    //Inspired by http://stackoverflow.com/a/27655022/53974.
-    private static @ColorInt
-    int getPixel(ByteBuffer buffer, Point pos, int pixelStride, int rowStride) {
-        int offset = pos.y * rowStride + pos.x * pixelStride;
-        //This works because the image reader is configured with PixelFormat.RGBA_8888.
-        int r = buffer.get(offset) & 0xff;
-        int g = buffer.get(offset + 1) & 0xff;
-        int b = buffer.get(offset + 2) & 0xff;
-        int a = buffer.get(offset + 3) & 0xff;
-        return Color.argb(a, r, g, b);
     }
 }
@@ -0,0 +1,44 @@
+package com.kamron.pogoiv;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Bundle;
+import android.provider.MediaStore;
+import android.widget.Toast;
+
+import com.kamron.pogoiv.activities.OcrCalibrationResultActivity;
+
+import java.io.IOException;
+
+import timber.log.Timber;
+
+/**
+ * Calibrates on a shared screenshot, for example one taken on another device, without replacing the calibration of
+ * this screen.
+ */
+public class ShareCalibrationHandlerActivity extends Activity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_share_handler);
+        finish();
+
+        Intent intent = getIntent();
+        String action = intent.getAction();
+        String type = intent.getType();
+
+        if (Intent.ACTION_SEND.equals(action) && type != null && type.startsWith("image/")) {
+            Uri imageUri = (Uri) intent.getParcelableExtra(Intent.EXTRA_STREAM);
+            try {
+                Bitmap bitmap = MediaStore.Images.Media.getBitmap(this.getContentResolver(), imageUri);
+                OcrCalibrationResultActivity.startScreenshotCalibration(this, bitmap);
+            } catch (IOException e) {
+                Timber.e(e, "Couldn't read the shared screenshot %s", imageUri);
+                Toast.makeText(this, "The received screenshot is invalid", Toast.LENGTH_SHORT).show();
+            }
+        }
+    }
+}
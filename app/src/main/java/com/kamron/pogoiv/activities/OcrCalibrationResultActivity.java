@@ -64,6 +64,7 @@ public class OcrCalibrationResultActivity extends AppCompatActivity {
     private static String sEmailErrorText;
     private static int sStatusBarHeight;
     private static int sNavigationBarHeight;
+    private static boolean sIsSharedScreenshot;
 
 
     private ScanFieldResults results;
@@ -95,6 +96,22 @@ public class OcrCalibrationResultActivity extends AppCompatActivity {
                                         @Nullable Bitmap bitmap,
                                         int statusBarHeight,
                                         int navigationBarHeight) {
+        startCalibration(context, bitmap, statusBarHeight, navigationBarHeight, false);
+    }
+
+    /**
+     * Calibrate on a screenshot shared with GoIV, which might come from another device. Its calibration is only used
+     * for screenshots of the same size and doesn't replace the calibration of this screen.
+     */
+    public static void startScreenshotCalibration(@NonNull Context context, @Nullable Bitmap bitmap) {
+        startCalibration(context, bitmap, 0, 0, true);
+    }
+
+    private static void startCalibration(@NonNull Context context,
+                                         @Nullable Bitmap bitmap,
+                                         int statusBarHeight,
+                                         int navigationBarHeight,
+                                         boolean isSharedScreenshot) {
         if (bitmap == null) {
             Toast.makeText(context, "The received screenshot is invalid", Toast.LENGTH_SHORT).show();
             return;
@@ -116,6 +133,7 @@ public class OcrCalibrationResultActivity extends AppCompatActivity {
 
         sStatusBarHeight = statusBarHeight;
         sNavigationBarHeight = navigationBarHeight;
+        sIsSharedScreenshot = isSharedScreenshot;
 
         sDisplayMetrics = new DisplayMetrics();
         sDisplayMetrics.setTo(context.getResources().getDisplayMetrics());
@@ -146,7 +164,12 @@ public class OcrCalibrationResultActivity extends AppCompatActivity {
                 saveCalibrationButton.setVisibility(View.GONE);
                 if (results != null && results.isCompleteCalibration()) {
                     GoIVSettings settings = GoIVSettings.getInstance(OcrCalibrationResultActivity.this);
-                    settings.saveScreenCalibrationResults(results);
+                    if (sIsSharedScreenshot) {
+                        settings.saveScreenshotCalibrationResults(results,
+                                sCalibrationImageUnaltered.getWidth(), sCalibrationImageUnaltered.getHeight());
+                    } else {
+                        settings.saveScreenCalibrationResults(results);
+                    }
                     Toast.makeText(OcrCalibrationResultActivity.this,
                             R.string.ocr_calibration_saved, Toast.LENGTH_LONG).show();
                     Intent stopIntent = Pokefly.createStopIntent(OcrCalibrationResultActivity.this);
@@ -241,6 +264,7 @@ public class OcrCalibrationResultActivity extends AppCompatActivity {
         Intent intent = new Intent(this, OcrManualCalibrationActivity.class);
         OcrManualCalibrationActivity.screenshotTransferTemp = sCalibrationImageUnaltered;
         OcrManualCalibrationActivity.sfrTemp = results;
+        OcrManualCalibrationActivity.isSharedScreenshotTemp = sIsSharedScreenshot;
         startActivity(intent);
     }
 
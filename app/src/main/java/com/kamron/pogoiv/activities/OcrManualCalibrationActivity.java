@@ -52,6 +52,9 @@ public class OcrManualCalibrationActivity extends AppCompatActivity {
     public static Bitmap screenshotTransferTemp;
     Bitmap screenshot;
 
+    public static boolean isSharedScreenshotTemp;
+    boolean isSharedScreenshot;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -454,7 +457,11 @@ public class OcrManualCalibrationActivity extends AppCompatActivity {
             @Override public void onClick(View view) {
                 if (sfr != null && sfr.isCompleteCalibration()) {
                     GoIVSettings settings = GoIVSettings.getInstance(OcrManualCalibrationActivity.this);
-                    settings.saveScreenCalibrationResults(sfr);
+                    if (isSharedScreenshot) {
+                        settings.saveScreenshotCalibrationResults(sfr, screenshot.getWidth(), screenshot.getHeight());
+                    } else {
+                        settings.saveScreenCalibrationResults(sfr);
+                    }
                     Toast.makeText(OcrManualCalibrationActivity.this,
                             R.string.ocr_calibration_saved, Toast.LENGTH_LONG).show();
                 }
@@ -508,6 +515,9 @@ public class OcrManualCalibrationActivity extends AppCompatActivity {
         screenshot = screenshotTransferTemp;
         screenshotTransferTemp = null;
 
+        isSharedScreenshot = isSharedScreenshotTemp;
+        isSharedScreenshotTemp = false;
+
     }
 
 
@@ -10,6 +10,7 @@ import com.kamron.pogoiv.Pokefly;
 import com.kamron.pogoiv.ScreenGrabber;
 import com.kamron.pogoiv.pokeflycomponents.ocrhelper.OcrHelper;
 import com.kamron.pogoiv.scanlogic.IVCombination;
+import com.kamron.pogoiv.scanlogic.IVCombinationSet;
 import timber.log.Timber;
 
 import java.util.ArrayList;
@@ -19,7 +20,7 @@ import java.util.Arrays;
  * Created by Johan on 2016-12-01.
  * A class to handle automatic scanning of appraisal information.
  */
-public class AppraisalManager {
+public class AppraisalManager implements IVCombinationSet.Filter {
 
     private ScreenScan autoScreenScanner;
     private Handler handler = new Handler();
@@ -94,6 +95,15 @@ public class AppraisalManager {
         autoAppraisalDone = false;
     }
 
+    /**
+     * Check whether an IV combination matches the appraisal information gathered so far.
+     */
+    @Override public boolean accept(int att, int def, int sta) {
+        return (!attackValid || att == attack)
+                && (!defenseValid || def == defense)
+                && (!staminaValid || sta == stamina);
+    }
+
     private void addStatScanResult(@Nullable IVCombination combination) {
         if (combination != null) {
             attack = combination.att;
@@ -1,18 +1,28 @@
 package com.kamron.pogoiv.pokeflycomponents;
 
-import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
 
 import com.kamron.pogoiv.GoIVSettings;
 import com.kamron.pogoiv.Pokefly;
+import com.kamron.pogoiv.ScanExecutor;
+import com.kamron.pogoiv.ScreenFrame;
 import com.kamron.pogoiv.ScreenGrabber;
+import com.kamron.pogoiv.pokeflycomponents.ocrhelper.CalibrationProfile;
 import com.kamron.pogoiv.pokeflycomponents.ocrhelper.OcrHelper;
+import com.kamron.pogoiv.scanlogic.ArcGeometry;
 import com.kamron.pogoiv.scanlogic.PokeInfoCalculator;
 import com.kamron.pogoiv.scanlogic.PokemonNameCorrector;
+import com.kamron.pogoiv.scanlogic.ResourcesPokedexDataSource;
 import com.kamron.pogoiv.scanlogic.ScanData;
 import com.kamron.pogoiv.scanlogic.ScanResult;
 
 import java.lang.ref.WeakReference;
+import java.util.List;
 
 /**
  * Created by johan on 2017-07-06.
@@ -28,16 +38,14 @@ public class IVPreviewPrinter {
     private Pokefly pokefly;
     private GoIVSettings settings;
     private PokeInfoCalculator pokeInfoCalculator;
-    private Handler handler;
-    private QuickIVScanAttempt quickIVScanAttempt;
+    private Handler mainThreadHandler;
 
     public IVPreviewPrinter(Pokefly pokefly) {
         this.pokefly = pokefly;
 
         settings = GoIVSettings.getInstance(pokefly);
         pokeInfoCalculator = PokeInfoCalculator.getInstance();
-        handler = new Handler();
-        quickIVScanAttempt = new QuickIVScanAttempt();
+        mainThreadHandler = new Handler(Looper.getMainLooper());
     }
 
     /**
@@ -49,102 +57,120 @@ public class IVPreviewPrinter {
     public void printIVPreview(IVPopupButton ivButton) {
         if (settings.shouldShowQuickIVPreview()) {
             // A delayed action, because the screen grabber needs to wait and ensure there's a frame to grab - fails if
-            // the delay is not long enough.
-            handler.removeCallbacks(quickIVScanAttempt);
-            quickIVScanAttempt.updateReferences(pokefly, this, ivButton);
-            handler.postDelayed(quickIVScanAttempt, DELAY_SCAN_MILLIS);
+            // the delay is not long enough. The scan runs on the scan thread, so the overlay stays responsive.
+            pokefly.getScanExecutor().submitPreview(new QuickIVScanAttempt(pokefly, this, ivButton), DELAY_SCAN_MILLIS);
         }
     }
 
     /**
-     * A quick scan which will try to analyze the screen and show a quick iv preview message.
+     * A quick scan which will try to analyze the screen and show a quick iv preview message. Runs on the scan thread,
+     * and only posts the message and the button look to the main thread.
      */
-    private static class QuickIVScanAttempt implements Runnable {
+    private static class QuickIVScanAttempt implements ScanExecutor.Scan {
 
-        private WeakReference<Pokefly> pokeflyRef;
-        private WeakReference<IVPreviewPrinter> ivPreviewPrinterRef;
-        private WeakReference<IVPopupButton> ivButtonRef;
-        private PokemonNameCorrector pokemonNameCorrector;
+        private final WeakReference<Pokefly> pokeflyRef;
+        private final WeakReference<IVPreviewPrinter> ivPreviewPrinterRef;
+        private final WeakReference<IVPopupButton> ivButtonRef;
+        private final PokemonNameCorrector pokemonNameCorrector;
 
-        void updateReferences(Pokefly pokefly, IVPreviewPrinter ivPreviewPrinter, IVPopupButton ivButton) {
+        QuickIVScanAttempt(Pokefly pokefly, IVPreviewPrinter ivPreviewPrinter, IVPopupButton ivButton) {
             pokeflyRef = new WeakReference<>(pokefly);
             ivPreviewPrinterRef = new WeakReference<>(ivPreviewPrinter);
             ivButtonRef = new WeakReference<>(ivButton);
-            pokemonNameCorrector = PokemonNameCorrector.getInstance(pokefly);
+            pokemonNameCorrector = PokemonNameCorrector.getInstance(new ResourcesPokedexDataSource(pokefly));
         }
 
         @Override
-        public void run() {
-            boolean succeeded = runQuickScan();
-            if (!succeeded) {
-                IVPopupButton ivButton = ivButtonRef.get();
-                if (ivButton != null) {
-                    ivButton.showError();
-                }
+        public void run(@NonNull final ScanExecutor.Request request) {
+            IVPreviewPrinter ivPreviewPrinter = ivPreviewPrinterRef.get();
+            if (ivPreviewPrinter == null) {
+                return; // The class that scheduled this scan has been garbage collected
             }
+
+            final ScanResult scanResults = runQuickScan();
+            final String clipboardText =
+                    scanResults != null ? ivPreviewPrinter.getClipboardTextIfSettingIsOn(scanResults) : null;
+            ivPreviewPrinter.mainThreadHandler.post(new Runnable() {
+                @Override public void run() {
+                    if (request.isCancelled()) {
+                        return; // A newer scan will update the button
+                    }
+                    IVPreviewPrinter ivPreviewPrinter = ivPreviewPrinterRef.get();
+                    IVPopupButton ivButton = ivButtonRef.get();
+                    if (scanResults == null) {
+                        if (ivButton != null) {
+                            ivButton.showError();
+                        }
+                        return;
+                    }
+                    if (clipboardText != null && ivPreviewPrinter != null) {
+                        ivPreviewPrinter.pokefly.showToastOnPoke(clipboardText);
+                    }
+                    if (ivButton != null) {
+                        ivButton.showQuickIVPreviewLook(scanResults);
+                    }
+                }
+            });
         }
 
         /**
-         * Attempts to generate and print a quickiv message, if it fails, does nothing and returns false.
+         * Attempts to scan the screen and compute the IVs of the pokemon on it.
          *
-         * @return true if successfully printed message, false otherwise.
+         * @return the scan results, or null if the scan failed.
          */
-        private boolean runQuickScan() {
-            Bitmap bmp = ScreenGrabber.getInstance().grabScreen();
-
-            if (bmp == null) {
-                return false;
-            }
-
+        @WorkerThread
+        private @Nullable ScanResult runQuickScan() {
             Pokefly pokefly = pokeflyRef.get();
             if (pokefly == null) {
-                return false; // This quick scan fired after Pokefly stopped
+                return null; // This quick scan fired after Pokefly stopped
             }
 
             OcrHelper ocr = pokefly.getOcr();
-            if (ocr == null) {
-                return false; // This quick scan fired after Pokefly stopped
+            ScreenGrabber screenGrabber = ScreenGrabber.getInstance();
+            if (ocr == null || screenGrabber == null) {
+                return null; // This quick scan fired after Pokefly stopped
             }
 
-            ScanData data = ocr.scanPokemon(GoIVSettings.getInstance(pokefly), bmp, pokefly.getTrainerLevel(), false);
-            if (!data.getPokemonHP().isPresent() || !data.getPokemonCP().isPresent()) {
-                return false;
+            // Only copy what the scan reads when the screen is calibrated
+            CalibrationProfile calibration = GoIVSettings.getInstance(pokefly).getCalibrationProfile();
+            ArcGeometry arc = pokefly.getArcGeometry();
+            List<Rect> regions = OcrHelper.getQuickScanRegions(calibration, arc);
+            ScreenFrame frame = regions != null ? screenGrabber.grabRegions(regions) : screenGrabber.grabFrame();
+
+            if (frame == null) {
+                return null;
             }
 
-            IVPreviewPrinter ivPreviewPrinter = ivPreviewPrinterRef.get();
-            if (ivPreviewPrinter == null) {
-                return false; // The class that scheduled this runnable has been garbage collected
+            ScanData data;
+            try {
+                data = ocr.scanPokemon(calibration, frame, pokefly.getTrainerLevel(), arc, false);
+            } finally {
+                frame.close();
+            }
+            if (!data.getPokemonHP().isPresent() || !data.getPokemonCP().isPresent()) {
+                return null;
             }
 
             ScanResult scanResults = new ScanResult(pokemonNameCorrector, data);
             PokeInfoCalculator.getInstance().getIVPossibilities(scanResults);
             if (scanResults.getIVCombinationsCount() <= 0) { //unsuccessful scan
-                return false;
-            }
-
-            ivPreviewPrinter.printClipboardIfSettingIsOn(scanResults);
-
-            IVPopupButton ivButton = ivButtonRef.get();
-            if (ivButton != null) {
-                ivButton.showQuickIVPreviewLook(scanResults);
+                return null;
             }
-
-            return true;
+            return scanResults;
         }
     }
 
     /**
-     * Makes a system toast for the clipboard is the setting is on.
+     * Get the clipboard text to show in a toast, if the setting is on.
      *
      * @param scanResult The iv result to base the message on.
-     * @return A string build up by the iv results.
+     * @return The clipboard text, or null if the setting is off.
      */
-    private void printClipboardIfSettingIsOn(ScanResult scanResult) {
-        String returner;
+    private @Nullable String getClipboardTextIfSettingIsOn(ScanResult scanResult) {
         if (settings.shouldReplaceQuickIvPreviewWithClipboard()) {
-            returner = pokefly.getClipboardTokenHandler().getClipboardText(scanResult, pokeInfoCalculator);
-            pokefly.showToastOnPoke(returner);
+            return pokefly.getClipboardTokenHandler().getClipboardText(scanResult, pokeInfoCalculator);
         }
+        return null;
     }
 
     /**
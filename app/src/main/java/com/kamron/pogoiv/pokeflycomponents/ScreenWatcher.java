@@ -6,9 +6,10 @@ import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.os.Build;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
 import android.util.DisplayMetrics;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
@@ -17,36 +18,75 @@ import android.widget.LinearLayout;
 
 import com.kamron.pogoiv.GoIVSettings;
 import com.kamron.pogoiv.Pokefly;
+import com.kamron.pogoiv.ScreenFrame;
 import com.kamron.pogoiv.ScreenGrabber;
 import com.kamron.pogoiv.pokeflycomponents.fractions.AppraisalFraction;
+import com.kamron.pogoiv.pokeflycomponents.ocrhelper.CalibrationProfile;
 import com.kamron.pogoiv.scanlogic.ScanResult;
+import com.kamron.pogoiv.scanlogic.ScreenClassifier;
+import com.kamron.pogoiv.scanlogic.ScreenClassifier.Screen;
 import com.kamron.pogoiv.utils.fractions.FractionManager;
 
-import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_CARD_WHITE_HEX;
-import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_CARD_WHITE_PIXEL;
-import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_FAB_GREEN_HEX;
-import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_FAB_GREEN_PIXEL;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * A class which checks the screen every time the user pressses the screen, and calls to the ivbutton and
  * quickivpreview when the user is on the pokemon screen.
+ * <p>
+ * After a press, the captured frames are watched until the screen settles, so the check runs as soon as the screen
+ * transition is over instead of after a fixed delay.
  * Created by johan on 2017-07-06.
  */
 
 public class ScreenWatcher {
 
-    private static final int SCREEN_SCAN_INITIAL_DELAY_MS = 1000; // just to check if we left the screen
-    private static final int SCREEN_SCAN_DELAY_MS = 700;
-    private static final int SCREEN_SCAN_RETRIES = 4;
+    /**
+     * The press itself doesn't change the screen yet, give the game the time to start its transition.
+     */
+    private static final int SCREEN_SCAN_MIN_DELAY_MS = 300;
+    /**
+     * How long the screen must stay the same to be settled, a few frames.
+     */
+    private static final int SCREEN_SETTLE_MS = 100;
+    /**
+     * How long the screen is watched after a press, while the user isn't on the pokemon screen.
+     */
+    private static final int SCREEN_WATCH_TIMEOUT_MS = 3800;
+    /**
+     * The screen signature samples a grid of this many columns and rows over the lower half of the screen, where the
+     * pokemon info card is: the animated pokemon above it doesn't prevent the screen from settling.
+     */
+    private static final int SIGNATURE_GRID_SIZE = 6;
+    /**
+     * How far from the expected color each channel of a screen marker may be, for night mode and color profiles.
+     */
+    private static final int SCREEN_COLOR_TOLERANCE = 16;
+    /**
+     * The share of the pokemon screen markers which must match, so a marker covered by a notification or a GoIV
+     * button doesn't fail the detection.
+     */
+    private static final float POKEMON_SCREEN_MIN_CONFIDENCE = 0.75f;
 
     private LinearLayout touchView;
     private WindowManager.LayoutParams touchViewParams;
     private Point[] area = new Point[2];
     private Integer[] areaColor = new Integer[2];
+    /**
+     * The pixels compared between frames to tell whether the screen changed.
+     */
+    private Point[] signaturePoints;
+    private ScreenClassifier screenClassifier;
+    /**
+     * The points of the markers of the screen classifier, in the same order.
+     */
+    private Point[] screenMarkerPoints;
 
     private Handler screenScanHandler;
     private ScreenScan screenScanRunnable;
-    private int screenScanRetries;
+    private Runnable screenWatchTimeoutRunnable;
+    private ScreenChangeListener screenChangeListener;
+    private long screenScanEarliestTime;
 
     private AppraisalManager appraisalManager;
 
@@ -68,25 +108,13 @@ public class ScreenWatcher {
      */
     private void initMarkerPixels() {
 
-        GoIVSettings set = GoIVSettings.getInstance(pokefly);
-        if (set.hasManualScanCalibration()) {
-            try {
-                String wpps = set.getCalibrationValue(SCREEN_INFO_CARD_WHITE_PIXEL);
-                int area0x = Integer.parseInt(wpps.split(",")[0]);
-                int area0y = Integer.parseInt(wpps.split(",")[1]);
-
-                String gpmp = set.getCalibrationValue(SCREEN_INFO_FAB_GREEN_PIXEL);
-                int area1x = Integer.parseInt(gpmp.split(",")[0]);
-                int area1y = Integer.parseInt(gpmp.split(",")[1]);
+        CalibrationProfile calibration = GoIVSettings.getInstance(pokefly).getCalibrationProfile();
+        if (calibration != null) {
+            area[0] = new Point(calibration.getCardWhitePixelX(), calibration.getCardWhitePixelY());
+            area[1] = new Point(calibration.getFabGreenPixelX(), calibration.getFabGreenPixelY());
 
-                area[0] = new Point(area0x, area0y);
-                area[1] = new Point(area1x, area1y);
-
-                areaColor[0] = Color.parseColor(set.getCalibrationValue(SCREEN_INFO_CARD_WHITE_HEX));
-                areaColor[1] = Color.parseColor(set.getCalibrationValue(SCREEN_INFO_FAB_GREEN_HEX));
-            } catch (Exception e) {
-                Log.e("ScreenWatcher", e.getMessage());
-            }
+            areaColor[0] = calibration.getCardWhitePixelColor();
+            areaColor[1] = calibration.getFabGreenPixelColor();
         }
 
         if (area[0] == null || area[1] == null) {
@@ -97,6 +125,57 @@ public class ScreenWatcher {
                     (int) Math.round(displayMetrics.widthPixels * 0.862445),
                     (int) Math.round(displayMetrics.heightPixels * 0.9004));
         }
+
+        signaturePoints = new Point[area.length + SIGNATURE_GRID_SIZE * SIGNATURE_GRID_SIZE];
+        System.arraycopy(area, 0, signaturePoints, 0, area.length);
+        for (int row = 0; row < SIGNATURE_GRID_SIZE; row++) {
+            for (int col = 0; col < SIGNATURE_GRID_SIZE; col++) {
+                signaturePoints[area.length + row * SIGNATURE_GRID_SIZE + col] = new Point(
+                        displayMetrics.widthPixels * (2 * col + 1) / (2 * SIGNATURE_GRID_SIZE),
+                        displayMetrics.heightPixels / 2 + displayMetrics.heightPixels * (2 * row + 1)
+                                / (4 * SIGNATURE_GRID_SIZE));
+            }
+        }
+
+        initScreenClassifier();
+    }
+
+    /**
+     * Initiates the markers telling the pokemon screen apart from the others: the white info card along its margins
+     * above area[0], and the green menu button around area[1]. When the appraisal speech bubble is shown, it covers
+     * the menu button in white.
+     */
+    private void initScreenClassifier() {
+        int width = displayMetrics.widthPixels;
+        int height = displayMetrics.heightPixels;
+        int cardWhite = areaColor[0] != null ? areaColor[0] : Color.rgb(250, 250, 250);
+        int menuGreen = areaColor[1] != null ? areaColor[1] : Color.rgb(28, 135, 150);
+        int cardStep = height / 20;
+        int buttonStep = width / 100; // Well within the radius of the menu button
+
+        ArrayList<ScreenClassifier.Marker> markers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int y = area[0].y - i * cardStep;
+            markers.add(new ScreenClassifier.Marker(Screen.POKEMON, area[0].x, y, cardWhite));
+            markers.add(new ScreenClassifier.Marker(Screen.POKEMON, width - 1 - area[0].x, y, cardWhite));
+        }
+        int[][] buttonOffsets = {{0, 0}, {-buttonStep, 0}, {buttonStep, 0}, {0, -buttonStep}, {0, buttonStep}};
+        for (int[] offset : buttonOffsets) {
+            markers.add(new ScreenClassifier.Marker(Screen.POKEMON,
+                    area[1].x + offset[0], area[1].y + offset[1], menuGreen));
+            markers.add(new ScreenClassifier.Marker(Screen.APPRAISAL,
+                    area[1].x + offset[0], area[1].y + offset[1], Color.WHITE));
+        }
+        markers.add(new ScreenClassifier.Marker(Screen.APPRAISAL, Math.round(width * 0.04f),
+                height - pokefly.getCurrentNavigationBarHeight() - Math.round(width * 0.16f), Color.WHITE));
+
+        screenClassifier = new ScreenClassifier(markers, SCREEN_COLOR_TOLERANCE);
+        screenMarkerPoints = new Point[markers.size()];
+        for (int i = 0; i < markers.size(); i++) {
+            ScreenClassifier.Marker marker = markers.get(i);
+            screenMarkerPoints[i] = new Point(
+                    Math.max(0, Math.min(marker.x, width - 1)), Math.max(0, Math.min(marker.y, height - 1)));
+        }
     }
 
     /**
@@ -107,6 +186,11 @@ public class ScreenWatcher {
     public void watchScreen() {
         screenScanHandler = new Handler();
         screenScanRunnable = new ScreenScan();
+        screenWatchTimeoutRunnable = new Runnable() {
+            @Override public void run() {
+                stopWatchingFrames();
+            }
+        };
 
         touchView = new LinearLayout(pokefly);
         //noinspection deprecation
@@ -129,19 +213,15 @@ public class ScreenWatcher {
 
     /**
      * isUserOnPokemonScreen
-     * Scans the device screen to check area[0] for the white and area[1] for the transfer button.
-     * If both exist then the user is on the pokemon screen.
+     * Scans the device screen to check around area[0] for the white card and around area[1] for the menu button.
+     * If enough of them are found, and the appraisal speech bubble doesn't match better, then the user is on the
+     * pokemon screen.
      */
     private boolean isUserOnPokemonScreen() {
         if (ScreenGrabber.getInstance() != null) {
-            @ColorInt int[] pixels = ScreenGrabber.getInstance().grabPixels(area);
+            @ColorInt int[] pixels = ScreenGrabber.getInstance().grabPixels(screenMarkerPoints);
             if (pixels != null) {
-                if (areaColor[0] != null) {
-                    return pixels[0] == areaColor[0] && pixels[1] == areaColor[1];
-                } else {
-                    return (pixels[0] == Color.rgb(250, 250, 250) || pixels[0] == Color.rgb(249, 249, 249))
-                            && pixels[1] == Color.rgb(28, 135, 150);
-                }
+                return screenClassifier.classify(pixels).is(Screen.POKEMON, POKEMON_SCREEN_MIN_CONFIDENCE);
             }
         }
         return false;
@@ -154,26 +234,94 @@ public class ScreenWatcher {
     public void cancelPendingScreenScan() {
         if (screenScanHandler != null) {
             screenScanHandler.removeCallbacks(screenScanRunnable);
+            stopWatchingFrames();
         }
     }
 
     /**
-     * The running method which is called initially by the touchevent, and which calls itself like an echo a couple
-     * of times just to retry - in case the user is running a particularly fast / slow phone.
+     * Watch the frames following a press, to check the screen once it settled.
+     */
+    private void startWatchingFrames() {
+        screenScanHandler.removeCallbacks(screenScanRunnable);
+        screenScanHandler.removeCallbacks(screenWatchTimeoutRunnable);
+        screenScanEarliestTime = SystemClock.uptimeMillis() + SCREEN_SCAN_MIN_DELAY_MS;
+        // If the screen doesn't change at all, check it once the game had the time to react
+        screenScanHandler.postAtTime(screenScanRunnable, screenScanEarliestTime);
+        screenScanHandler.postDelayed(screenWatchTimeoutRunnable, SCREEN_WATCH_TIMEOUT_MS);
+        if (ScreenGrabber.getInstance() != null) {
+            screenChangeListener = new ScreenChangeListener(screenScanHandler);
+            ScreenGrabber.getInstance().setFrameListener(screenChangeListener);
+        }
+    }
+
+    private void stopWatchingFrames() {
+        screenScanHandler.removeCallbacks(screenWatchTimeoutRunnable);
+        screenChangeListener = null;
+        if (ScreenGrabber.getInstance() != null) {
+            ScreenGrabber.getInstance().setFrameListener(null);
+        }
+    }
+
+    /**
+     * Called on the main thread every time a watched frame differs from the previous one: postpone the screen check
+     * until the screen settles.
+     */
+    private void onScreenChanged(ScreenChangeListener source) {
+        if (source != screenChangeListener) {
+            return; // Posted before the frames stopped being watched
+        }
+        screenScanHandler.removeCallbacks(screenScanRunnable);
+        screenScanHandler.postAtTime(screenScanRunnable,
+                Math.max(SystemClock.uptimeMillis() + SCREEN_SETTLE_MS, screenScanEarliestTime));
+    }
+
+    /**
+     * Compares a few pixels of every frame with the previous frame, on the capture thread, and reports changes to the
+     * main thread.
+     */
+    private class ScreenChangeListener implements ScreenGrabber.FrameListener {
+        private final Handler handler;
+        private final Runnable onScreenChanged = new Runnable() {
+            @Override public void run() {
+                onScreenChanged(ScreenChangeListener.this);
+            }
+        };
+        private int[] signature = new int[signaturePoints.length];
+        private int[] previousSignature = new int[signaturePoints.length];
+
+        ScreenChangeListener(Handler handler) {
+            this.handler = handler;
+        }
+
+        @Override public void onFrame(@NonNull ScreenFrame frame) {
+            for (int i = 0; i < signaturePoints.length; i++) {
+                Point p = signaturePoints[i];
+                if (p.x >= 0 && p.x < frame.getWidth() && p.y >= 0 && p.y < frame.getHeight()) {
+                    signature[i] = frame.getPixel(p.x, p.y);
+                }
+            }
+            if (!Arrays.equals(signature, previousSignature)) {
+                int[] swap = previousSignature;
+                previousSignature = signature;
+                signature = swap;
+                handler.post(onScreenChanged);
+            }
+        }
+    }
+
+    /**
+     * Checks the screen once it settled after a press. If the user isn't on the pokemon screen (yet), the frames
+     * keep being watched in case the screen changes again, until the watch times out.
      */
     private class ScreenScan implements Runnable {
         @Override public void run() {
-            if (screenScanRetries > 0) {
-                if (isUserOnPokemonScreen()) {
-                    screenScanRetries = 0; //skip further retries.
-                    pokefly.getIvButton().setShown(true, pokefly.getInfoShownSent());
-                    pokefly.getIvPreviewPrinter().printIVPreview(pokefly.getIvButton());
-
-                } else {
-                    screenScanRetries--;
-                    screenScanHandler.postDelayed(screenScanRunnable, SCREEN_SCAN_DELAY_MS);
-                    pokefly.getIvButton().setShown(false, pokefly.getInfoShownSent());
-                }
+            if (isUserOnPokemonScreen()) {
+                stopWatchingFrames(); // Showing the button and the preview changes the screen
+                pokefly.getIvButton().setShown(true, pokefly.getInfoShownSent());
+                pokefly.getIvPreviewPrinter().printIVPreview(pokefly.getIvButton());
+
+            } else {
+                pokefly.getIvButton().setShown(false, pokefly.getInfoShownSent());
             }
         }
     }
@@ -192,12 +340,10 @@ public class ScreenWatcher {
                 appraisalManager.screenTouched();
             } else {
                 // Not appraising, let's check to see if they're looking at a pokemon screen.
-                // The postDelayed will wait SCREEN_SCAN_DELAY_MS after the user touches the screen before
-                // performing a scan of the screen to detect the pixels associated with a Pokemon screen.
+                // The frames are watched until the screen settles before performing a scan of the screen to detect
+                // the pixels associated with a Pokemon screen.
                 if (screenScanHandler != null) { // Ensure this is not executed after unwatchScreen()
-                    screenScanHandler.removeCallbacks(screenScanRunnable);
-                    screenScanHandler.postDelayed(screenScanRunnable, SCREEN_SCAN_INITIAL_DELAY_MS);
-                    screenScanRetries = SCREEN_SCAN_RETRIES;
+                    startWatchingFrames();
                     pokefly.getIvButton().outsideScreenClicked();
                 }
             }
@@ -214,7 +360,9 @@ public class ScreenWatcher {
         touchViewParams = null;
         touchView = null;
         screenScanHandler.removeCallbacks(screenScanRunnable);
+        stopWatchingFrames();
         screenScanRunnable = null;
+        screenWatchTimeoutRunnable = null;
         screenScanHandler = null;
     }
 }
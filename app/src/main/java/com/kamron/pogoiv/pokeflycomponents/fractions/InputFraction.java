@@ -34,6 +34,7 @@ import com.kamron.pogoiv.scanlogic.PokeInfoCalculator;
 import com.kamron.pogoiv.scanlogic.Pokemon;
 import com.kamron.pogoiv.scanlogic.PokemonBase;
 import com.kamron.pogoiv.scanlogic.PokemonNameCorrector;
+import com.kamron.pogoiv.scanlogic.ResourcesPokedexDataSource;
 import com.kamron.pogoiv.scanlogic.ScanResult;
 import com.kamron.pogoiv.utils.GUIColorFromPokeType;
 import com.kamron.pogoiv.utils.LevelRange;
@@ -133,8 +134,9 @@ public class InputFraction extends Fraction implements ReactiveColorListener {
         initializePokemonAutoCompleteTextView();
 
         // Guess the species
-        PokemonNameCorrector.PokeDist possiblePoke =
-                PokemonNameCorrector.getInstance(pokefly).getPossiblePokemon(Pokefly.scanData);
+        PokemonNameCorrector.PokeDist possiblePoke = PokemonNameCorrector
+                .getInstance(new ResourcesPokedexDataSource(pokefly))
+                .getPossiblePokemon(Pokefly.scanData);
 
         // set color based on similarity
         if (possiblePoke.dist == 0) {
@@ -0,0 +1,247 @@
+package com.kamron.pogoiv.pokeflycomponents.ocrhelper;
+
+import android.graphics.Color;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.kamron.pogoiv.GoIVSettings;
+
+import java.util.Arrays;
+
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.ARC_INIT_POINT;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.ARC_RADIUS;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.CANDY_NAME_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_CANDY_AMOUNT_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_CP_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_EVOLUTION_COST_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_GENDER_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_HP_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_NAME_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_POWER_UP_CANDY_COST;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_POWER_UP_STARDUST_COST;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_TYPE_AREA;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_CARD_WHITE_HEX;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_CARD_WHITE_PIXEL;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_FAB_GREEN_HEX;
+import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.SCREEN_INFO_FAB_GREEN_PIXEL;
+
+/**
+ * The user screen calibration, parsed once from the settings.
+ * <p>
+ * Immutable, so a scan can read it without touching the settings, while other scans run or the user recalibrates.
+ */
+public class CalibrationProfile {
+
+    /**
+     * The calibrated areas, in the order of their values in {@link #areas}.
+     */
+    private static final String[] AREA_KEYS = {
+            POKEMON_NAME_AREA,
+            POKEMON_TYPE_AREA,
+            POKEMON_GENDER_AREA,
+            CANDY_NAME_AREA,
+            POKEMON_HP_AREA,
+            POKEMON_CP_AREA,
+            POKEMON_CANDY_AMOUNT_AREA,
+            POKEMON_EVOLUTION_COST_AREA,
+            POKEMON_POWER_UP_STARDUST_COST,
+            POKEMON_POWER_UP_CANDY_COST,
+    };
+
+    /**
+     * The x, y, width and height of each area of {@link #AREA_KEYS}.
+     */
+    private final int[] areas;
+    private final int arcCenterX;
+    private final int arcCenterY;
+    private final int arcRadius;
+    private final int cardWhitePixelX;
+    private final int cardWhitePixelY;
+    private final @ColorInt int cardWhitePixelColor;
+    private final int fabGreenPixelX;
+    private final int fabGreenPixelY;
+    private final @ColorInt int fabGreenPixelColor;
+
+    private CalibrationProfile(@NonNull int[] areas, @NonNull ScanPoint arcCenter, int arcRadius,
+                               @NonNull ScanPoint cardWhitePixel, @ColorInt int cardWhitePixelColor,
+                               @NonNull ScanPoint fabGreenPixel, @ColorInt int fabGreenPixelColor) {
+        this.areas = areas;
+        this.arcCenterX = arcCenter.xCoord;
+        this.arcCenterY = arcCenter.yCoord;
+        this.arcRadius = arcRadius;
+        this.cardWhitePixelX = cardWhitePixel.xCoord;
+        this.cardWhitePixelY = cardWhitePixel.yCoord;
+        this.cardWhitePixelColor = cardWhitePixelColor;
+        this.fabGreenPixelX = fabGreenPixel.xCoord;
+        this.fabGreenPixelY = fabGreenPixel.yCoord;
+        this.fabGreenPixelColor = fabGreenPixelColor;
+    }
+
+    /**
+     * Load the calibration saved in the settings.
+     *
+     * @return The calibration, or null if the screen wasn't calibrated or its calibration can't be read
+     */
+    public static @Nullable CalibrationProfile fromSettings(@NonNull GoIVSettings settings) {
+        if (!settings.hasManualScanCalibration()) {
+            return null;
+        }
+        try {
+            int[] areas = new int[AREA_KEYS.length * 4];
+            for (int i = 0; i < AREA_KEYS.length; i++) {
+                String[] values = settings.getCalibrationValue(AREA_KEYS[i]).split(",");
+                for (int j = 0; j < 4; j++) {
+                    areas[i * 4 + j] = Integer.parseInt(values[j]);
+                }
+            }
+            return new CalibrationProfile(areas,
+                    parsePoint(settings.getCalibrationValue(ARC_INIT_POINT)),
+                    Integer.parseInt(settings.getCalibrationValue(ARC_RADIUS)),
+                    parsePoint(settings.getCalibrationValue(SCREEN_INFO_CARD_WHITE_PIXEL)),
+                    Color.parseColor(settings.getCalibrationValue(SCREEN_INFO_CARD_WHITE_HEX)),
+                    parsePoint(settings.getCalibrationValue(SCREEN_INFO_FAB_GREEN_PIXEL)),
+                    Color.parseColor(settings.getCalibrationValue(SCREEN_INFO_FAB_GREEN_HEX)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the calibration of a calibration run, as it's saved.
+     *
+     * @param results The complete results of the calibration
+     */
+    public static @NonNull CalibrationProfile fromResults(@NonNull ScanFieldResults results) {
+        ScanArea[] resultAreas = {
+                results.pokemonNameArea,
+                results.pokemonTypeArea,
+                results.pokemonGenderArea,
+                results.candyNameArea,
+                results.pokemonHpArea,
+                results.pokemonCpArea,
+                results.pokemonCandyAmountArea,
+                results.pokemonEvolutionCostArea,
+                results.pokemonPowerUpStardustCostArea,
+                results.pokemonPowerUpCandyCostArea,
+        };
+        int[] areas = new int[AREA_KEYS.length * 4];
+        for (int i = 0; i < resultAreas.length; i++) {
+            areas[i * 4] = resultAreas[i].xPoint;
+            areas[i * 4 + 1] = resultAreas[i].yPoint;
+            areas[i * 4 + 2] = resultAreas[i].width;
+            areas[i * 4 + 3] = resultAreas[i].height;
+        }
+        // The colors are saved without their alpha
+        return new CalibrationProfile(areas, results.arcCenter, results.arcRadius,
+                results.infoScreenCardWhitePixelPoint, 0xFF000000 | results.infoScreenCardWhitePixelColor,
+                results.infoScreenFabGreenPixelPoint, 0xFF000000 | results.infoScreenFabGreenPixelColor);
+    }
+
+    /**
+     * Read a calibration saved with {@link #toSettingsValue()}.
+     *
+     * @return The calibration, or null if the value can't be read
+     */
+    public static @Nullable CalibrationProfile fromSettingsValue(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            String[] values = value.split(",");
+            int[] ints = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ints[i] = Integer.parseInt(values[i]);
+            }
+            int p = AREA_KEYS.length * 4; // The points follow the areas
+            if (ints.length != p + 9) {
+                return null;
+            }
+            return new CalibrationProfile(Arrays.copyOf(ints, p),
+                    new ScanPoint(ints[p], ints[p + 1]), ints[p + 2],
+                    new ScanPoint(ints[p + 3], ints[p + 4]), ints[p + 5],
+                    new ScanPoint(ints[p + 6], ints[p + 7]), ints[p + 8]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get all of the calibration in a single settings value, read back by {@link #fromSettingsValue(String)}.
+     */
+    public @NonNull String toSettingsValue() {
+        StringBuilder value = new StringBuilder();
+        for (int area : areas) {
+            value.append(area).append(',');
+        }
+        value.append(arcCenterX).append(',').append(arcCenterY).append(',').append(arcRadius).append(',')
+                .append(cardWhitePixelX).append(',').append(cardWhitePixelY).append(',')
+                .append(cardWhitePixelColor).append(',')
+                .append(fabGreenPixelX).append(',').append(fabGreenPixelY).append(',')
+                .append(fabGreenPixelColor);
+        return value.toString();
+    }
+
+    private static @NonNull ScanPoint parsePoint(@NonNull String value) {
+        String[] values = value.split(",");
+        return new ScanPoint(Integer.parseInt(values[0]), Integer.parseInt(values[1]));
+    }
+
+    /**
+     * Get a calibrated area, for example the screen area where the pokemon HP might be.
+     *
+     * @param areaKey     The ScanFieldNames key of the area
+     * @param luckyOffset Amount to offset the scan region downward in case this is a lucky pokemon
+     * @return A new area, or null if the key isn't a calibrated area
+     */
+    public @Nullable ScanArea getArea(@NonNull String areaKey, int luckyOffset) {
+        for (int i = 0; i < AREA_KEYS.length; i++) {
+            if (AREA_KEYS[i].equals(areaKey)) {
+                return new ScanArea(areas[i * 4], areas[i * 4 + 1] + luckyOffset, areas[i * 4 + 2], areas[i * 4 + 3]);
+            }
+        }
+        return null;
+    }
+
+    public int getArcCenterX() {
+        return arcCenterX;
+    }
+
+    public int getArcCenterY() {
+        return arcCenterY;
+    }
+
+    public int getArcRadius() {
+        return arcRadius;
+    }
+
+    /**
+     * A point of the pokemon info card which is white on the pokemon screen.
+     */
+    public int getCardWhitePixelX() {
+        return cardWhitePixelX;
+    }
+
+    public int getCardWhitePixelY() {
+        return cardWhitePixelY;
+    }
+
+    public @ColorInt int getCardWhitePixelColor() {
+        return cardWhitePixelColor;
+    }
+
+    /**
+     * A point of the menu button which is green on the pokemon screen.
+     */
+    public int getFabGreenPixelX() {
+        return fabGreenPixelX;
+    }
+
+    public int getFabGreenPixelY() {
+        return fabGreenPixelY;
+    }
+
+    public @ColorInt int getFabGreenPixelColor() {
+        return fabGreenPixelColor;
+    }
+}
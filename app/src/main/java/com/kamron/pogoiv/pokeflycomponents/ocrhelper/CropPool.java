@@ -0,0 +1,155 @@
+package com.kamron.pogoiv.pokeflycomponents.ocrhelper;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import com.kamron.pogoiv.ScreenFrame;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reusable bitmaps and pixel arrays for the crops of a screenshot. The scanned fields have the same few sizes scan
+ * after scan: a scan borrows what it needs through a {@link Lease} and gives all of it back once done, so scanning
+ * doesn't leave megabytes of garbage behind.
+ * <p>
+ * Safe to use from several threads.
+ */
+class CropPool {
+
+    /**
+     * How many idle bitmaps, and how many idle arrays, are kept per size. Two fields of the same size, plus the
+     * copies made while cleaning them up, are the most a scan uses.
+     */
+    private static final int MAX_IDLE_PER_SIZE = 4;
+
+    private final Map<Long, ArrayDeque<Bitmap>> idleBitmaps = new HashMap<>();
+    private final Map<Long, ArrayDeque<int[]>> idlePixels = new HashMap<>();
+
+    private static long getKey(int width, int height) {
+        return ((long) width << 32) | height;
+    }
+
+    /**
+     * Start borrowing crops for a scan.
+     */
+    @NonNull Lease lease() {
+        return new Lease();
+    }
+
+    /**
+     * Drops the idle bitmaps and arrays. Crops still lent out are kept by the pool when given back.
+     */
+    synchronized void clear() {
+        for (ArrayDeque<Bitmap> bitmaps : idleBitmaps.values()) {
+            for (Bitmap bitmap : bitmaps) {
+                bitmap.recycle();
+            }
+        }
+        idleBitmaps.clear();
+        idlePixels.clear();
+    }
+
+    private synchronized @NonNull Bitmap takeBitmap(int width, int height) {
+        ArrayDeque<Bitmap> bitmaps = idleBitmaps.get(getKey(width, height));
+        if (bitmaps != null && !bitmaps.isEmpty()) {
+            return bitmaps.pop();
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private synchronized @NonNull int[] takePixels(int width, int height) {
+        ArrayDeque<int[]> arrays = idlePixels.get(getKey(width, height));
+        if (arrays != null && !arrays.isEmpty()) {
+            return arrays.pop();
+        }
+        return new int[width * height];
+    }
+
+    private synchronized void giveBack(Bitmap bitmap) {
+        long key = getKey(bitmap.getWidth(), bitmap.getHeight());
+        ArrayDeque<Bitmap> bitmaps = idleBitmaps.get(key);
+        if (bitmaps == null) {
+            bitmaps = new ArrayDeque<>(MAX_IDLE_PER_SIZE);
+            idleBitmaps.put(key, bitmaps);
+        }
+        if (bitmaps.size() < MAX_IDLE_PER_SIZE) {
+            bitmaps.push(bitmap);
+        }
+    }
+
+    private synchronized void giveBack(long key, int[] pixels) {
+        ArrayDeque<int[]> arrays = idlePixels.get(key);
+        if (arrays == null) {
+            arrays = new ArrayDeque<>(MAX_IDLE_PER_SIZE);
+            idlePixels.put(key, arrays);
+        }
+        if (arrays.size() < MAX_IDLE_PER_SIZE) {
+            arrays.push(pixels);
+        }
+    }
+
+    /**
+     * The bitmaps and arrays borrowed by one scan. Its fields are read in parallel, so a lease can be used from
+     * several threads.
+     */
+    class Lease {
+        private final ArrayList<Bitmap> bitmaps = new ArrayList<>();
+        private final ArrayList<int[]> pixels = new ArrayList<>();
+        private final ArrayList<Long> pixelsKeys = new ArrayList<>();
+
+        private Lease() {
+        }
+
+        /**
+         * Get a mutable ARGB bitmap. Its content is undefined: the caller overwrites all of it.
+         */
+        @NonNull Bitmap getBitmap(int width, int height) {
+            Bitmap bitmap = takeBitmap(width, height);
+            synchronized (this) {
+                bitmaps.add(bitmap);
+            }
+            return bitmap;
+        }
+
+        /**
+         * Get an array of width * height pixels. Its content is undefined: the caller overwrites all of it.
+         */
+        @NonNull int[] getPixels(int width, int height) {
+            int[] array = takePixels(width, height);
+            synchronized (this) {
+                pixels.add(array);
+                pixelsKeys.add(getKey(width, height));
+            }
+            return array;
+        }
+
+        /**
+         * Copy a region of a frame in a borrowed bitmap, like {@link ScreenFrame#getCrop(int, int, int, int)}.
+         */
+        @NonNull Bitmap getCrop(@NonNull ScreenFrame frame, int x, int y, int width, int height) {
+            int[] cropPixels = getPixels(width, height);
+            frame.getPixels(cropPixels, x, y, width, height);
+            Bitmap crop = getBitmap(width, height);
+            crop.setPixels(cropPixels, 0, width, 0, 0, width, height);
+            return crop;
+        }
+
+        /**
+         * Give back everything borrowed. None of it can be used afterwards.
+         */
+        synchronized void release() {
+            for (Bitmap bitmap : bitmaps) {
+                giveBack(bitmap);
+            }
+            for (int i = 0; i < pixels.size(); i++) {
+                giveBack(pixelsKeys.get(i), pixels.get(i));
+            }
+            bitmaps.clear();
+            pixels.clear();
+            pixelsKeys.clear();
+        }
+    }
+}
@@ -4,35 +4,54 @@ import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.util.Pair;
 import android.support.v7.graphics.Palette;
-import android.util.LruCache;
 import android.widget.Toast;
 
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.googlecode.tesseract.android.TessBaseAPI;
 import com.kamron.pogoiv.GoIVSettings;
 import com.kamron.pogoiv.Pokefly;
+import com.kamron.pogoiv.ScreenFrame;
+import com.kamron.pogoiv.scanlogic.ArcGeometry;
 import com.kamron.pogoiv.scanlogic.Data;
 import com.kamron.pogoiv.scanlogic.IVCombination;
+import com.kamron.pogoiv.scanlogic.LevelArcDetector;
+import com.kamron.pogoiv.scanlogic.OcrCache;
+import com.kamron.pogoiv.scanlogic.OcrDiskMemo;
 import com.kamron.pogoiv.scanlogic.PokeInfoCalculator;
 import com.kamron.pogoiv.scanlogic.Pokemon;
 import com.kamron.pogoiv.scanlogic.ScanData;
+import com.kamron.pogoiv.scanlogic.UpgradeCostTable;
+import com.kamron.pogoiv.utils.ColorClassifier;
 import com.kamron.pogoiv.utils.GUIColorFromPokeType;
 import com.kamron.pogoiv.utils.LevelRange;
+import com.kamron.pogoiv.utils.PixelHash;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import timber.log.Timber;
 
-import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.ARC_INIT_POINT;
-import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.ARC_RADIUS;
 import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.CANDY_NAME_AREA;
 import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_CANDY_AMOUNT_AREA;
 import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEMON_CP_AREA;
@@ -50,17 +69,88 @@ import static com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanFieldNames.POKEM
  */
 public class OcrHelper {
 
+    /**
+     * How many fields are OCR'd in parallel, on top of the thread calling scanPokemon.
+     */
+    private static final int FIELD_THREADS =
+            Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+    /**
+     * How long exit() waits for the fields being read before ending the engines under them.
+     */
+    private static final long FIELD_SHUTDOWN_TIMEOUT_MILLIS = 2000;
+
     private static OcrHelper instance = null;
-    private static TessBaseAPI tesseract = null;
+    /**
+     * Digits only engines, for the number fields whose crop only has the digits left once cleaned: any other glyph
+     * would be read as a digit.
+     */
+    private static TesseractPool numberTesseractPool = null;
+    /**
+     * Letters only engines, for the names and types.
+     */
+    private static TesseractPool textTesseractPool = null;
+    /**
+     * Engines for the number fields mixed with other glyphs: the "current / max HP" line and its translated HP suffix,
+     * and the power up costs next to their stardust and candy icons. The other glyphs are read as letters, and
+     * dropped by fixOcrLettersToNums.
+     */
+    private static TesseractPool mixedTesseractPool = null;
+    private static ExecutorService fieldExecutor = null;
+    /**
+     * Bitmaps and pixel arrays of the field crops, reused from scan to scan.
+     */
+    private static CropPool cropPool = null;
+    /**
+     * The pixels probed to find the level arc dot, rebuilt only when the arc changes.
+     */
+    private static volatile LevelArcDetector levelArcDetector = null;
     private static boolean isPokeSpamEnabled;
-    private static LruCache<String, String> ocrCache;
+    /**
+     * The power up costs, to tell the levels a scanned power up candy cost can come from.
+     */
+    private static UpgradeCostTable upgradeCostTable;
+    /**
+     * Kept across exit() and init(), so a restarted service doesn't OCR the same screens again.
+     */
+    private static final OcrCache ocrCache = new OcrCache();
+    /**
+     * Remembers the stable text fields across processes, opened in the background by the first init(); null until
+     * then, or if it couldn't be opened. Kept open across exit() and init() like ocrCache.
+     */
+    private static volatile OcrDiskMemo ocrDiskMemo = null;
+    private static boolean isOcrDiskMemoOpening = false; // Guarded by OcrHelper.class
+    private static volatile boolean isOcrDiskMemoEnabled;
+    private static final String OCR_DISK_MEMO_FILE = "ocr_memo";
+    private static final int OCR_DISK_MEMO_CAPACITY = 256 * 1024;
+
 
+    private static final String NUMBER_WHITELIST = "0123456789";
+    private static final String TEXT_WHITELIST = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz/-♀♂";
+    private static final String MIXED_WHITELIST = TEXT_WHITELIST + NUMBER_WHITELIST;
 
     private static int DEFAULT_FONT_COLOR = 4680814; //Pokemon go font color, rgb 71,108,110 (approximate)
     private static int CANT_AFFORD_FONT_COLOR = 16736100; //Pokemon go font color, rgb 255,95,100 (approximate)
 
+    /**
+     * Finds the evolution cost text, which is either in the "can afford" or in the "cannot afford" color. Could use
+     * DEFAULT_FONT_COLOR and CANT_AFFORD_FONT_COLOR, but hardcoded instead.
+     */
+    private static final ColorClassifier EVOLUTION_COST_CLASSIFIER = new ColorClassifier(
+            new int[] {Color.rgb(68, 105, 108), Color.rgb(255, 115, 115)}, new int[] {30, 40});
+    private static final int EVOLUTION_COST_CAN_AFFORD = 0;
+    private static final int EVOLUTION_COST_CANNOT_AFFORD = 1;
+
     private static WeakReference<Pokefly> pokeflyRef;
 
+    /**
+     * Per thread buffer for the pixels of the crops being hashed, since fields are read in parallel.
+     */
+    private static final ThreadLocal<int[]> hashBuffer = new ThreadLocal<int[]>() {
+        @Override protected int[] initialValue() {
+            return new int[0];
+        }
+    };
+
 
     private OcrHelper() {
     }
@@ -75,15 +165,19 @@ public class OcrHelper {
                                               @NonNull String dataPath,
                                               @NonNull PokeInfoCalculator pokeInfoCalculator) {
         pokeflyRef = new WeakReference<>(pokefly);
+        upgradeCostTable = pokeInfoCalculator.getUpgradeCostTable();
 
         if (instance == null) {
-            tesseract = new TessBaseAPI();
-            tesseract.init(dataPath, "eng");
-            tesseract.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
-            tesseract.setVariable(TessBaseAPI.VAR_CHAR_WHITELIST,
-                    "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789/-♀♂");
-
-            ocrCache = new LruCache<>(200);
+            // At most as many engines of each kind as fields of that kind can be read at the same time, created by the
+            // first scans rather than here on the main thread. The number and text fields (CP, candy amount,
+            // evolution cost; name, type, candy name) are three each, read on the field threads. The mixed ones are
+            // the HP, read from the thread calling scanPokemon, and the power up candy cost.
+            numberTesseractPool = new TesseractPool(dataPath, Math.min(FIELD_THREADS, 3), NUMBER_WHITELIST);
+            textTesseractPool = new TesseractPool(dataPath, Math.min(FIELD_THREADS, 3), TEXT_WHITELIST);
+            mixedTesseractPool = new TesseractPool(dataPath, 2, MIXED_WHITELIST);
+            fieldExecutor = Executors.newFixedThreadPool(FIELD_THREADS,
+                    new ThreadFactoryBuilder().setNameFormat("ocr-field-%d").setDaemon(true).build());
+            cropPool = new CropPool();
 
             instance = new OcrHelper();
         }
@@ -92,24 +186,106 @@ public class OcrHelper {
         GoIVSettings settings = GoIVSettings.getInstance(pokefly);
 
         isPokeSpamEnabled = settings.isPokeSpamEnabled();
+        isOcrDiskMemoEnabled = settings.isOcrDiskMemoEnabled();
+        if (isOcrDiskMemoEnabled && ocrDiskMemo == null && !isOcrDiskMemoOpening) {
+            openOcrDiskMemo(new File(pokefly.getCacheDir(), OCR_DISK_MEMO_FILE));
+        }
 
         return instance;
     }
 
+    /**
+     * Frees the OCR engines. The pools and the field executor are ended rather than dropped, so a scan still running
+     * fails on them instead of on a null; the next init() replaces them.
+     */
     public void exit() {
-        if (tesseract != null) {
-            tesseract.stop();
-            tesseract.end();
-            tesseract = null;
+        if (fieldExecutor != null) {
+            // Queued fields still run, so no scan waits forever on one of them
+            fieldExecutor.shutdown();
+            try {
+                if (!fieldExecutor.awaitTermination(FIELD_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    Timber.w("OCR fields still being read after %d ms, ending the engines anyway",
+                            FIELD_SHUTDOWN_TIMEOUT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (numberTesseractPool != null) {
+            numberTesseractPool.end();
+        }
+        if (textTesseractPool != null) {
+            textTesseractPool.end();
+        }
+        if (mixedTesseractPool != null) {
+            mixedTesseractPool.end();
+        }
+        if (cropPool != null) {
+            cropPool.clear();
         }
         instance = null;
-        ocrCache = null;
+        Timber.d("OCR cache: %s", ocrCache);
+        OcrDiskMemo memo = ocrDiskMemo;
+        if (memo != null) {
+            memo.flush();
+            Timber.d("OCR disk memo: %s", memo);
+        }
+    }
+
+    /**
+     * Opens the disk memo on its own thread, so reading it doesn't delay the start of the service, and exit() can't
+     * drop it. Until it's open the stable fields are only looked up in ocrCache.
+     */
+    private static void openOcrDiskMemo(@NonNull final File file) {
+        isOcrDiskMemoOpening = true;
+        new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    ocrDiskMemo = OcrDiskMemo.open(file, OCR_DISK_MEMO_CAPACITY);
+                } catch (IOException e) {
+                    Timber.e(e, "Couldn't open the OCR disk memo");
+                } finally {
+                    synchronized (OcrHelper.class) {
+                        isOcrDiskMemoOpening = false;
+                    }
+                }
+            }
+        }, "ocr-disk-memo").start();
+    }
+
+    /**
+     * Get the text read from a crop of a stable field, from ocrCache or else from the disk memo.
+     *
+     * @return The text, or null if the crop wasn't read yet
+     */
+    private static @Nullable String getStableText(@NonNull OcrCache.Field<String> field, long hash) {
+        String text = ocrCache.get(field, hash);
+        OcrDiskMemo memo = ocrDiskMemo;
+        if (text == null && memo != null && isOcrDiskMemoEnabled) {
+            text = memo.get(field, hash);
+            if (text != null) {
+                ocrCache.put(field, hash, text);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Remember the text read from a crop of a stable field, in ocrCache and in the disk memo.
+     */
+    private static void putStableText(@NonNull OcrCache.Field<String> field, long hash, @NonNull String text) {
+        ocrCache.put(field, hash, text);
+        OcrDiskMemo memo = ocrDiskMemo;
+        if (memo != null && isOcrDiskMemoEnabled) {
+            memo.put(field, hash, text);
+        }
     }
 
     /**
      * Replaces colors in a bitmap that are not farther away from a specific color than a given
      * threshold.
      *
+     * @param crops        Lends the pixels array, and the bitmap produced if srcBitmap isn't mutated.
      * @param srcBitmap    The source bitmap to scan.
      * @param mutateSrc    Indicates whether to mutate srcBitmap or to produce a new one.
      * @param keepCr       The red color to keep
@@ -120,9 +296,10 @@ public class OcrHelper {
      * @param simpleBG     Whether the bitmap has a simple background
      * @return Bitmap with replaced colors
      */
-    private static Bitmap replaceColors(Bitmap srcBitmap, boolean mutateSrc, int keepCr, int keepCg, int keepCb,
+    private static Bitmap replaceColors(CropPool.Lease crops, Bitmap srcBitmap, boolean mutateSrc,
+                                        int keepCr, int keepCg, int keepCb,
                                         int replaceColor, int distance, boolean simpleBG) {
-        int[] allpixels = new int[srcBitmap.getHeight() * srcBitmap.getWidth()];
+        int[] allpixels = crops.getPixels(srcBitmap.getWidth(), srcBitmap.getHeight());
         srcBitmap.getPixels(allpixels, 0, srcBitmap.getWidth(), 0, 0, srcBitmap.getWidth(), srcBitmap.getHeight());
         int bgColor = replaceColor;
         int distanceSq = distance * distance;
@@ -151,7 +328,7 @@ public class OcrHelper {
         if (mutateSrc) {
             dstBitmap = srcBitmap;
         } else {
-            dstBitmap = Bitmap.createBitmap(srcBitmap.getWidth(), srcBitmap.getHeight(), srcBitmap.getConfig());
+            dstBitmap = crops.getBitmap(srcBitmap.getWidth(), srcBitmap.getHeight());
         }
         dstBitmap.setPixels(allpixels, 0, srcBitmap.getWidth(), 0, 0, srcBitmap.getWidth(), srcBitmap.getHeight());
         return dstBitmap;
@@ -164,68 +341,20 @@ public class OcrHelper {
      * @param pokemonImage The image of the entire screen
      * @return the estimated pokemon level, or 1 if nothing found
      */
-    private static double getPokemonLevelFromImg(@NonNull Bitmap pokemonImage, int trainerLevel) {
-        double estimatedPokemonLevel = Data.trainerLevelToMaxPokeLevel(trainerLevel);
-        double previousEstPokemonLevel = estimatedPokemonLevel + 0.5; // Initial value out of range
-        int previousLevelDistance = -1; // Initial value indicating no found white pixels
-        for (double estPokemonLevel = estimatedPokemonLevel; estPokemonLevel >= 1.0; estPokemonLevel -= 0.5) {
-            int index = Data.maxPokeLevelToIndex(estPokemonLevel);
-            int x = Data.arcX[index];
-            int y = Data.arcY[index];
-            int whiteLineDistance = getCardinalWhiteLineDistFromImg(pokemonImage, x, y);
-
-            // If we found a lower white line distance than our last calculation, last calculation was best match.
-            // If the actual level is 1.0, we fall out to the default case below the for loop.
-            if (whiteLineDistance < previousLevelDistance) {
-                return previousEstPokemonLevel;
-            }
-
-            // Have not passed the best match yet; store current values for next loop cycle
-            previousEstPokemonLevel = estPokemonLevel;
-            previousLevelDistance = whiteLineDistance;
-        }
-        return 1;
-    }
-
-    /**
-     * Examines the image from the given coordinates to determine the distance which is consistently white pixels in
-     * 2 directions: towards and away the level arc center.
-     * This helps identify the point closest to the center of the level indicator dot.
-     *
-     * @param pokemonImage The image of the entire screen
-     * @param x            Horizontal ordinate to scan from
-     * @param y            Vertical ordinate to scan from
-     * @return -1 if the given coordinate is not a white pixel, otherwise the distance from given
-     * coordinate which is white in each cardinal direction.
-     */
-    private static int getCardinalWhiteLineDistFromImg(Bitmap pokemonImage, int x, int y) {
-        final int targetColor = Color.WHITE;
-
-        Double angle = null;
-        int r = -1;
-        int i1x = x;
-        int i1y = y;
-        int i2x = x;
-        int i2y = y;
-
-        while (pokemonImage.getPixel(i1x, i1y) == targetColor || pokemonImage.getPixel(i2x, i2y) == targetColor) {
-            r++;
-            if (angle == null) {
-                angle = Math.atan2(Data.arcInitY - y, Data.arcInitX - x);
-            }
-            i1x = (int) Math.round(x + r * Math.cos(angle));
-            i1y = (int) Math.round(y + r * Math.sin(angle));
-            i2x = (int) Math.round(x - r * Math.cos(angle));
-            i2y = (int) Math.round(y - r * Math.sin(angle));
-            if (i1x < 0 || i1x >= pokemonImage.getWidth()
-                    || i1y < 0 || i1y >= pokemonImage.getHeight()
-                    || i2x < 0 || i2x >= pokemonImage.getWidth()
-                    || i2y < 0 || i2y >= pokemonImage.getHeight()) {
-                return -1;
+    private static double getPokemonLevelFromImg(@NonNull final ScreenFrame pokemonImage,
+                                                 @NonNull ArcGeometry levelArc) {
+        LevelArcDetector detector = levelArcDetector;
+        if (detector == null
+                || !detector.isBuiltFor(levelArc, pokemonImage.getWidth(), pokemonImage.getHeight())) {
+            // The arc changed since the last scan: recalibration, trainer level up or new screen size
+            detector = new LevelArcDetector(levelArc, pokemonImage.getWidth(), pokemonImage.getHeight());
+            levelArcDetector = detector;
+        }
+        return detector.detectLevel(new LevelArcDetector.Pixels() {
+            @Override public int getPixel(int x, int y) {
+                return pokemonImage.getPixel(x, y);
             }
-        }
-
-        return r;
+        }, levelArc.getTrainerLevel());
     }
 
     /**
@@ -234,35 +363,36 @@ public class OcrHelper {
      * @param evolutionCostImage The precut image of the evolution cost area.
      * @return the evolution cost (or -1 if absent) wrapped in Optional.of(), or Optional.absent() on scan failure
      */
-    private static Optional<Integer> getPokemonEvolutionCostFromImgUncached(@NonNull Bitmap evolutionCostImage) {
-        //clean the image
-
-        //Could use DEAFULT_FONT_COLOR, but hardcoded instead
-        Bitmap evolutionCostImageCanAfford = replaceColors(evolutionCostImage, false, 68, 105, 108, Color.WHITE, 30,
-                false);
-
-        //Could use CANT_AFFORD_FONT_COLOR, but hardcoded instead.
-        Bitmap evolutionCostImageCannotAfford = replaceColors(evolutionCostImage, false, 255, 115, 115, Color.WHITE, 40,
-                false);
-
-        boolean affordIsBlank = isOnlyWhite(evolutionCostImageCanAfford);
-        boolean cannotAffordIsBlank = isOnlyWhite(evolutionCostImageCannotAfford);
+    private static Optional<Integer> getPokemonEvolutionCostFromImgUncached(@NonNull CropPool.Lease crops,
+                                                                            @NonNull Bitmap evolutionCostImage) {
+        //find the text pixels of both colors in a single pass
+        int width = evolutionCostImage.getWidth();
+        int height = evolutionCostImage.getHeight();
+        int[] pixels = crops.getPixels(width, height);
+        evolutionCostImage.getPixels(pixels, 0, width, 0, 0, width, height);
+        int[] classes = crops.getPixels(width, height);
+        int[] counts = new int[EVOLUTION_COST_CLASSIFIER.getTargetCount()];
+        EVOLUTION_COST_CLASSIFIER.classify(pixels, pixels.length, classes, counts);
+
+        int middleRow = height / 2 * width;
+        boolean affordIsBlank = isOnlyWhite(
+                ColorClassifier.count(classes, middleRow, width, EVOLUTION_COST_CAN_AFFORD), width);
+        boolean cannotAffordIsBlank = isOnlyWhite(
+                ColorClassifier.count(classes, middleRow, width, EVOLUTION_COST_CANNOT_AFFORD), width);
         //check if fully evolved
         if (affordIsBlank && cannotAffordIsBlank) { //if there's no red or black text, there's no text at all.
             return Optional.of(-1);
         }
 
-        //use the correctly refined image (refined for red or black text)
-        if (affordIsBlank) {
-            evolutionCostImage = evolutionCostImageCannotAfford;
-        } else {
-            evolutionCostImage = evolutionCostImageCanAfford;
-        }
+        //clean the image, refined for red or black text
+        ColorClassifier.mask(pixels, pixels.length, classes,
+                affordIsBlank ? EVOLUTION_COST_CANNOT_AFFORD : EVOLUTION_COST_CAN_AFFORD, Color.WHITE, pixels);
+        evolutionCostImage = crops.getBitmap(width, height);
+        evolutionCostImage.setPixels(pixels, 0, width, 0, 0, width, height);
 
         //If not cached or fully evolved, ocr text
         int result;
-        tesseract.setImage(evolutionCostImage);
-        String ocrResult = fixOcrLettersToNums(tesseract.getUTF8Text());
+        String ocrResult = fixOcrLettersToNums(numberTesseractPool.getText(evolutionCostImage));
         try {
             result = Integer.parseInt(ocrResult);
             if (result == 10 || result == 1) { //second zero hidden behind floating button
@@ -287,29 +417,28 @@ public class OcrHelper {
      * @param pokemonImage The image of the full pokemon screen
      * @return the evolution cost (or -1 if absent) wrapped in Optional.of(), or Optional.absent() on scan failure
      */
-    private static Optional<Integer> getPokemonEvolutionCostFromImg(@NonNull Bitmap pokemonImage,
-
+    private static Optional<Integer> getPokemonEvolutionCostFromImg(@NonNull CropPool.Lease crops,
+                                                                    @NonNull ScreenFrame pokemonImage,
                                                                     @Nullable ScanArea evolutionCostArea) {
         Bitmap evolutionCostImage = null;
 
         //Since 'new attack' button is at the same place as "evolve" on max evolutions, we need to make sure
         //We're not wrongly reading a 'new attack' button. Check this by scanning left of evolutionCostImage, and
         //looking for a specific color that evolve button doesnt have.
-        Bitmap leftOfEvolutionCostImage = null;
+        //Only the middle row of pixels is looked at, so only that row is copied.
+        int[] leftOfEvolutionCostRow = null;
         if (evolutionCostArea != null) {
-            evolutionCostImage = getImageCrop(pokemonImage, evolutionCostArea);
+            evolutionCostImage = getImageCrop(crops, pokemonImage, evolutionCostArea);
 
-            leftOfEvolutionCostImage = Bitmap.createBitmap(pokemonImage,
-                    evolutionCostArea.xPoint-evolutionCostArea.width,//-evolutionCostArea.width,
-                    evolutionCostArea.yPoint,
+            leftOfEvolutionCostRow = crops.getPixels(evolutionCostArea.width, 1);
+            pokemonImage.getPixels(leftOfEvolutionCostRow,
+                    evolutionCostArea.xPoint - evolutionCostArea.width,
+                    evolutionCostArea.yPoint + evolutionCostArea.height / 2,
                     evolutionCostArea.width,
-                    evolutionCostArea.height);
-            //xstart,ystart,xwidth,
-            // ywidth)
-
+                    1);
         }
         if (evolutionCostImage == null) {
-            evolutionCostImage = getImageCrop(pokemonImage, 0.625, 0.815, 0.2, 0.03);
+            evolutionCostImage = getImageCrop(crops, pokemonImage, 0.625, 0.815, 0.2, 0.03);
         }
 
         boolean isNewAttackButton = false;
@@ -322,12 +451,10 @@ public class OcrHelper {
 
        // The color code for 'cant afford' text is approximately rgb 255 95 100
 
-        if (leftOfEvolutionCostImage != null){
-            int middle = leftOfEvolutionCostImage.getHeight()/2;
+        if (leftOfEvolutionCostRow != null){
             int amountOfTextPixels = 0;
             int amountOfPinkBackgroundPixels = 0; //evolutions that require items have pink-ish background
-            for (int i = 0; i < leftOfEvolutionCostImage.getWidth(); i++) {
-                int color = leftOfEvolutionCostImage.getPixel(i, middle);
+            for (int color : leftOfEvolutionCostRow) {
                 boolean normalRange = isInColorRange(color, DEFAULT_FONT_COLOR, 6);
                 boolean cantAffordRange = isInColorRange(color, CANT_AFFORD_FONT_COLOR, 6); //if user
                 //cant afford the stardust cost
@@ -342,8 +469,8 @@ public class OcrHelper {
 
 
             }
-            double percentTextPixels = amountOfTextPixels / (double) leftOfEvolutionCostImage.getWidth();
-            double percentPinkBackground = amountOfPinkBackgroundPixels / (double) leftOfEvolutionCostImage.getWidth();
+            double percentTextPixels = amountOfTextPixels / (double) leftOfEvolutionCostRow.length;
+            double percentPinkBackground = amountOfPinkBackgroundPixels / (double) leftOfEvolutionCostRow.length;
             boolean isPinkBackground = percentPinkBackground > 0.3;
             if (percentTextPixels > 0.04 && isPinkBackground== false){
                 //An evolution stone with '1' cost results in approx 5% text pixels
@@ -355,31 +482,13 @@ public class OcrHelper {
         }
 
 
-        String hash = "candyCost" + hashBitmap(evolutionCostImage);
+        long hash = hashBitmap(evolutionCostImage);
 
-        if (ocrCache != null) {
-            //return cache if it exists
-            String stringCacheEvoCandyCost = ocrCache.get(hash);
-            if (stringCacheEvoCandyCost != null) {
-                //XXX in the cache, we encode "no result" as an empty string. That's a hack.
-                if (stringCacheEvoCandyCost.isEmpty()) {
-                    return Optional.absent();
-                } else {
-                    return Optional.of(Integer.parseInt(stringCacheEvoCandyCost));
-                }
-            }
-        }
-
-        Optional<Integer> result = getPokemonEvolutionCostFromImgUncached(evolutionCostImage);
-        String ocrResult;
-        if (result.isPresent()) {
-            ocrResult = String.valueOf(result.get()); //Store error code instead of scanned value
-        } else {
-            //XXX again, in the cache, we encode "no result" as an empty string.
-            ocrResult = "";
-        }
-        if (ocrCache != null) {
-            ocrCache.put(hash, ocrResult);
+        //return cache if it exists
+        Optional<Integer> result = ocrCache.get(OcrCache.Field.EVOLUTION_COST, hash);
+        if (result == null) {
+            result = getPokemonEvolutionCostFromImgUncached(crops, evolutionCostImage);
+            ocrCache.put(OcrCache.Field.EVOLUTION_COST, hash, result);
         }
         return result;
     }
@@ -416,7 +525,8 @@ public class OcrHelper {
      * @param evolutionCostArea The pokémon evolution cost are, moveset is always located below this information
      * @return A pair of strings that represent the fast and charged moves
      */
-    private static @Nullable Pair<String, String> getMovesetFromImg(@NonNull Bitmap pokemonImage,
+    private static @Nullable Pair<String, String> getMovesetFromImg(@NonNull CropPool.Lease crops,
+                                                                    @NonNull ScreenFrame pokemonImage,
                                                                     @Nullable LevelRange levelRange,
                                                                     @Nullable ScanArea powerUpCandyCostArea,
                                                                     @Nullable ScanArea evolutionCostArea) {
@@ -443,33 +553,23 @@ public class OcrHelper {
         final int x = (int) (pokemonImage.getWidth() / 10 * 1.3f);
         final int w = (int) (pokemonImage.getWidth() / 10 * 5.0f) - x;
 
-        Bitmap movesetImage = getImageCrop(pokemonImage, new ScanArea(x, y, w, h));
+        Bitmap movesetImage = getImageCrop(crops, pokemonImage, new ScanArea(x, y, w, h));
         if (movesetImage == null) {
             return null;
         }
 
-        String hash = "moveset" + hashBitmap(movesetImage);
+        long hash = hashBitmap(movesetImage);
 
-        if (ocrCache != null) {
-            //return cache if it exists
-            String stringCacheMoveset = ocrCache.get(hash);
-            if (stringCacheMoveset != null) {
-                //XXX in the cache, we encode "no result" as an empty string. That's a hack.
-                if (stringCacheMoveset.isEmpty()) {
-                    return null;
-                } else {
-                    String[] moves = stringCacheMoveset.split("\n");
-                    return new Pair<>(moves[0], moves[1]);
-                }
-            }
+        //return cache if it exists
+        String cachedMoveset = ocrCache.get(OcrCache.Field.MOVESET, hash);
+        if (cachedMoveset != null) {
+            String[] moves = cachedMoveset.split("\n");
+            return new Pair<>(moves[0], moves[1]);
         }
 
-        movesetImage = replaceColors(movesetImage, true, 68, 105, 108, Color.BLACK, 50, false);
+        movesetImage = replaceColors(crops, movesetImage, true, 68, 105, 108, Color.BLACK, 50, false);
 
-        tesseract.setImage(movesetImage);
-        tesseract.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_BLOCK);
-        String ocrResult = tesseract.getUTF8Text();
-        tesseract.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+        String ocrResult = textTesseractPool.getText(movesetImage, null, TessBaseAPI.PageSegMode.PSM_SINGLE_BLOCK);
 
         String[] lines = ocrResult.split("\n");
         if (lines.length == 2 && lines[0].trim().length() >= 3 && lines[1].trim().length() >= 3) {
@@ -477,9 +577,7 @@ public class OcrHelper {
             String fast = lines[0].trim();
             String charged = lines[1].trim();
             Pair<String, String> result = new Pair<>(fast, charged);
-            if (ocrCache != null) {
-                ocrCache.put(hash, fast + "\n" + charged);
-            }
+            ocrCache.put(OcrCache.Field.MOVESET, hash, fast + "\n" + charged);
             return result;
         }
         return null;
@@ -491,41 +589,34 @@ public class OcrHelper {
      * @param pokemonImage The image of the full pokemon screen
      * @return the power up cost wrapped in Optional.of(), or Optional.absent() on scan failure
      */
-    private static Optional<Integer> getPokemonPowerUpStardustCostFromImg(@NonNull Bitmap pokemonImage,
+    private static Optional<Integer> getPokemonPowerUpStardustCostFromImg(@NonNull CropPool.Lease crops,
+                                                                          @NonNull ScreenFrame pokemonImage,
                                                                           @Nullable ScanArea powerUpStardustCostArea) {
         Bitmap powerUpStardustCostImage = null;
         if (powerUpStardustCostArea != null) {
-            powerUpStardustCostImage = getImageCrop(pokemonImage, powerUpStardustCostArea);
+            powerUpStardustCostImage = getImageCrop(crops, pokemonImage, powerUpStardustCostArea);
         }
         if (powerUpStardustCostImage == null) {
-            powerUpStardustCostImage = getImageCrop(pokemonImage, 0.544, 0.803, 0.139, 0.0247);
+            powerUpStardustCostImage = getImageCrop(crops, pokemonImage, 0.544, 0.803, 0.139, 0.0247);
         }
 
-        String hash = "powerUpStardustCost" + hashBitmap(powerUpStardustCostImage);
+        long hash = hashBitmap(powerUpStardustCostImage);
 
         //return cache if it exists
-        String stringCachePowerUpStardustCost = ocrCache.get(hash);
-        if (stringCachePowerUpStardustCost != null) {
-            //XXX in the cache, we encode "no result" as an empty string. That's a hack.
-            if (stringCachePowerUpStardustCost.isEmpty()) {
-                return Optional.absent();
-            } else {
-                return Optional.of(Integer.parseInt(stringCachePowerUpStardustCost));
-            }
+        Optional<Integer> cachedPowerUpStardustCost = ocrCache.get(OcrCache.Field.POWER_UP_STARDUST_COST, hash);
+        if (cachedPowerUpStardustCost != null) {
+            return cachedPowerUpStardustCost;
         }
 
-        tesseract.setImage(powerUpStardustCostImage);
-        String ocrResult = fixOcrLettersToNums(tesseract.getUTF8Text());
+        String ocrResult = fixOcrLettersToNums(mixedTesseractPool.getText(powerUpStardustCostImage));
+        Optional<Integer> result;
         try {
-            int result = Integer.parseInt(ocrResult);
-            ocrCache.put(hash, ocrResult);
-            return Optional.of(result);
-
+            result = Optional.of(Integer.parseInt(ocrResult));
         } catch (NumberFormatException e) {
-            //XXX again, in the cache, we encode "no result" as an empty string.
-            ocrCache.put(hash, "");
-            return Optional.absent(); //could not ocr text
+            result = Optional.absent(); //could not ocr text
         }
+        ocrCache.put(OcrCache.Field.POWER_UP_STARDUST_COST, hash, result);
+        return result;
     }
 
     /**
@@ -534,65 +625,46 @@ public class OcrHelper {
      * @param pokemonImage The image of the full pokemon screen
      * @return the power up cost wrapped in Optional.of(), or Optional.absent() on scan failure
      */
-    private static Optional<Integer> getPokemonPowerUpCandyCostFromImg(@NonNull Bitmap pokemonImage,
+    private static Optional<Integer> getPokemonPowerUpCandyCostFromImg(@NonNull CropPool.Lease crops,
+                                                                       @NonNull ScreenFrame pokemonImage,
                                                                        @Nullable ScanArea powerUpCandyCostArea) {
         Bitmap powerUpCandyCostImage = null;
         if (powerUpCandyCostArea != null) {
-            powerUpCandyCostImage = getImageCrop(pokemonImage, powerUpCandyCostArea);
+            powerUpCandyCostImage = getImageCrop(crops, pokemonImage, powerUpCandyCostArea);
         }
         if (powerUpCandyCostImage == null) {
-            powerUpCandyCostImage = getImageCrop(pokemonImage, 0.73, 0.742, 0.092, 0.0247);
+            powerUpCandyCostImage = getImageCrop(crops, pokemonImage, 0.73, 0.742, 0.092, 0.0247);
         }
 
-        String hash = "powerUpCandyCost" + hashBitmap(powerUpCandyCostImage);
+        long hash = hashBitmap(powerUpCandyCostImage);
 
         //return cache if it exists
-        String stringCachePowerUpCandyCost = ocrCache.get(hash);
-        if (stringCachePowerUpCandyCost != null) {
-            //XXX in the cache, we encode "no result" as an empty string. That's a hack.
-            if (stringCachePowerUpCandyCost.isEmpty()) {
-                return Optional.absent();
-            } else {
-                return Optional.of(Integer.parseInt(stringCachePowerUpCandyCost));
-            }
+        Optional<Integer> cachedPowerUpCandyCost = ocrCache.get(OcrCache.Field.POWER_UP_CANDY_COST, hash);
+        if (cachedPowerUpCandyCost != null) {
+            return cachedPowerUpCandyCost;
         }
 
-        tesseract.setImage(powerUpCandyCostImage);
-        String ocrResult = fixOcrLettersToNums(tesseract.getUTF8Text());
+        String ocrResult = fixOcrLettersToNums(mixedTesseractPool.getText(powerUpCandyCostImage));
+        Optional<Integer> result;
         try {
-            int result = Integer.parseInt(ocrResult);
-            ocrCache.put(hash, ocrResult);
-            return Optional.of(result);
-
+            result = Optional.of(Integer.parseInt(ocrResult));
         } catch (NumberFormatException e) {
-            //XXX again, in the cache, we encode "no result" as an empty string.
-            ocrCache.put(hash, "");
-            return Optional.absent(); //could not ocr text
+            result = Optional.absent(); //could not ocr text
         }
+        ocrCache.put(OcrCache.Field.POWER_UP_CANDY_COST, hash, result);
+        return result;
     }
 
     /**
      * Heuristic method to determine if the image looks empty. Works by taking a horisontal row of pixels from he
-     * middle, and looks if they're all pure white.
+     * middle, and looks if they're all pure white once the non text colors are removed.
      *
-     * @param refinedImage A pre-processed image of the evolution cost. (should be pre-refined to replace all non
-     *                     text colors with pure white)
+     * @param numNonWhitePixels How many text pixels the row in the middle of the image has
+     * @param rowLength         The width of the image
      * @return true if the image is likely only white
      */
-    private static boolean isOnlyWhite(Bitmap refinedImage) {
-        int[] pixelArray = new int[refinedImage.getWidth()];
-
-        //below code takes one line of pixels in the middle of the pixture from left to right
-        refinedImage.getPixels(pixelArray, 0, refinedImage.getWidth(), 0, refinedImage.getHeight() / 2, refinedImage
-                .getWidth(), 1);
-
-        int numNonWhitePixels = 0;
-        for (int pixel : pixelArray) {
-            if (pixel != Color.rgb(255, 255, 255)) { // if pixel is not white
-                numNonWhitePixels++;
-            }
-        }
-        float percentNonWhite = (float) numNonWhitePixels / (float) pixelArray.length;
+    private static boolean isOnlyWhite(int numNonWhitePixels, int rowLength) {
+        float percentNonWhite = (float) numNonWhitePixels / (float) rowLength;
         if (percentNonWhite > 0.013){
             return false;
         }
@@ -601,12 +673,17 @@ public class OcrHelper {
     }
 
     /**
-     * Get the hashcode for a bitmap.
+     * Get a 64-bit hash of a bitmap, to use as OCR cache key.
      */
-    private static String hashBitmap(Bitmap bmp) {
-        int[] allpixels = new int[bmp.getHeight() * bmp.getWidth()];
-        bmp.getPixels(allpixels, 0, bmp.getWidth(), 0, 0, bmp.getWidth(), bmp.getHeight());
-        return Integer.toHexString(Arrays.hashCode(allpixels));
+    private static long hashBitmap(Bitmap bmp) {
+        int pixelCount = bmp.getWidth() * bmp.getHeight();
+        int[] pixels = hashBuffer.get();
+        if (pixels.length < pixelCount) {
+            pixels = new int[pixelCount];
+            hashBuffer.set(pixels);
+        }
+        bmp.getPixels(pixels, 0, bmp.getWidth(), 0, 0, bmp.getWidth(), bmp.getHeight());
+        return PixelHash.hash(pixels, 0, pixelCount, 0);
     }
 
     /**
@@ -630,25 +707,23 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole screen
      * @return A string resulting from the scan
      */
-    private static String getPokemonNameFromImg(@NonNull Bitmap pokemonImage,
-                                                @NonNull Pokemon.Gender pokemonGender,
-                                                @Nullable ScanArea nameArea) {
+    private static String getPokemonNameFromImg(@NonNull CropPool.Lease crops,
+                                                @NonNull ScreenFrame pokemonImage, @Nullable ScanArea nameArea) {
         Bitmap name = null;
         if (nameArea != null) {
-            name = getImageCrop(pokemonImage, nameArea);
+            name = getImageCrop(crops, pokemonImage, nameArea);
         }
         if (name == null) {
-            name = getImageCrop(pokemonImage, 0.1, 0.4125, 0.85, 0.055);
+            name = getImageCrop(crops, pokemonImage, 0.1, 0.4125, 0.85, 0.055);
         }
 
-        String hash = "name" + hashBitmap(name);
-        String pokemonName = ocrCache.get(hash);
+        long hash = hashBitmap(name);
+        String pokemonName = getStableText(OcrCache.Field.NAME, hash);
 
         if (pokemonName == null) {
-            name = replaceColors(name, true, 68, 105, 108, Color.WHITE, 200, true);
-            tesseract.setImage(name);
-            pokemonName = fixOcrNumsToLetters(tesseract.getUTF8Text().replace(" ", ""));
-            ocrCache.put(hash, pokemonName);
+            name = replaceColors(crops, name, true, 68, 105, 108, Color.WHITE, 200, true);
+            pokemonName = fixOcrNumsToLetters(textTesseractPool.getText(name).replace(" ", ""));
+            putStableText(OcrCache.Field.NAME, hash, pokemonName);
         }
         return pokemonName;
     }
@@ -659,43 +734,62 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole screen
      * @return A string resulting from the scan
      */
-    private static String getPokemonTypeFromImg(@NonNull Bitmap pokemonImage, @Nullable ScanArea typeArea) {
+    private static String getPokemonTypeFromImg(@NonNull CropPool.Lease crops,
+                                                @NonNull ScreenFrame pokemonImage, @Nullable ScanArea typeArea) {
         Bitmap type = null;
         if (typeArea != null) {
-            type = getImageCrop(pokemonImage, typeArea);
+            type = getImageCrop(crops, pokemonImage, typeArea);
         }
         if (type == null) {
-            type = getImageCrop(pokemonImage, 0.365278, 0.572, 0.308333, 0.035156);
+            type = getImageCrop(crops, pokemonImage, 0.365278, 0.572, 0.308333, 0.035156);
         }
 
-        String hash = "type" + hashBitmap(type);
-        String pokemonType = ocrCache.get(hash);
+        long hash = hashBitmap(type);
+        String pokemonType = getStableText(OcrCache.Field.TYPE, hash);
 
         if (pokemonType == null) {
-            type = replaceColors(type, true, 68, 105, 108, Color.WHITE, 200, true);
-            tesseract.setImage(type);
-            pokemonType = tesseract.getUTF8Text();
-            ocrCache.put(hash, pokemonType);
+            type = replaceColors(crops, type, true, 68, 105, 108, Color.WHITE, 200, true);
+            pokemonType = textTesseractPool.getText(type);
+            putStableText(OcrCache.Field.TYPE, hash, pokemonType);
         }
         return pokemonType;
     }
 
+    /**
+     * Get the pokemon gender from a whole screenshot, outside of a scan. Its crops come from a pool of their own.
+     *
+     * @param pokemonImage The image of the whole screen
+     * @return The gender, Pokemon.Gender.N if neither symbol was found
+     */
+    static Pokemon.Gender getPokemonGenderFromImg(@NonNull Bitmap pokemonImage, @Nullable ScanArea genderArea) {
+        CropPool pool = new CropPool();
+        CropPool.Lease crops = pool.lease();
+        try {
+            return getPokemonGenderFromImg(crops, ScreenFrame.of(pokemonImage), genderArea);
+        } finally {
+            crops.release();
+            pool.clear();
+        }
+    }
+
     /**
      * Get the pokemon gender as analysed from a pokemon image.
      *
      * @param pokemonImage The image of the whole screen
      * @return Optional.of(" ♂ ") if the pokémon is male, Optional.of("♀") if female, Optional.absent() otherwise
      */
-    public static Pokemon.Gender getPokemonGenderFromImg(@NonNull Bitmap pokemonImage, @Nullable ScanArea genderArea) {
+    private static Pokemon.Gender getPokemonGenderFromImg(@NonNull CropPool.Lease crops,
+                                                          @NonNull ScreenFrame pokemonImage,
+                                                          @Nullable ScanArea genderArea) {
         Bitmap genderImage = null;
         if (genderArea != null) {
-            genderImage = getImageCrop(pokemonImage, genderArea);
+            genderImage = getImageCrop(crops, pokemonImage, genderArea);
         }
         if (genderImage == null) {
-            genderImage = getImageCrop(pokemonImage, 0.822, 0.455, 0.0682, 0.03756);
+            genderImage = getImageCrop(crops, pokemonImage, 0.822, 0.455, 0.0682, 0.03756);
         }
 
-        replaceColors(genderImage, true, 68, 105, 108, Color.WHITE, 200, true);
+        replaceColors(crops, genderImage, true, 68, 105, 108, Color.WHITE, 200, true);
 
         int width = genderImage.getWidth();
         int height = genderImage.getHeight();
@@ -742,6 +836,7 @@ public class OcrHelper {
     /**
      * Get a cropped version of your image.
      *
+     * @param crops   Lends the crop
      * @param img     Which image to crop
      * @param xStart  % of how far in the top left corner of the crop should be x coordinate
      * @param yStart  % of how far in the top left corner of the crop should be y coordinate
@@ -749,12 +844,13 @@ public class OcrHelper {
      * @param yHeight how many % of the height should be kept starting from the ystart.
      * @return The crop of the image.
      */
-    private static Bitmap getImageCrop(@NonNull Bitmap img,
+    private static Bitmap getImageCrop(@NonNull CropPool.Lease crops,
+                                       @NonNull ScreenFrame img,
                                        double xStart, double yStart,
                                        double xWidth, double yHeight) {
         int w = img.getWidth();
         int h = img.getHeight();
-        return Bitmap.createBitmap(img,
+        return crops.getCrop(img,
                 (int) (w * xStart), (int) (h * yStart),
                 (int) (w * xWidth), (int) (h * yHeight));
     }
@@ -762,11 +858,14 @@ public class OcrHelper {
     /**
      * Get an image crop using a scanarea.
      *
+     * @param crops    Lends the crop
      * @param img      The image to crop
      * @param scanArea The area of the image to get
      * @return The scanarea
      */
-    private static @Nullable Bitmap getImageCrop(@NonNull Bitmap img, @NonNull ScanArea scanArea) {
+    private static @Nullable Bitmap getImageCrop(@NonNull CropPool.Lease crops,
+                                                 @NonNull ScreenFrame img,
+                                                 @NonNull ScanArea scanArea) {
         if (scanArea.xPoint < 0) {
             Timber.e(new IllegalArgumentException(
                     "ScanArea x is less then zero, value: " + scanArea.xPoint));
@@ -805,7 +904,7 @@ public class OcrHelper {
             Timber.d("ScanArea (x,y,w,h): %1$s", scanArea.toString());
             return null;
         }
-        return Bitmap.createBitmap(img, scanArea.xPoint, scanArea.yPoint, scanArea.width, scanArea.height);
+        return crops.getCrop(img, scanArea.xPoint, scanArea.yPoint, scanArea.width, scanArea.height);
     }
 
     /**
@@ -814,26 +913,24 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole screen
      * @return the candy name, or "" if nothing was found
      */
-    private static String getCandyNameFromImg(@NonNull Bitmap pokemonImage,
-                                              @NonNull Pokemon.Gender pokemonGender,
-                                              @Nullable ScanArea candyNameArea) {
+    private static String getCandyNameFromImg(@NonNull CropPool.Lease crops,
+                                              @NonNull ScreenFrame pokemonImage, @Nullable ScanArea candyNameArea) {
         Bitmap candy = null;
         if (candyNameArea != null) {
-            candy = getImageCrop(pokemonImage, candyNameArea);
+            candy = getImageCrop(crops, pokemonImage, candyNameArea);
         }
         if (candy == null) {
-            candy = getImageCrop(pokemonImage, 0.5, 0.678, 0.47, 0.026);
+            candy = getImageCrop(crops, pokemonImage, 0.5, 0.678, 0.47, 0.026);
         }
 
-        String hash = "candy" + hashBitmap(candy);
-        String candyName = ocrCache.get(hash);
+        long hash = hashBitmap(candy);
+        String candyName = getStableText(OcrCache.Field.CANDY_NAME, hash);
 
         if (candyName == null) {
-            candy = replaceColors(candy, true, 68, 105, 108, Color.WHITE, 200, true);
-            tesseract.setImage(candy);
-            candyName = tesseract.getUTF8Text();
+            candy = replaceColors(crops, candy, true, 68, 105, 108, Color.WHITE, 200, true);
+            candyName = textTesseractPool.getText(candy);
             candyName = fixOcrNumsToLetters(candyName);
-            ocrCache.put(hash, candyName);
+            putStableText(OcrCache.Field.CANDY_NAME, hash, candyName);
         }
         return candyName;
     }
@@ -844,25 +941,34 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole screen
      * @return an integer of the interpreted pokemon name, 10 if scan failed
      */
-    private static Optional<Integer> getPokemonHPFromImg(@NonNull Bitmap pokemonImage, @Nullable ScanArea hpArea) {
+    private static Optional<Integer> getPokemonHPFromImg(@NonNull CropPool.Lease crops,
+                                                         @NonNull ScreenFrame pokemonImage, @Nullable ScanArea hpArea) {
         Bitmap hp = null;
         if (hpArea != null) {
-            hp = getImageCrop(pokemonImage, hpArea);
+            hp = getImageCrop(crops, pokemonImage, hpArea);
         }
         if (hp == null) {
-            hp = getImageCrop(pokemonImage, 0.357, 0.482, 0.285, 0.0293);
+            hp = getImageCrop(crops, pokemonImage, 0.357, 0.482, 0.285, 0.0293);
         }
 
-        String hash = "hp" + hashBitmap(hp);
-        String pokemonHPStr = ocrCache.get(hash);
+        long hash = hashBitmap(hp);
+        Optional<Integer> pokemonHP = ocrCache.get(OcrCache.Field.HP, hash);
 
-        if (pokemonHPStr == null) {
-            hp = replaceColors(hp, true, 55, 66, 61, Color.WHITE, 200, true);
-            tesseract.setImage(hp);
-            pokemonHPStr = tesseract.getUTF8Text();
-            ocrCache.put(hash, pokemonHPStr);
+        if (pokemonHP == null) {
+            hp = replaceColors(crops, hp, true, 55, 66, 61, Color.WHITE, 200, true);
+            pokemonHP = parsePokemonHP(mixedTesseractPool.getText(hp));
+            ocrCache.put(OcrCache.Field.HP, hash, pokemonHP);
         }
+        return pokemonHP;
+    }
 
+    /**
+     * Get the max hp from an OCR'd "current / max HP" line.
+     *
+     * @param pokemonHPStr The OCR'd line
+     * @return The max hp, or Optional.absent() if it couldn't be read
+     */
+    private static Optional<Integer> parsePokemonHP(String pokemonHPStr) {
         if (pokemonHPStr.contains("/")) {
             try {
                 //If "/" comes at the end we'll get an array with only one component.
@@ -898,16 +1004,17 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole pokemon screen
      * @return a CP of the pokemon, 10 if scan failed
      */
-    private Optional<Integer> getPokemonCPFromImg(@NonNull Bitmap pokemonImage, @Nullable ScanArea cpArea) {
+    private Optional<Integer> getPokemonCPFromImg(@NonNull CropPool.Lease crops,
+                                                  @NonNull ScreenFrame pokemonImage, @Nullable ScanArea cpArea) {
         Bitmap cp = null;
         if (cpArea != null) {
-            cp = getImageCrop(pokemonImage, cpArea);
+            cp = getImageCrop(crops, pokemonImage, cpArea);
         }
         if (cp == null) {
-            cp = getImageCrop(pokemonImage, 0.25, 0.059, 0.5, 0.046);
+            cp = getImageCrop(crops, pokemonImage, 0.25, 0.059, 0.5, 0.046);
         }
 
-        cp = replaceColors(cp, true, 255, 255, 255, Color.BLACK, 30, false);
+        cp = replaceColors(crops, cp, true, 255, 255, 255, Color.BLACK, 30, false);
 
         final int width = cp.getWidth();
         final int height = cp.getHeight();
@@ -972,11 +1079,17 @@ public class OcrHelper {
                 avgChunksHeight = 1; // Didn't find any chunk wider than 2 columns, fallback to a safe value
             }
 
-            // Discard all the chunks lower than the average height
+            // Discard all the chunks lower than the average height, and the "CP" prefix whatever the number of digits:
+            // its letters are smaller than the digits, and the digits only engine would read them as digits
+            int maxChunkHeight = 0;
+            for (Rect chunk : chunks) {
+                maxChunkHeight = Math.max(maxChunkHeight, chunk.height());
+            }
+            final int minDigitHeight = Math.max(avgChunksHeight, maxChunkHeight * 3 / 4);
             chunksIterator = chunks.iterator();
             while (chunksIterator.hasNext()) {
                 Rect chunk = chunksIterator.next();
-                if (chunk.height() < avgChunksHeight) {
+                if (chunk.height() < minDigitHeight) {
                     chunksIterator.remove();
                 }
             }
@@ -992,11 +1105,7 @@ public class OcrHelper {
             }
         }
 
-        tesseract.setImage(cp);
-        if (mergeRect != null) {
-            tesseract.setRectangle(mergeRect);
-        }
-        String cpText = tesseract.getUTF8Text();
+        String cpText = numberTesseractPool.getText(cp, mergeRect, TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
         cpText = fixOcrLettersToNums(cpText);
 
         try {
@@ -1012,14 +1121,13 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole pokemon screen
      * @return a string which should remain the same even if you power up a pokemon
      */
-    private static String getPokemonIdentifierFromImg(Bitmap pokemonImage) {
+    private static String getPokemonIdentifierFromImg(ScreenFrame pokemonImage) {
         int w = pokemonImage.getWidth();
         int h = pokemonImage.getHeight();
-        Bitmap infoRow = Bitmap.createBitmap(pokemonImage,
+        Bitmap infoRow = pokemonImage.getCrop(
                 Math.round(w * .1f), Math.round(h / 1.714286f),
                 Math.round(w * .8f), Math.round(h / 25.26316f));
-        tesseract.setImage(infoRow);
-        return tesseract.getUTF8Text(); // Unique text
+        return textTesseractPool.getText(infoRow); // Unique text
     }
 
 
@@ -1029,38 +1137,37 @@ public class OcrHelper {
      * @param pokemonImage the image of the whole screen
      * @return candyAmount the candy amount, or blank Optional object if nothing was found
      */
-    private static Optional<Integer> getCandyAmountFromImg(@NonNull Bitmap pokemonImage,
+    private static Optional<Integer> getCandyAmountFromImg(@NonNull CropPool.Lease crops,
+                                                           @NonNull ScreenFrame pokemonImage,
                                                            @Nullable ScanArea candyAmountArea) {
         if (!isPokeSpamEnabled) {
             return Optional.absent();
         }
         Bitmap candyAmount = null;
         if (candyAmountArea != null) {
-            candyAmount = getImageCrop(pokemonImage, candyAmountArea);
+            candyAmount = getImageCrop(crops, pokemonImage, candyAmountArea);
         }
         if (candyAmount == null) {
-            candyAmount = getImageCrop(pokemonImage, 0.60, 0.644, 0.20, 0.038);
+            candyAmount = getImageCrop(crops, pokemonImage, 0.60, 0.644, 0.20, 0.038);
         }
 
-        String hash = "candyAmount" + hashBitmap(candyAmount);
-        String pokemonCandyStr = ocrCache.get(hash);
-
-        if (pokemonCandyStr == null) {
-            candyAmount = replaceColors(candyAmount, true, 68, 105, 108, Color.WHITE, 90, true);
-            tesseract.setImage(candyAmount);
-            pokemonCandyStr = tesseract.getUTF8Text();
-            ocrCache.put(hash, pokemonCandyStr);
-        }
+        long hash = hashBitmap(candyAmount);
+        Optional<Integer> pokemonCandy = ocrCache.get(OcrCache.Field.CANDY_AMOUNT, hash);
 
-        if (pokemonCandyStr.length() > 0) {
-            try {
-                return Optional.of(Integer.parseInt(fixOcrLettersToNums(pokemonCandyStr)));
-            } catch (NumberFormatException e) {
-                //Fall-through to default.
+        if (pokemonCandy == null) {
+            candyAmount = replaceColors(crops, candyAmount, true, 68, 105, 108, Color.WHITE, 90, true);
+            String pokemonCandyStr = numberTesseractPool.getText(candyAmount);
+            pokemonCandy = Optional.absent();
+            if (pokemonCandyStr.length() > 0) {
+                try {
+                    pokemonCandy = Optional.of(Integer.parseInt(fixOcrLettersToNums(pokemonCandyStr)));
+                } catch (NumberFormatException e) {
+                    //Fall-through to default.
+                }
             }
+            ocrCache.put(OcrCache.Field.CANDY_AMOUNT, hash, pokemonCandy);
         }
-
-        return Optional.absent();
+        return pokemonCandy;
     }
 
 
@@ -1068,86 +1175,153 @@ public class OcrHelper {
      * scanPokemon
      * Performs OCR on an image of a pokemon and returns the pulled info.
      *
+     * @param calibration  The screen calibration, or null to find the fields relative to the whole screen size
      * @param pokemonImage The image of the pokemon
      * @param trainerLevel Current level of the trainer
+     * @param levelArc     The level arc of the screen, for the trainer level
      * @return an object
      */
-    public ScanData scanPokemon(@NonNull GoIVSettings settings,
-                                @NonNull Bitmap pokemonImage,
+    public ScanData scanPokemon(@Nullable CalibrationProfile calibration,
+                                @NonNull final ScreenFrame pokemonImage,
                                 int trainerLevel,
+                                @NonNull ArcGeometry levelArc,
                                 boolean requestFullScan) {
 
         if (requestFullScan){
             rememberGUIAccentColorBasedOnScan(pokemonImage);
         }
-        ensureCorrectLevelArcSettings(settings, trainerLevel); //todo, make it so it doesnt initiate on every scan?
+        CropPool.Lease crops = cropPool.lease();
+        List<Future<?>> fields = new ArrayList<>();
+        try {
+            return scanFields(crops, fields, calibration, pokemonImage, trainerLevel, levelArc, requestFullScan);
+        } finally {
+            // Succeeded or not, no field may still read the frame or the crops once the scan returns: the caller
+            // closes the frame, and the crops go to the next scan
+            awaitFields(fields);
+            crops.release();
+        }
+    }
 
+    /**
+     * Reads the fields of a scan, on the field threads and on this one.
+     *
+     * @param crops  The crops borrowed for the scan
+     * @param fields Gets every field read submitted to the field threads, for the caller to wait for them
+     */
+    private ScanData scanFields(@NonNull final CropPool.Lease crops,
+                                @NonNull List<Future<?>> fields,
+                                @Nullable CalibrationProfile calibration,
+                                @NonNull final ScreenFrame pokemonImage,
+                                int trainerLevel,
+                                @NonNull ArcGeometry levelArc,
+                                boolean requestFullScan) {
         Optional<Integer> powerUpStardustCost = Optional.absent();
         /*Optional<Integer> powerUpStardustCost = getPokemonPowerUpStardustCostFromImg(tesseract, ocrCache,
-                pokemonImage, ScanArea.calibratedFromSettings(POKEMON_POWER_UP_STARDUST_COST, settings));*/
+                pokemonImage, getArea(calibration, POKEMON_POWER_UP_STARDUST_COST, 0));*/
 
 
-        Optional<Integer> hp = getPokemonHPFromImg(pokemonImage,
-                ScanArea.calibratedFromSettings(POKEMON_HP_AREA, settings, 0));
+        // The name and CP aren't offset for lucky pokemon: read them while the HP tells whether it's lucky
+        final ScanArea nameArea = getArea(calibration, POKEMON_NAME_AREA, 0);
+        Future<String> name = submitField(fields, new Callable<String>() {
+            @Override public String call() {
+                return getPokemonNameFromImg(crops, pokemonImage, nameArea);
+            }
+        });
+        final ScanArea cpArea = getArea(calibration, POKEMON_CP_AREA, 0);
+        Future<Optional<Integer>> cp = submitField(fields, new Callable<Optional<Integer>>() {
+            @Override public Optional<Integer> call() {
+                return getPokemonCPFromImg(crops, pokemonImage, cpArea);
+            }
+        });
+
+        Optional<Integer> hp = getPokemonHPFromImg(crops, pokemonImage,
+                getArea(calibration, POKEMON_HP_AREA, 0));
 
         int luckyOffset = 0;
         // If no  hpwas found, check by offsetting down by the height of the
         // "LUCKY POKEMON" string, which is slightly higher than the power up candy cost field
         if (!hp.isPresent()) {
             int tempLuckyOffset = (int) (0.0247 * pokemonImage.getHeight() * 1.2); // Default value w/o calibration
-            ScanArea powerUpCandyArea = ScanArea.calibratedFromSettings(POKEMON_POWER_UP_CANDY_COST, settings);
+            ScanArea powerUpCandyArea = getArea(calibration, POKEMON_POWER_UP_CANDY_COST, 0);
             if (powerUpCandyArea != null) {
-                tempLuckyOffset = (int) (powerUpCandyArea.height * 1.2);
-            } else{
-                Toast.makeText(pokeflyRef.get(), "Please update GoIV recalibration on a normal unlucky Pokemon.", Toast
-                        .LENGTH_SHORT).show();
+                tempLuckyOffset = getLuckyOffset(powerUpCandyArea);
+            } else {
+                // Scans run on a background thread: toasts can only be shown from the main one
+                new Handler(Looper.getMainLooper()).post(new Runnable() {
+                    @Override public void run() {
+                        Pokefly pokefly = pokeflyRef.get();
+                        if (pokefly != null) {
+                            Toast.makeText(pokefly, "Please update GoIV recalibration on a normal unlucky Pokemon.",
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
             }
 
-            hp = getPokemonHPFromImg(pokemonImage,
-                    ScanArea.calibratedFromSettings(POKEMON_HP_AREA, settings, tempLuckyOffset));
+            hp = getPokemonHPFromImg(crops, pokemonImage,
+                    getArea(calibration, POKEMON_HP_AREA, tempLuckyOffset));
 
             if (hp.isPresent()) {
                 // Found successfully; assume this is a lucky pokemon and offset all further scans below that line
                 luckyOffset = tempLuckyOffset;
             }
         }
-        Optional<Integer> powerUpCandyCost = getPokemonPowerUpCandyCostFromImg(pokemonImage,
-                ScanArea.calibratedFromSettings(POKEMON_POWER_UP_CANDY_COST, settings, luckyOffset));
-
-        double estimatedPokemonLevel = getPokemonLevelFromImg(pokemonImage, trainerLevel);
-        LevelRange estimatedLevelRange =
-                refineLevelEstimate(trainerLevel, powerUpCandyCost, estimatedPokemonLevel);
-
-        String type = getPokemonTypeFromImg(pokemonImage,
-                ScanArea.calibratedFromSettings(POKEMON_TYPE_AREA, settings, luckyOffset));
-        Pokemon.Gender gender = getPokemonGenderFromImg(pokemonImage,
-                ScanArea.calibratedFromSettings(POKEMON_GENDER_AREA, settings, luckyOffset));
-        String name;
-
-        name = getPokemonNameFromImg(pokemonImage, gender,
-                ScanArea.calibratedFromSettings(POKEMON_NAME_AREA, settings)); // Not offset for lucky
-
-        String candyName = getCandyNameFromImg(pokemonImage, gender,
-                ScanArea.calibratedFromSettings(CANDY_NAME_AREA, settings, luckyOffset));
 
-        Optional<Integer> cp = getPokemonCPFromImg(pokemonImage,
-                ScanArea.calibratedFromSettings(POKEMON_CP_AREA, settings)); // Not offset for lucky
-        Optional<Integer> candyAmount;
+        // Every other field is independent from the others once the lucky offset is known
+        final ScanArea powerUpCandyCostArea =
+                getArea(calibration, POKEMON_POWER_UP_CANDY_COST, luckyOffset);
+        Future<Optional<Integer>> powerUpCandyCost = submitField(fields, new Callable<Optional<Integer>>() {
+            @Override public Optional<Integer> call() {
+                return getPokemonPowerUpCandyCostFromImg(crops, pokemonImage, powerUpCandyCostArea);
+            }
+        });
+        final ScanArea typeArea = getArea(calibration, POKEMON_TYPE_AREA, luckyOffset);
+        Future<String> type = submitField(fields, new Callable<String>() {
+            @Override public String call() {
+                return getPokemonTypeFromImg(crops, pokemonImage, typeArea);
+            }
+        });
+        final ScanArea candyNameArea = getArea(calibration, CANDY_NAME_AREA, luckyOffset);
+        Future<String> candyName = submitField(fields, new Callable<String>() {
+            @Override public String call() {
+                return getCandyNameFromImg(crops, pokemonImage, candyNameArea);
+            }
+        });
+        final ScanArea evolutionCostArea =
+                getArea(calibration, POKEMON_EVOLUTION_COST_AREA, luckyOffset);
+        Future<Optional<Integer>> evolutionCost = submitField(fields, new Callable<Optional<Integer>>() {
+            @Override public Optional<Integer> call() {
+                return getPokemonEvolutionCostFromImg(crops, pokemonImage, evolutionCostArea);
+            }
+        });
+        Future<Optional<Integer>> candyAmount;
         if (requestFullScan && isPokeSpamEnabled) {
-            candyAmount = getCandyAmountFromImg(pokemonImage,
-                    ScanArea.calibratedFromSettings(POKEMON_CANDY_AMOUNT_AREA, settings, luckyOffset));
+            final ScanArea candyAmountArea =
+                    getArea(calibration, POKEMON_CANDY_AMOUNT_AREA, luckyOffset);
+            candyAmount = submitField(fields, new Callable<Optional<Integer>>() {
+                @Override public Optional<Integer> call() {
+                    return getCandyAmountFromImg(crops, pokemonImage, candyAmountArea);
+                }
+            });
         } else {
-            candyAmount = Optional.absent();
+            candyAmount = Futures.immediateFuture(Optional.<Integer>absent());
         }
-        Optional<Integer> evolutionCost = getPokemonEvolutionCostFromImg(pokemonImage,
-                ScanArea.calibratedFromSettings(POKEMON_EVOLUTION_COST_AREA, settings, luckyOffset));
+
+        // The level arc and the gender don't need OCR, handle them here while the OCR runs
+        double estimatedPokemonLevel = getPokemonLevelFromImg(pokemonImage, levelArc);
+        Pokemon.Gender gender = getPokemonGenderFromImg(crops, pokemonImage,
+                getArea(calibration, POKEMON_GENDER_AREA, luckyOffset));
+
+        Optional<Integer> scannedPowerUpCandyCost = Futures.getUnchecked(powerUpCandyCost);
+        LevelRange estimatedLevelRange =
+                refineLevelEstimate(trainerLevel, scannedPowerUpCandyCost, estimatedPokemonLevel);
         Pair<String, String> moveset = null;
       /* //Todo remove moveset scanning ; its not on screen anymore since pogo updated
         if (requestFullScan) {
-            moveset = getMovesetFromImg(pokemonImage,
+            moveset = getMovesetFromImg(crops, pokemonImage,
                     estimatedLevelRange,
-                    ScanArea.calibratedFromSettings(POKEMON_POWER_UP_CANDY_COST, settings, luckyOffset),
-                    ScanArea.calibratedFromSettings(POKEMON_EVOLUTION_COST_AREA, settings, luckyOffset));
+                    getArea(calibration, POKEMON_POWER_UP_CANDY_COST, luckyOffset),
+                    getArea(calibration, POKEMON_EVOLUTION_COST_AREA, luckyOffset));
         }
 
         String moveFast = null;
@@ -1157,11 +1331,108 @@ public class OcrHelper {
             moveCharge = moveset.second;
         }
         */
-        String uniqueIdentifier = name + type + candyName + hp.toString() + cp
-                .toString() + powerUpStardustCost.toString() + powerUpCandyCost.toString();
+        String scannedName = Futures.getUnchecked(name);
+        String scannedType = Futures.getUnchecked(type);
+        String scannedCandyName = Futures.getUnchecked(candyName);
+        Optional<Integer> scannedCp = Futures.getUnchecked(cp);
+        Optional<Integer> scannedCandyAmount = Futures.getUnchecked(candyAmount);
+        Optional<Integer> scannedEvolutionCost = Futures.getUnchecked(evolutionCost);
+        String uniqueIdentifier = scannedName + scannedType + scannedCandyName + hp.toString() + scannedCp
+                .toString() + powerUpStardustCost.toString() + scannedPowerUpCandyCost.toString();
+
+        return new ScanData(estimatedLevelRange, scannedName, scannedType, scannedCandyName, gender, hp, scannedCp,
+                scannedCandyAmount, scannedEvolutionCost, powerUpStardustCost,
+                scannedPowerUpCandyCost, null, null, (luckyOffset != 0), uniqueIdentifier);
+    }
 
-        return new ScanData(estimatedLevelRange, name, type, candyName, gender, hp, cp, candyAmount, evolutionCost,
-                powerUpStardustCost, powerUpCandyCost, null, null, (luckyOffset != 0), uniqueIdentifier);
+    private static <T> Future<T> submitField(@NonNull List<Future<?>> fields, @NonNull Callable<T> field) {
+        Future<T> future = fieldExecutor.submit(field);
+        fields.add(future);
+        return future;
+    }
+
+    /**
+     * Waits for field reads to be over, whether they succeeded or not. Their results and failures are left to the
+     * code joining them.
+     */
+    private static void awaitFields(@NonNull List<Future<?>> fields) {
+        for (Future<?> field : fields) {
+            try {
+                Uninterruptibles.getUninterruptibly(field);
+            } catch (ExecutionException | CancellationException e) {
+                // Not waited for anymore
+            }
+        }
+    }
+
+    /**
+     * Get how far down the fields below the HP are on a lucky pokemon: the height of the "LUCKY POKEMON" string, which
+     * is slightly higher than the power up candy cost field.
+     */
+    private static int getLuckyOffset(@NonNull ScanArea powerUpCandyArea) {
+        return (int) (powerUpCandyArea.height * 1.2);
+    }
+
+    /**
+     * Get a calibrated area, offset downward by luckyOffset, or null if the screen isn't calibrated.
+     */
+    private static @Nullable ScanArea getArea(@Nullable CalibrationProfile calibration, @NonNull String areaKey,
+                                              int luckyOffset) {
+        return calibration != null ? calibration.getArea(areaKey, luckyOffset) : null;
+    }
+
+    /**
+     * Get the regions of the screen a scan without full scan request reads, so a quick scan can capture only those.
+     *
+     * @param calibration The screen calibration
+     * @param levelArc    The level arc of the screen
+     * @return The regions, or null if the screen isn't calibrated: the fields are then found relative to the whole
+     * screen size
+     */
+    public static @Nullable List<Rect> getQuickScanRegions(@Nullable CalibrationProfile calibration,
+                                                           @NonNull ArcGeometry levelArc) {
+        if (calibration == null) {
+            return null;
+        }
+        ScanArea powerUpCandyArea = getArea(calibration, POKEMON_POWER_UP_CANDY_COST, 0);
+        if (powerUpCandyArea == null) {
+            return null;
+        }
+        int luckyOffset = getLuckyOffset(powerUpCandyArea);
+
+        ArrayList<Rect> regions = new ArrayList<>();
+        for (String areaKey : new String[] {POKEMON_NAME_AREA, POKEMON_CP_AREA}) {
+            ScanArea area = getArea(calibration, areaKey, 0);
+            if (area == null) {
+                return null;
+            }
+            regions.add(area.toRect());
+        }
+        String[] luckyOffsetAreaKeys = {POKEMON_HP_AREA, POKEMON_POWER_UP_CANDY_COST, POKEMON_TYPE_AREA,
+                POKEMON_GENDER_AREA, CANDY_NAME_AREA, POKEMON_EVOLUTION_COST_AREA};
+        for (String areaKey : luckyOffsetAreaKeys) {
+            ScanArea area = getArea(calibration, areaKey, 0);
+            if (area == null) {
+                return null;
+            }
+            // Spans where the field is on a normal and on a lucky pokemon
+            Rect region = area.toRect();
+            region.bottom += luckyOffset;
+            if (POKEMON_EVOLUTION_COST_AREA.equals(areaKey)) {
+                region.left -= area.width; // The new attack button check reads left of the cost
+            }
+            regions.add(region);
+        }
+
+        // The level arc, with room around it to measure the white dot
+        int margin = levelArc.getRadius() / 8;
+        Rect arc = new Rect(levelArc.getX(0), levelArc.getY(0), levelArc.getX(0), levelArc.getY(0));
+        for (int i = 1; i < levelArc.getLevelCount(); i++) {
+            arc.union(levelArc.getX(i), levelArc.getY(i));
+        }
+        arc.inset(-margin, -margin);
+        regions.add(arc);
+        return regions;
     }
 
     /**
@@ -1169,7 +1440,7 @@ public class OcrHelper {
      * so it doesnt update the value in GUIColorFromPokeType instantly.
      * @param pokemonImage
      */
-    private void rememberGUIAccentColorBasedOnScan(Bitmap pokemonImage) {
+    private void rememberGUIAccentColorBasedOnScan(ScreenFrame pokemonImage) {
 //        int top = (int) (pokemonImage.getHeight() * 0.30);
 //        int bot = (int) (pokemonImage.getHeight() * 0.35);
 //        int left = (int) (pokemonImage.getWidth() * 0.45);
@@ -1198,7 +1469,7 @@ public class OcrHelper {
                 return true;
             }
         };
-        Palette.from(pokemonImage).setRegion(left, top, right, bot).addFilter(filter).generate(new Palette
+        Palette.from(pokemonImage.getCrop(left, top, right - left, bot - top)).addFilter(filter).generate(new Palette
                 .PaletteAsyncListener() {
             public void onGenerated(Palette p) {
                 int color = p.getDarkVibrantColor(0);
@@ -1231,14 +1502,14 @@ public class OcrHelper {
         }
 
         int scannedPowerUpCost = pokemonPowerUpCandyCost.get();
-        if (!Data.isValidPowerUpCandyCost(scannedPowerUpCost)) {
+        if (!upgradeCostTable.isCandyCost(scannedPowerUpCost)) {
             return new LevelRange(estimatedPokemonLevel); // The scanned power up candy cost is invalid
         }
 
         // If scanned arc-level is maxed out, we need to consider that the pokemon might have an even higher level.
         double higherBound = estimatedPokemonLevel;
         for (double level = estimatedPokemonLevel + 0.5; level <= Data.MAXIMUM_WILD_POKEMON_LEVEL; level += 0.5) {
-            int powerUpCostForLevel = Data.POWER_UP_CANDY_COSTS[Data.maxPokeLevelToIndex(level)];
+            int powerUpCostForLevel = upgradeCostTable.getCandyCost(Data.maxPokeLevelToIndex(level));
             if (powerUpCostForLevel == scannedPowerUpCost) {
                 if (higherBound < level) {
                     // Found a higher level with the same candy power up cost
@@ -1254,20 +1525,6 @@ public class OcrHelper {
         return new LevelRange(estimatedPokemonLevel, higherBound);
     }
 
-
-    /**
-     * Checks if the user has custom screen calibration, and if so, initiates the arc x,y parameters.
-     *
-     * @param trainerLevel the trainer level to initiate the arc points to.
-     */
-    private static void ensureCorrectLevelArcSettings(@NonNull GoIVSettings settings, int trainerLevel) {
-        if (settings.hasManualScanCalibration()) {
-            ScanPoint arcInit = new ScanPoint(ARC_INIT_POINT, settings);
-            int arcRadius = Integer.valueOf(settings.getCalibrationValue(ARC_RADIUS));
-            Data.setupArcPoints(arcInit, arcRadius, trainerLevel);
-        }
-    }
-
     private static int getNavigationBarHeight() {
         Pokefly pokefly = pokeflyRef.get();
         if (pokefly != null) {
@@ -14,6 +14,8 @@ import android.support.annotation.Nullable;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.kamron.pogoiv.BuildConfig;
 import com.kamron.pogoiv.R;
 
@@ -23,6 +25,7 @@ import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
 import org.opencv.core.Rect;
 import org.opencv.core.Scalar;
 import org.opencv.imgproc.Imgproc;
@@ -32,6 +35,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 /**
@@ -47,8 +53,12 @@ public class ScanFieldAutomaticLocator {
         System.loadLibrary("opencv_java3");
     }
 
+    /**
+     * How many fields are searched in parallel, while the thread calling scan waits for them.
+     */
+    private static final int FINDER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
     private static final Scalar SCALAR_ON = new Scalar(255);
-    private static final Scalar SCALAR_OFF = new Scalar(0);
     private static final float[] HSV_WHITE_BACKGROUND = new float[] {0, 0f, 0.97f};
     private static final float[] HSV_GREEN_DARK_SMALL = new float[] {166, 0.13f, 0.66f};
     private static final float[] HSV_GREEN_DARK = new float[] {183f, 0.32f, 0.46f};
@@ -68,8 +78,6 @@ public class ScanFieldAutomaticLocator {
     private final List<MatOfPoint> contours; // Detected with adaptive threshold
     private final ArrayList<Rect> boundingRectList; // Detected with adaptive threshold
     private final ArrayList<Rect> boundingRectListT; // Detected with binary threshold
-    private final Mat mask1;
-    private final Mat mask2;
     private final Rect hpBar;
     private final Rect greyHorizontalLine;
     private final Rect greyVerticalLineLeft;
@@ -121,11 +129,6 @@ public class ScanFieldAutomaticLocator {
         Mat imageT = new Mat(image.size(), CvType.CV_32F);
         Imgproc.threshold(imageGray, imageT, 248, 255, Imgproc.THRESH_BINARY_INV);
 
-        // Prepare masks for later (average color computation)
-        mask1 = new Mat(image.rows(), image.cols(), CvType.CV_8U);
-        mask2 = new Mat(image.rows(), image.cols(), CvType.CV_8U);
-
-
         // Find contours
         contours = new ArrayList<>();
         Imgproc.findContours(imageA, contours, new Mat(), Imgproc.RETR_LIST, Imgproc.CHAIN_APPROX_SIMPLE);
@@ -169,7 +172,7 @@ public class ScanFieldAutomaticLocator {
         List<Rect> hpBarCandidates = FluentIterable.from(boundingRectList)
                 .filter(Predicates.and(ByMinX.of(width20Percent), ByMaxX.of(width80Percent)))
                 .filter(Predicates.and(ByMinWidth.of(width20Percent), ByMaxHeight.of(8 * screenshotDensity)))
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_HP_BAR, 5, 0.15f, 0.15f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_HP_BAR, 5, 0.15f, 0.15f))
                 .toList();
         if (hpBarCandidates.size() >= 1) { // Take the largest
             Rect maxRect = null;
@@ -186,7 +189,7 @@ public class ScanFieldAutomaticLocator {
         // Find horizontal grey divider line
         List<Rect> greyLineCandidates = FluentIterable.from(boundingRectList)
                 .filter(Predicates.and(ByMinWidth.of(width80Percent), ByMaxHeight.of(5 * screenshotDensity)))
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_DIVIDER, 3, 0.1f, 0.25f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_DIVIDER, 3, 0.1f, 0.25f))
                 .toList();
         if (greyLineCandidates.size() >= 1) {
             Rect maxRect = null;
@@ -217,7 +220,7 @@ public class ScanFieldAutomaticLocator {
                     .filter(Predicates.and(ByMinY.of(hpBar.y + hpBar.height), ByMaxY.of(greyHorizontalLine.y)))
                     .filter(ByMaxWidth.of(5 * screenshotDensity))
                     .filter(ByMinHeight.of(12.5f * screenshotDensity))
-                    .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_DIVIDER, 3, 0.1f, 0.25f))
+                    .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_DIVIDER, 3, 0.1f, 0.25f))
                     .toList();
             if (greyLineCandidates.size() == 2) {
                 if (greyLineCandidates.get(0).x < greyLineCandidates.get(1).x) {
@@ -242,9 +245,9 @@ public class ScanFieldAutomaticLocator {
                 .filter(ByMinHeight.of(buttonHeight))
                 .filter(ByMinWidth.of(buttonHeight * 2))
                 .filter(Predicates.or(
-                        ByHsvColor.of(image, mask1, contours, boundingRectList,
+                        ByHsvColor.of(image, contours, boundingRectList,
                                 HSV_BUTTON_ENABLED, 3, 0.15f, 0.15f),
-                        ByHsvColor.of(image, mask2, contours, boundingRectList,
+                        ByHsvColor.of(image, contours, boundingRectList,
                                 HSV_BUTTON_DISABLED, 3, 0.15f,0.15f)))
                 .toList();
 
@@ -303,48 +306,102 @@ public class ScanFieldAutomaticLocator {
 
         final ScanFieldResults results = new ScanFieldResults();
 
-        postMessage(mainThreadHandler, dialog.get(), findingName);
-        findPokemonNameArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingType);
-        findPokemonTypeArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingGender);
-        findPokemonGenderArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingCandyName);
-        findPokemonCandyNameArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingHp);
-        findPokemonHPArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingCp);
-        findPokemonCPScanArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingCandyAmount);
-        findPokemonCandyAmountArea(results);
-
-        postMessage(mainThreadHandler, dialog.get(), findingEvolutionCost);
-        findPokemonEvolutionCostArea(results); // Always call after findPokemonCandyAmountArea
-
-        postMessage(mainThreadHandler, dialog.get(), findingPowerUpStardustCost);
-        findPokemonPowerUpStardustCostArea(results); // Always call after findPokemonCandyAmountArea
-
-        postMessage(mainThreadHandler, dialog.get(), findingPowerUpCandyCost);
-        findPokemonPowerUpCandyCostArea(results); // Always call after findPokemonCandyAmountArea
-
-        postMessage(mainThreadHandler, dialog.get(), findingLevelArc);
-        findArcValues(results);
+        // The finders only read the contours found by the constructor, and each one sets its own results: run them
+        // concurrently. The costs are searched around the candy amount, so they wait for it to be found.
+        ExecutorService executor = Executors.newFixedThreadPool(FINDER_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("calibration-finder-%d").setDaemon(true).build());
+        try {
+            List<Future<?>> finders = new ArrayList<>();
+            Future<?> candyAmount = submitFinder(executor, mainThreadHandler, dialog, findingCandyAmount,
+                    new Runnable() {
+                        @Override public void run() {
+                            findPokemonCandyAmountArea(results);
+                        }
+                    });
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingName, new Runnable() {
+                @Override public void run() {
+                    findPokemonNameArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingType, new Runnable() {
+                @Override public void run() {
+                    findPokemonTypeArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingGender, new Runnable() {
+                @Override public void run() {
+                    findPokemonGenderArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingCandyName, new Runnable() {
+                @Override public void run() {
+                    findPokemonCandyNameArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingHp, new Runnable() {
+                @Override public void run() {
+                    findPokemonHPArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingCp, new Runnable() {
+                @Override public void run() {
+                    findPokemonCPScanArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingLevelArc, new Runnable() {
+                @Override public void run() {
+                    findArcValues(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingWhiteMarker, new Runnable() {
+                @Override public void run() {
+                    findWhitePixelPokemonScreen(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingGreenMarker, new Runnable() {
+                @Override public void run() {
+                    findGreenPixelPokemonScreen(results);
+                }
+            }));
 
-        postMessage(mainThreadHandler, dialog.get(), findingWhiteMarker);
-        findWhitePixelPokemonScreen(results);
+            Futures.getUnchecked(candyAmount); // The costs always need the candy amount area
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingEvolutionCost, new Runnable() {
+                @Override public void run() {
+                    findPokemonEvolutionCostArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingPowerUpStardustCost, new Runnable() {
+                @Override public void run() {
+                    findPokemonPowerUpStardustCostArea(results);
+                }
+            }));
+            finders.add(submitFinder(executor, mainThreadHandler, dialog, findingPowerUpCandyCost, new Runnable() {
+                @Override public void run() {
+                    findPokemonPowerUpCandyCostArea(results);
+                }
+            }));
 
-        postMessage(mainThreadHandler, dialog.get(), findingGreenMarker);
-        findGreenPixelPokemonScreen(results);
+            for (Future<?> finder : finders) {
+                Futures.getUnchecked(finder);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
 
         return results;
     }
 
+    private static Future<?> submitFinder(@NonNull ExecutorService executor, @NonNull final Handler handler,
+                                          @NonNull final WeakReference<ProgressDialog> dialog,
+                                          @Nullable final String message, @NonNull final Runnable finder) {
+        return executor.submit(new Runnable() {
+            @Override public void run() {
+                postMessage(handler, dialog.get(), message);
+                finder.run();
+            }
+        });
+    }
+
     private static void postMessage(@NonNull Handler handler, @Nullable final ProgressDialog dialog,
                                     @Nullable final String message) {
         if (dialog != null && message != null) {
@@ -395,7 +452,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the color of the hamburger floating action button
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_FAB, 5, 0.125f, 0.125f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_FAB, 5, 0.125f, 0.125f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -558,8 +615,8 @@ public class ScanFieldAutomaticLocator {
         List<Rect> digitsCandidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the light green hue of PoGO text
                 .filter(Predicates.or(
-                        ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_DARK_SMALL, 13, 0.25f,0.25f),
-                        ByHsvColor.of(image, mask2, contours, boundingRectList, HSV_TEXT_RED, 10, 0.25f, 0.25f)))
+                        ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_DARK_SMALL, 13, 0.25f,0.25f),
+                        ByHsvColor.of(image, contours, boundingRectList, HSV_TEXT_RED, 10, 0.25f, 0.25f)))
                 .toList();
 
         if (digitsCandidates.size() > 0) {
@@ -657,8 +714,8 @@ public class ScanFieldAutomaticLocator {
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the light green hue of PoGO text
                 .filter(Predicates.or(
-                        ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_DARK_SMALL, 13, 0.25f,0.25f),
-                        ByHsvColor.of(image, mask2, contours, boundingRectList, HSV_TEXT_RED, 10, 0.25f, 0.25f)))
+                        ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_DARK_SMALL, 13, 0.25f,0.25f),
+                        ByHsvColor.of(image, contours, boundingRectList, HSV_TEXT_RED, 10, 0.25f, 0.25f)))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -738,8 +795,8 @@ public class ScanFieldAutomaticLocator {
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the light green hue of PoGO text
                 .filter(Predicates.or(
-                        ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_DARK_SMALL, 13, 0.25f,0.25f),
-                        ByHsvColor.of(image, mask2, contours, boundingRectList, HSV_TEXT_RED, 10, 0.25f, 0.25f)))
+                        ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_DARK_SMALL, 13, 0.25f,0.25f),
+                        ByHsvColor.of(image, contours, boundingRectList, HSV_TEXT_RED, 10, 0.25f, 0.25f)))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -825,7 +882,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the light green hue of PoGO text
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_DARK, 5, 0.275f, 0.275f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_DARK, 5, 0.275f, 0.275f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -972,7 +1029,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the dark green hue of PoGO text
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_DARK, 5, 0.275f, 0.325f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_DARK, 5, 0.275f, 0.325f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -1068,7 +1125,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the light green hue of PoGO small text
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_LIGHT, 5, 0.125f, 0.090f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_LIGHT, 5, 0.125f, 0.090f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -1159,7 +1216,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the light green hue of PoGO small text
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_LIGHT, 5, 0.125f, 0.090f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_LIGHT, 5, 0.125f, 0.090f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -1241,7 +1298,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the color of the hamburger floating action button
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_BLUE_LIGHT, 5, 0.125f, 0.090f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_BLUE_LIGHT, 5, 0.125f, 0.090f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -1309,7 +1366,7 @@ public class ScanFieldAutomaticLocator {
 
         candidates = FluentIterable.from(candidates)
                 // Check if the dominant color of the contour matches the dark green hue of PoGO text
-                .filter(ByHsvColor.of(image, mask1, contours, boundingRectList, HSV_GREEN_DARK, 5, 0.275f, 0.325f))
+                .filter(ByHsvColor.of(image, contours, boundingRectList, HSV_GREEN_DARK, 5, 0.275f, 0.325f))
                 .toList();
 
         //noinspection PointlessBooleanExpression
@@ -1613,7 +1670,6 @@ public class ScanFieldAutomaticLocator {
 
     private static class ByHsvColor implements Predicate<Rect> {
         private Mat image;
-        private Mat mask;
         private List<MatOfPoint> contours;
         private List<Rect> allBoundingRectList;
         private float[] color;
@@ -1621,10 +1677,9 @@ public class ScanFieldAutomaticLocator {
         private float dS;
         private float dV;
 
-        private ByHsvColor(Mat image, Mat mask, List<MatOfPoint> contours, List<Rect> allBoundingRectList,
+        private ByHsvColor(Mat image, List<MatOfPoint> contours, List<Rect> allBoundingRectList,
                            float[] hsvColor, float deltaH, float deltaS, float deltaV) {
             this.image = image;
-            this.mask = mask;
             this.contours = contours;
             this.allBoundingRectList = allBoundingRectList;
             this.color = hsvColor;
@@ -1633,18 +1688,25 @@ public class ScanFieldAutomaticLocator {
             this.dV = deltaV;
         }
 
-        public static ByHsvColor of(Mat image, Mat mask, List<MatOfPoint> contours, List<Rect> allBoundingRectList,
+        public static ByHsvColor of(Mat image, List<MatOfPoint> contours, List<Rect> allBoundingRectList,
                                     float[] hsvColor, float deltaH, float deltaS, float deltaV) {
-            return new ByHsvColor(image, mask, contours, allBoundingRectList, hsvColor, deltaH, deltaS, deltaV);
+            return new ByHsvColor(image, contours, allBoundingRectList, hsvColor, deltaH, deltaS, deltaV);
         }
 
         @Override public boolean apply(@Nullable Rect input) {
             if (input != null) {
                 float[] meanHsv = new float[3];
                 MatOfPoint contour = contours.get(allBoundingRectList.indexOf(input));
-                mask.setTo(SCALAR_OFF);
-                Imgproc.drawContours(mask, contours, contours.indexOf(contour), SCALAR_ON, -1);
-                Scalar meanColor = Core.mean(image, mask);
+                // Average the contour within its bounding rect only, with a mask of that size: this is much faster
+                // than masking the whole image, and lets the finders run concurrently
+                Rect bounds = Imgproc.boundingRect(contour);
+                Mat mask = Mat.zeros(bounds.height, bounds.width, CvType.CV_8U);
+                Imgproc.drawContours(mask, Collections.singletonList(contour), 0, SCALAR_ON, -1, Imgproc.LINE_8,
+                        new Mat(), Integer.MAX_VALUE, new Point(-bounds.x, -bounds.y));
+                Mat region = image.submat(bounds);
+                Scalar meanColor = Core.mean(region, mask);
+                region.release();
+                mask.release();
                 Color.RGBToHSV((int) meanColor.val[0], (int) meanColor.val[1], (int) meanColor.val[2], meanHsv);
                 if ((Math.abs(color[0] - meanHsv[0]) <= dH
                         || meanHsv[0] > 360 + color[0] - dH
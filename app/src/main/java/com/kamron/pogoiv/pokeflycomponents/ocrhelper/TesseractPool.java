@@ -0,0 +1,202 @@
+package com.kamron.pogoiv.pokeflycomponents.ocrhelper;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.googlecode.tesseract.android.TessBaseAPI;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded set of Tesseract engines, so several fields of a screenshot can be OCR'd at the same time. A TessBaseAPI
+ * isn't thread safe: every recognition borrows an engine for its duration and hands it back when done.
+ * <p>
+ * Loading an engine is slow, so they're created by the recognitions which find none idle, up to the size of the pool:
+ * creating the pool costs nothing, and a pool only gets as many engines as recognitions ever ran at the same time.
+ */
+class TesseractPool {
+
+    /**
+     * How often a recognition waiting for an engine checks whether the pool was ended.
+     */
+    private static final long ACQUIRE_POLL_MILLIS = 100;
+
+    private final String dataPath;
+    private final String whitelist;
+    private final int size;
+    /**
+     * The engines created, guarded by this.
+     */
+    private final ArrayList<TessBaseAPI> engines;
+    private int enginesCreatedOrLoading = 0; // Guarded by this
+    private final BlockingQueue<TessBaseAPI> idleEngines;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a pool without any engine yet.
+     *
+     * @param dataPath  Path the OCR data files.
+     * @param size      How many engines to create at most, which is how many recognitions can run in parallel.
+     * @param whitelist The characters the engines may recognize.
+     */
+    TesseractPool(@NonNull String dataPath, int size, @NonNull String whitelist) {
+        this.dataPath = dataPath;
+        this.whitelist = whitelist;
+        this.size = size;
+        engines = new ArrayList<>(size);
+        idleEngines = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * OCR a single line of text.
+     *
+     * @param image The image to read.
+     * @return The recognized text.
+     */
+    String getText(@NonNull Bitmap image) {
+        return getText(image, null, TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+    }
+
+    /**
+     * OCR an image, waiting for an engine to become available if they're all busy.
+     *
+     * @param image       The image to read.
+     * @param rect        The part of the image to read, or null to read all of it.
+     * @param pageSegMode The TessBaseAPI.PageSegMode describing the layout of the text.
+     * @return The recognized text.
+     * @throws IllegalStateException If the pool was ended, before or while waiting for an engine.
+     */
+    String getText(@NonNull Bitmap image, @Nullable Rect rect, int pageSegMode) {
+        TessBaseAPI engine = acquire();
+        try {
+            if (pageSegMode != TessBaseAPI.PageSegMode.PSM_SINGLE_LINE) {
+                engine.setPageSegMode(pageSegMode);
+            }
+            engine.setImage(image);
+            if (rect != null) {
+                engine.setRectangle(rect);
+            }
+            return engine.getUTF8Text();
+        } finally {
+            if (pageSegMode != TessBaseAPI.PageSegMode.PSM_SINGLE_LINE) {
+                engine.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+            }
+            idleEngines.add(engine);
+        }
+    }
+
+    private TessBaseAPI acquire() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("The OCR engines were ended");
+                }
+                TessBaseAPI engine = idleEngines.poll();
+                if (engine == null) {
+                    engine = tryCreate();
+                }
+                if (engine == null) {
+                    try {
+                        engine = idleEngines.poll(ACQUIRE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        // Recognitions are short: finish this one and let the caller see the interrupt afterwards
+                        interrupted = true;
+                    }
+                }
+                if (engine != null) {
+                    if (closed) {
+                        idleEngines.add(engine); // For end() to free it
+                        throw new IllegalStateException("The OCR engines were ended");
+                    }
+                    return engine;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Creates an engine for the calling recognition, unless the pool already has all of its engines.
+     *
+     * @return The new engine, or null if the pool is full.
+     */
+    private @Nullable TessBaseAPI tryCreate() {
+        synchronized (this) {
+            if (enginesCreatedOrLoading >= size) {
+                return null;
+            }
+            enginesCreatedOrLoading++;
+        }
+
+        // Loaded outside of the lock, so the other recognitions can still take the engines handed back meanwhile
+        TessBaseAPI engine = new TessBaseAPI();
+        try {
+            engine.init(dataPath, "eng");
+            engine.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+            engine.setVariable(TessBaseAPI.VAR_CHAR_WHITELIST, whitelist);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                enginesCreatedOrLoading--;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            if (!closed) {
+                engines.add(engine);
+                return engine;
+            }
+        }
+        // end() didn't know about this engine: free it here
+        engine.end();
+        throw new IllegalStateException("The OCR engines were ended");
+    }
+
+    /**
+     * Waits for an idle engine, even once the pool is ended.
+     */
+    private TessBaseAPI takeIdle() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return idleEngines.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops running recognitions and frees the engines once they're handed back. The pool can't be used afterwards:
+     * recognitions requested since, or still waiting for an engine, throw an IllegalStateException.
+     */
+    void end() {
+        ArrayList<TessBaseAPI> created;
+        synchronized (this) {
+            closed = true;
+            created = new ArrayList<>(engines);
+            engines.clear();
+        }
+        for (TessBaseAPI engine : created) {
+            engine.stop();
+        }
+        for (int i = 0; i < created.size(); i++) {
+            takeIdle().end();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+import com.kamron.pogoiv.GoIVSettings;
+import com.kamron.pogoiv.R;
+
+import java.util.Locale;
+
+/**
+ * Reads the species data and power up costs from the arrays in integers.xml and forms.xml, and the names from the
+ * strings.xml resources.
+ */
+public class ResourcesPokedexDataSource implements PokedexDataSource {
+    private final Resources res;
+    private final GoIVSettings settings;
+
+    public ResourcesPokedexDataSource(@NonNull Context context) {
+        this.res = context.getResources();
+        this.settings = GoIVSettings.getInstance(context);
+    }
+
+    public static String[] getPokemonNamesArray(Resources res) {
+        if (res.getBoolean(R.bool.use_default_pokemonsname_as_ocrstring)) {
+            // If flag ON, force to use English strings as pokemon name for OCR.
+            Configuration conf = res.getConfiguration();
+            Locale originalLocale; // Save original locale
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                originalLocale = conf.getLocales().get(0);
+            } else {
+                originalLocale = conf.locale;
+            }
+            conf.setLocale(Locale.ENGLISH);
+            res.updateConfiguration(conf, null);
+            String[] rtn = res.getStringArray(R.array.pokemon);
+            conf.setLocale(originalLocale); // Restore to original locale
+            res.updateConfiguration(conf, null);
+            return rtn;
+        }
+        return res.getStringArray(R.array.pokemon);
+    }
+
+    @Override public @NonNull String[] getPokemonNames() {
+        return getPokemonNamesArray(res);
+    }
+
+    @Override public @NonNull String[] getPokemonDisplayNames() {
+        if (settings.isShowTranslatedPokemonName()) {
+            // If pref ON, use translated strings as pokemon name.
+            return res.getStringArray(R.array.pokemon);
+        }
+        // Otherwise, use default locale's pokemon name.
+        return getPokemonNamesArray(res);
+    }
+
+    @Override public @NonNull int[] getAttack() {
+        return res.getIntArray(R.array.attack);
+    }
+
+    @Override public @NonNull int[] getDefense() {
+        return res.getIntArray(R.array.defense);
+    }
+
+    @Override public @NonNull int[] getStamina() {
+        return res.getIntArray(R.array.stamina);
+    }
+
+    @Override public @NonNull int[] getDevolutionNumber() {
+        return res.getIntArray(R.array.devolutionNumber);
+    }
+
+    @Override public @NonNull int[] getEvolutionCandyCost() {
+        return res.getIntArray(R.array.evolutionCandyCost);
+    }
+
+    @Override public @NonNull int[] getCandyNames() {
+        return res.getIntArray(R.array.candyNames);
+    }
+
+    @Override public @NonNull int[] getFormsCountIndex() {
+        return res.getIntArray(R.array.formsCountIndex);
+    }
+
+    @Override public @NonNull int[] getFormsCount() {
+        return res.getIntArray(R.array.formsCount);
+    }
+
+    @Override public @NonNull String[] getFormNames() {
+        return res.getStringArray(R.array.formNames);
+    }
+
+    @Override public @NonNull int[] getFormAttack() {
+        return res.getIntArray(R.array.formAttack);
+    }
+
+    @Override public @NonNull int[] getFormDefense() {
+        return res.getIntArray(R.array.formDefense);
+    }
+
+    @Override public @NonNull int[] getFormStamina() {
+        return res.getIntArray(R.array.formStamina);
+    }
+
+    @Override public @NonNull String[] getTypeNames() {
+        return res.getStringArray(R.array.typeName);
+    }
+
+    @Override public @NonNull String getCandyWord() {
+        return res.getString(R.string.candy);
+    }
+
+    @Override public @NonNull int[] getPowerUpCandyCosts() {
+        return res.getIntArray(R.array.powerUpCandyCost);
+    }
+
+    @Override public @NonNull int[] getPowerUpStardustCosts() {
+        return res.getIntArray(R.array.powerUpStardustCost);
+    }
+}
@@ -0,0 +1,107 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.kamron.pogoiv.utils.ColorClassifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cleaning up an evolution cost crop, whose text is either in the "can afford" or in the "cannot afford" color.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColorThresholdBenchmark {
+
+    private static final int WIDTH = 216;
+    private static final int HEIGHT = 58;
+    private static final int WHITE = 0xFFFFFFFF;
+    private static final int CAN_AFFORD = 0xFF44696C;
+    private static final int CANNOT_AFFORD = 0xFFFF7373;
+
+    private final ColorClassifier classifier =
+            new ColorClassifier(new int[]{CAN_AFFORD, CANNOT_AFFORD}, new int[]{30, 40});
+    private int[] pixels;
+    private int[] canAfford;
+    private int[] cannotAfford;
+    private int[] classes;
+    private int[] counts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pixels = new int[WIDTH * HEIGHT];
+        Random random = new Random(1);
+        int i = 0;
+        while (i < pixels.length) {
+            // Runs of background, then strokes of text with anti aliased edges
+            int end = Math.min(pixels.length, i + 4 + random.nextInt(20));
+            while (i < end) {
+                pixels[i++] = 0xFFF7F7F7;
+            }
+            end = Math.min(pixels.length, i + 2 + random.nextInt(6));
+            while (i < end) {
+                pixels[i] = i == end - 1 ? 0xFF8FA5A7 : CAN_AFFORD;
+                i++;
+            }
+        }
+        canAfford = new int[pixels.length];
+        cannotAfford = new int[pixels.length];
+        classes = new int[pixels.length];
+        counts = new int[2];
+    }
+
+    /**
+     * The previous cleanup: a color replacement pass per color, then a count of the middle row of each.
+     */
+    @Benchmark
+    public int replacePerColor() {
+        replaceColors(pixels, canAfford, 68, 105, 108, 30);
+        replaceColors(pixels, cannotAfford, 255, 115, 115, 40);
+        int middleRow = HEIGHT / 2 * WIDTH;
+        return countNonWhite(canAfford, middleRow) + countNonWhite(cannotAfford, middleRow);
+    }
+
+    @Benchmark
+    public int classifyOnce() {
+        classifier.classify(pixels, pixels.length, classes, counts);
+        int middleRow = HEIGHT / 2 * WIDTH;
+        int textPixels = ColorClassifier.count(classes, middleRow, WIDTH, 0)
+                + ColorClassifier.count(classes, middleRow, WIDTH, 1);
+        ColorClassifier.mask(pixels, pixels.length, classes, 0, WHITE, canAfford);
+        return textPixels;
+    }
+
+    private static void replaceColors(int[] src, int[] dst, int keepCr, int keepCg, int keepCb, int distance) {
+        int distanceSq = distance * distance;
+        for (int i = 0; i < src.length; i++) {
+            int pixel = src[i];
+            if (pixel == WHITE) {
+                dst[i] = WHITE;
+                continue;
+            }
+            int rDiff = keepCr - ((pixel >> 16) & 0xFF);
+            int gDiff = keepCg - ((pixel >> 8) & 0xFF);
+            int bDiff = keepCb - (pixel & 0xFF);
+            dst[i] = rDiff * rDiff + gDiff * gDiff + bDiff * bDiff > distanceSq ? WHITE : pixel;
+        }
+    }
+
+    private static int countNonWhite(int[] pixels, int offset) {
+        int count = 0;
+        for (int i = offset; i < offset + WIDTH; i++) {
+            if (pixels[i] != WHITE) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
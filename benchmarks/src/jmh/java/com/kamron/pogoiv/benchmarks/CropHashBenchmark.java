@@ -0,0 +1,57 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.kamron.pogoiv.utils.PixelHash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OCR cache keys of a screenshot crop, once its pixels have been copied out of the bitmap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CropHashBenchmark {
+
+    /**
+     * Crop sizes: a candy cost and a name on a 1080p screen.
+     */
+    @Param({"100x27", "918x59"})
+    public String cropSize;
+
+    private int[] pixels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] size = cropSize.split("x");
+        pixels = new int[Integer.parseInt(size[0]) * Integer.parseInt(size[1])];
+        Random random = new Random(1);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(8) == 0 ? 0xFF476C6E : 0xFFFFFFFF;
+        }
+    }
+
+    /**
+     * The previous key: a prefixed hex string of Arrays.hashCode.
+     */
+    @Benchmark
+    public String stringKey() {
+        return "name" + Integer.toHexString(Arrays.hashCode(pixels));
+    }
+
+    @Benchmark
+    public long pixelHash() {
+        return PixelHash.hash(pixels, 0, pixels.length, 42);
+    }
+}
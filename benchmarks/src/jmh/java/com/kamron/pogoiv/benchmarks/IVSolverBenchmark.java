@@ -0,0 +1,126 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.kamron.pogoiv.scanlogic.Data;
+import com.kamron.pogoiv.scanlogic.IVCombinationSet;
+import com.kamron.pogoiv.scanlogic.IVLookupIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IV solving for one scanned pokemon: finding every IV combination matching a (level range, HP, CP) reading.
+ * The brute force variant is the solver the lookup index replaced, kept as the reference point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IVSolverBenchmark {
+
+    /**
+     * Pokedex index of the solved pokemon: Bulbasaur, Pidgey, Snorlax and Mewtwo.
+     */
+    @Param({"0", "15", "142", "149"})
+    public int pokedexIndex;
+
+    /**
+     * How many half levels the scanned level range spans. 1 is an exact arc reading, 79 a full level range scan.
+     */
+    @Param({"1", "79"})
+    public int levelCount;
+
+    private int baseAttack;
+    private int baseDefense;
+    private int baseStamina;
+    private int hp;
+    private int cp;
+    private int minLevelIdx;
+    private int maxLevelIdx;
+
+    private IVLookupIndex warmIndex;
+    private final short[] matches = new short[IVLookupIndex.COMBINATION_COUNT];
+    private final IVCombinationSet result = new IVCombinationSet();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PokedexFixture fixture = PokedexFixture.get();
+        baseAttack = fixture.attack[pokedexIndex];
+        baseDefense = fixture.defense[pokedexIndex];
+        baseStamina = fixture.stamina[pokedexIndex];
+
+        // A level 20 pokemon with 10/12/7 IVs
+        int levelIdx = Data.maxPokeLevelToIndex(20);
+        double lvlScalar = Data.getLevelCpM(20);
+        hp = (int) Math.max(Math.floor((baseStamina + 7) * lvlScalar), 10);
+        cp = Math.max(10, (int) Math.floor((baseAttack + 10) * Math.sqrt(baseDefense + 12)
+                * Math.sqrt(baseStamina + 7) * Math.pow(lvlScalar, 2) * 0.1));
+
+        int lastLevelIdx = Data.maxPokeLevelToIndex(Data.MAXIMUM_POKEMON_LEVEL);
+        minLevelIdx = Math.max(0, levelIdx - levelCount / 2);
+        maxLevelIdx = Math.min(lastLevelIdx, minLevelIdx + levelCount - 1);
+        minLevelIdx = Math.max(0, maxLevelIdx - levelCount + 1);
+
+        warmIndex = new IVLookupIndex(baseAttack, baseDefense, baseStamina);
+        solveWithIndex(warmIndex);
+    }
+
+    @Benchmark
+    public int lookupIndex() {
+        return solveWithIndex(warmIndex);
+    }
+
+    /**
+     * First scan of a species, including building the index.
+     */
+    @Benchmark
+    public int lookupIndexCold() {
+        return solveWithIndex(new IVLookupIndex(baseAttack, baseDefense, baseStamina));
+    }
+
+    @Benchmark
+    public int bruteForce() {
+        result.clear();
+        for (int levelIdx = minLevelIdx; levelIdx <= maxLevelIdx; levelIdx++) {
+            double lvlScalar = Data.getLevelCpM(Data.levelIdxToLevel(levelIdx));
+            double lvlScalarPow2 = Math.pow(lvlScalar, 2) * 0.1;
+            for (int staminaIV = 0; staminaIV < 16; staminaIV++) {
+                int candidateHp = (int) Math.max(Math.floor((baseStamina + staminaIV) * lvlScalar), 10);
+                if (candidateHp == hp) {
+                    double lvlScalarStamina = Math.sqrt(baseStamina + staminaIV) * lvlScalarPow2;
+                    for (int defenseIV = 0; defenseIV < 16; defenseIV++) {
+                        for (int attackIV = 0; attackIV < 16; attackIV++) {
+                            int candidateCp = Math.max(10, (int) Math.floor((baseAttack + attackIV)
+                                    * Math.sqrt(baseDefense + defenseIV) * lvlScalarStamina));
+                            if (candidateCp == cp) {
+                                result.add(attackIV, defenseIV, staminaIV);
+                            }
+                        }
+                    }
+                } else if (candidateHp > hp) {
+                    break;
+                }
+            }
+        }
+        return result.size();
+    }
+
+    private int solveWithIndex(IVLookupIndex index) {
+        result.clear();
+        for (int levelIdx = minLevelIdx; levelIdx <= maxLevelIdx; levelIdx++) {
+            int count = index.findCombinations(levelIdx, hp, cp, matches);
+            for (int i = 0; i < count; i++) {
+                result.add(IVLookupIndex.unpackAttack(matches[i]), IVLookupIndex.unpackDefense(matches[i]),
+                        IVLookupIndex.unpackStamina(matches[i]));
+            }
+        }
+        return result.size();
+    }
+}
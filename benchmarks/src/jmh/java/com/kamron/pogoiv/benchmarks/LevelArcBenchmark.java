@@ -0,0 +1,116 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.kamron.pogoiv.scanlogic.ArcGeometry;
+import com.kamron.pogoiv.scanlogic.Data;
+import com.kamron.pogoiv.scanlogic.LevelArcDetector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimating the level of a pokemon from the white dot on its level arc, on a 1080p screen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelArcBenchmark {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int ARC_CENTER_X = 540;
+    private static final int ARC_CENTER_Y = 685;
+    private static final int ARC_RADIUS = 439;
+    private static final int TRAINER_LEVEL = 40;
+    private static final int DOT_RADIUS = 14;
+
+    private ArcGeometry arc;
+    private int[] screen;
+    private LevelArcDetector detector;
+    private LevelArcDetector.Pixels pixels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        arc = new ArcGeometry(ARC_CENTER_X, ARC_CENTER_Y, ARC_RADIUS, TRAINER_LEVEL);
+        screen = new int[WIDTH * HEIGHT];
+        Arrays.fill(screen, 0xFF3A4F5E);
+        // A level 15 pokemon: the dot is about halfway along the arc
+        int levelIndex = Data.maxPokeLevelToIndex(15);
+        int dotX = arc.getX(levelIndex);
+        int dotY = arc.getY(levelIndex);
+        for (int y = dotY - DOT_RADIUS; y <= dotY + DOT_RADIUS; y++) {
+            for (int x = dotX - DOT_RADIUS; x <= dotX + DOT_RADIUS; x++) {
+                if ((x - dotX) * (x - dotX) + (y - dotY) * (y - dotY) <= DOT_RADIUS * DOT_RADIUS) {
+                    screen[y * WIDTH + x] = 0xFFFFFFFF;
+                }
+            }
+        }
+        detector = new LevelArcDetector(arc, WIDTH, HEIGHT);
+        pixels = new LevelArcDetector.Pixels() {
+            @Override public int getPixel(int x, int y) {
+                return LevelArcBenchmark.this.getPixel(x, y);
+            }
+        };
+    }
+
+    /**
+     * The previous detection: a pixel read and a step of trigonometry for every pixel walked over.
+     */
+    @Benchmark
+    public double walkWithTrigonometry() {
+        double estimatedPokemonLevel = Data.trainerLevelToMaxPokeLevel(TRAINER_LEVEL);
+        double previousEstPokemonLevel = estimatedPokemonLevel + 0.5;
+        int previousLevelDistance = -1;
+        for (double estPokemonLevel = estimatedPokemonLevel; estPokemonLevel >= 1.0; estPokemonLevel -= 0.5) {
+            int index = Data.maxPokeLevelToIndex(estPokemonLevel);
+            int whiteLineDistance = getCardinalWhiteLineDist(arc.getX(index), arc.getY(index));
+            if (whiteLineDistance < previousLevelDistance) {
+                return previousEstPokemonLevel;
+            }
+            previousEstPokemonLevel = estPokemonLevel;
+            previousLevelDistance = whiteLineDistance;
+        }
+        return 1;
+    }
+
+    @Benchmark
+    public double precomputedProbes() {
+        return detector.detectLevel(pixels, TRAINER_LEVEL);
+    }
+
+    private int getCardinalWhiteLineDist(int x, int y) {
+        Double angle = null;
+        int r = -1;
+        int i1x = x;
+        int i1y = y;
+        int i2x = x;
+        int i2y = y;
+        while (getPixel(i1x, i1y) == 0xFFFFFFFF || getPixel(i2x, i2y) == 0xFFFFFFFF) {
+            r++;
+            if (angle == null) {
+                angle = Math.atan2(ARC_CENTER_Y - y, ARC_CENTER_X - x);
+            }
+            i1x = (int) Math.round(x + r * Math.cos(angle));
+            i1y = (int) Math.round(y + r * Math.sin(angle));
+            i2x = (int) Math.round(x - r * Math.cos(angle));
+            i2y = (int) Math.round(y - r * Math.sin(angle));
+            if (i1x < 0 || i1x >= WIDTH || i1y < 0 || i1y >= HEIGHT
+                    || i2x < 0 || i2x >= WIDTH || i2y < 0 || i2y >= HEIGHT) {
+                return -1;
+            }
+        }
+        return r;
+    }
+
+    private int getPixel(int x, int y) {
+        return screen[y * WIDTH + x];
+    }
+}
@@ -0,0 +1,78 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.kamron.pogoiv.scanlogic.Data;
+import com.kamron.pogoiv.scanlogic.NameIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name distance computations as done by the pokemon name correction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevenshteinBenchmark {
+
+    /**
+     * OCR readings to correct: an exact name, a typical misreading and a nickname.
+     */
+    @Param({"pidgey", "bulbasaor", "mysuperlongnickname"})
+    public String scannedName;
+
+    private String[] pokedexNames;
+    private NameIndex<Integer> pokedexNameIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] names = PokedexFixture.get().names;
+        pokedexNames = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            pokedexNames[i] = names[i].toLowerCase(Locale.ENGLISH);
+        }
+        Map<String, Integer> numbers = new LinkedHashMap<>();
+        for (int i = 0; i < pokedexNames.length; i++) {
+            numbers.put(pokedexNames[i], i);
+        }
+        pokedexNameIndex = NameIndex.of(numbers);
+    }
+
+    @Benchmark
+    public int singleDistance() {
+        return Data.levenshteinDistance(pokedexNames[15], scannedName);
+    }
+
+    /**
+     * The last resort name guess: the distance to every pokedex name.
+     */
+    @Benchmark
+    public int closestPokedexName() {
+        int best = -1;
+        int lowestDist = Integer.MAX_VALUE;
+        for (int i = 0; i < pokedexNames.length; i++) {
+            int dist = Data.levenshteinDistance(pokedexNames[i], scannedName);
+            if (dist < lowestDist) {
+                lowestDist = dist;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public int closestPokedexNameIndexed() {
+        return pokedexNameIndex.findClosest(scannedName).value;
+    }
+}
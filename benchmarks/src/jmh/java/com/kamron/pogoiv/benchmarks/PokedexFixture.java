@@ -0,0 +1,199 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.kamron.pogoiv.scanlogic.PokedexDataSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pokedex fixture the benchmarks run against: a snapshot of the pokemon arrays in the app resources, stored as
+ * tab separated files under src/jmh/resources/fixture. Regenerate it with ./gradlew :benchmarks:updatePokedexFixture.
+ * It also feeds the core scan logic, as an English pokedex.
+ */
+public class PokedexFixture implements PokedexDataSource {
+    public final String[] names;
+    public final int[] attack;
+    public final int[] defense;
+    public final int[] stamina;
+    public final int[] devolutionNumber;
+    public final int[] evolutionCandyCost;
+    public final int[] candyNames;
+    public final int[] formsCountIndex;
+
+    public final int[] formsCount;
+    public final String[] formNames;
+    public final int[] formAttack;
+    public final int[] formDefense;
+    public final int[] formStamina;
+
+    public final String[] typeNames;
+
+    public final int[] powerUpCandyCosts;
+    public final int[] powerUpStardustCosts;
+
+    private static PokedexFixture instance;
+
+    public static synchronized PokedexFixture get() {
+        if (instance == null) {
+            try {
+                instance = new PokedexFixture();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read the pokedex fixture", e);
+            }
+        }
+        return instance;
+    }
+
+    private PokedexFixture() throws IOException {
+        List<String[]> pokedex = readRows("pokedex.tsv");
+        int size = pokedex.size();
+        names = new String[size];
+        attack = new int[size];
+        defense = new int[size];
+        stamina = new int[size];
+        devolutionNumber = new int[size];
+        evolutionCandyCost = new int[size];
+        candyNames = new int[size];
+        formsCountIndex = new int[size];
+        for (int i = 0; i < size; i++) {
+            String[] row = pokedex.get(i);
+            names[i] = row[0];
+            attack[i] = Integer.parseInt(row[1]);
+            defense[i] = Integer.parseInt(row[2]);
+            stamina[i] = Integer.parseInt(row[3]);
+            devolutionNumber[i] = Integer.parseInt(row[4]);
+            evolutionCandyCost[i] = Integer.parseInt(row[5]);
+            candyNames[i] = Integer.parseInt(row[6]);
+            formsCountIndex[i] = Integer.parseInt(row[7]);
+        }
+
+        List<String[]> forms = readRows("forms.tsv");
+        int formCount = forms.size();
+        formNames = new String[formCount];
+        formAttack = new int[formCount];
+        formDefense = new int[formCount];
+        formStamina = new int[formCount];
+        int groups = formCount == 0 ? 0 : Integer.parseInt(forms.get(formCount - 1)[0]) + 1;
+        formsCount = new int[groups];
+        for (int i = 0; i < formCount; i++) {
+            String[] row = forms.get(i);
+            formsCount[Integer.parseInt(row[0])]++;
+            formNames[i] = row[1];
+            formAttack[i] = Integer.parseInt(row[2]);
+            formDefense[i] = Integer.parseInt(row[3]);
+            formStamina[i] = Integer.parseInt(row[4]);
+        }
+
+        List<String[]> types = readRows("types.tsv");
+        typeNames = new String[types.size()];
+        for (int i = 0; i < typeNames.length; i++) {
+            typeNames[i] = types.get(i)[0];
+        }
+
+        List<String[]> powerUps = readRows("powerup.tsv");
+        powerUpCandyCosts = new int[powerUps.size()];
+        powerUpStardustCosts = new int[powerUps.size()];
+        for (int i = 0; i < powerUpCandyCosts.length; i++) {
+            powerUpCandyCosts[i] = Integer.parseInt(powerUps.get(i)[1]);
+            powerUpStardustCosts[i] = Integer.parseInt(powerUps.get(i)[2]);
+        }
+    }
+
+    @Override public String[] getPokemonNames() {
+        return names;
+    }
+
+    @Override public String[] getPokemonDisplayNames() {
+        return names;
+    }
+
+    @Override public int[] getAttack() {
+        return attack;
+    }
+
+    @Override public int[] getDefense() {
+        return defense;
+    }
+
+    @Override public int[] getStamina() {
+        return stamina;
+    }
+
+    @Override public int[] getDevolutionNumber() {
+        return devolutionNumber;
+    }
+
+    @Override public int[] getEvolutionCandyCost() {
+        return evolutionCandyCost;
+    }
+
+    @Override public int[] getCandyNames() {
+        return candyNames;
+    }
+
+    @Override public int[] getFormsCountIndex() {
+        return formsCountIndex;
+    }
+
+    @Override public int[] getFormsCount() {
+        return formsCount;
+    }
+
+    @Override public String[] getFormNames() {
+        return formNames;
+    }
+
+    @Override public int[] getFormAttack() {
+        return formAttack;
+    }
+
+    @Override public int[] getFormDefense() {
+        return formDefense;
+    }
+
+    @Override public int[] getFormStamina() {
+        return formStamina;
+    }
+
+    @Override public String[] getTypeNames() {
+        return typeNames;
+    }
+
+    @Override public String getCandyWord() {
+        return "Candy";
+    }
+
+    @Override public int[] getPowerUpCandyCosts() {
+        return powerUpCandyCosts;
+    }
+
+    @Override public int[] getPowerUpStardustCosts() {
+        return powerUpStardustCosts;
+    }
+
+    /**
+     * Reads a fixture file, skipping its header line.
+     */
+    private static List<String[]> readRows(String fileName) throws IOException {
+        InputStream stream = PokedexFixture.class.getResourceAsStream("/fixture/" + fileName);
+        if (stream == null) {
+            throw new IOException("Missing fixture file " + fileName);
+        }
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, Charset.forName("UTF-8")))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(line.split("\t", -1));
+                }
+            }
+        }
+        return rows;
+    }
+}
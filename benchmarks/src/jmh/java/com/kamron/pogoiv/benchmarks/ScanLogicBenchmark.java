@@ -0,0 +1,78 @@
+package com.kamron.pogoiv.benchmarks;
+
+import com.google.common.base.Optional;
+import com.kamron.pogoiv.scanlogic.CPRange;
+import com.kamron.pogoiv.scanlogic.IVCombination;
+import com.kamron.pogoiv.scanlogic.PokeInfoCalculator;
+import com.kamron.pogoiv.scanlogic.Pokemon;
+import com.kamron.pogoiv.scanlogic.PokemonNameCorrector;
+import com.kamron.pogoiv.scanlogic.ScanData;
+import com.kamron.pogoiv.scanlogic.ScanResult;
+import com.kamron.pogoiv.scanlogic.UpgradeCost;
+import com.kamron.pogoiv.utils.LevelRange;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The core scan logic entry points as the app calls them after a scan: species guess, IV solving, CP range and power
+ * up cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanLogicBenchmark {
+
+    private PokeInfoCalculator calculator;
+    private PokemonNameCorrector nameCorrector;
+    private ScanData renamedPidgey;
+    private ScanResult scanResult;
+    private Pokemon pidgey;
+    private IVCombination lowIvs;
+    private IVCombination highIvs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        nameCorrector = PokemonNameCorrector.getInstance(PokedexFixture.get());
+        calculator = PokeInfoCalculator.getInstance();
+
+        // A nicknamed level 20 Pidgey with 10/12/7 IVs, so the species has to be guessed from the candy
+        pidgey = calculator.getForm(15);
+        renamedPidgey = new ScanData(new LevelRange(20), "Birb", "Normal / Flying", "Pidgey Candy",
+                Pokemon.Gender.N, Optional.of(57), Optional.of(380), Optional.of(30), Optional.of(12),
+                Optional.of(2500), Optional.of(2), null, null, false, "");
+        scanResult = new ScanResult(pidgey, renamedPidgey);
+        // The IV range the info dialog shows the CP range of, around the actual 10/12/7
+        lowIvs = IVCombination.of(9, 11, 6);
+        highIvs = IVCombination.of(11, 13, 8);
+    }
+
+    @Benchmark
+    public Pokemon getPossiblePokemon() {
+        return nameCorrector.getPossiblePokemon(renamedPidgey).pokemon;
+    }
+
+    @Benchmark
+    public int getIVPossibilities() {
+        calculator.getIVPossibilities(scanResult);
+        return scanResult.getIVCombinationsCount();
+    }
+
+    @Benchmark
+    public CPRange getCpRangeAtLevel() {
+        return calculator.getCpRangeAtLevel(pidgey, lowIvs, highIvs, 30);
+    }
+
+    @Benchmark
+    public UpgradeCost getUpgradeCost() {
+        return calculator.getUpgradeCost(40, 20, false);
+    }
+}
@@ -0,0 +1,104 @@
+package com.kamron.pogoiv.scanlogic;
+
+/**
+ * The points of the level arc of the pokemon screen, one per level index.
+ * <p>
+ * Immutable, so it can be built once per calibration and trainer level, then read by concurrent scans and by the UI.
+ */
+public class ArcGeometry {
+
+    private final int centerX;
+    private final int centerY;
+    private final int radius;
+    private final int trainerLevel;
+    private final int[] x;
+    private final int[] y;
+
+    /**
+     * Sets up the x,y coordinates of the arc using the trainer level.
+     *
+     * @param centerX      The horizontal ordinate of the center of the arc
+     * @param centerY      The vertical ordinate of the center of the arc
+     * @param radius       The radius of the arc
+     * @param trainerLevel The trainer level, whose max pokemon level is at the end of the arc
+     */
+    public ArcGeometry(int centerX, int centerY, int radius, int trainerLevel) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radius = radius;
+        this.trainerLevel = trainerLevel;
+
+        /*
+         * Pokemon levels go from 1 to trainerLevel + 2, in increments of 0.5.
+         * Here we use levelIdx for levels that are doubled and shifted by - 2; after this adjustment,
+         * the level can be used to index CpM, x and y.
+         */
+        int maxPokeLevelIndex = Data.trainerLevelToMaxPokeLevelIndex(trainerLevel);
+        x = new int[maxPokeLevelIndex + 1]; //We access entries [0..maxPokeLevelIndex], hence + 1.
+        y = new int[maxPokeLevelIndex + 1];
+
+        double baseCpM = getCpM(0);
+        double maxPokeCpMDelta = getCpM(maxPokeLevelIndex) - baseCpM;
+
+        for (int pokeLevelIdx = 0; pokeLevelIdx <= maxPokeLevelIndex; pokeLevelIdx++) {
+            double pokeCurrCpMDelta = getCpM(pokeLevelIdx) - baseCpM;
+            double arcRatio = pokeCurrCpMDelta / maxPokeCpMDelta;
+            double angleInRadians = (arcRatio + 1) * Math.PI;
+
+            x[pokeLevelIdx] = (int) Math.round(centerX + (radius * Math.cos(angleInRadians)));
+            y[pokeLevelIdx] = (int) Math.round(centerY
+                    + (radius * Math.sin(angleInRadians)) * Data.LEVEL_ARC_SQUISH_FACTOR);
+        }
+    }
+
+    private static double getCpM(int levelIdx) {
+        return Data.getLevelCpM(Data.levelIdxToLevel(levelIdx));
+    }
+
+    /**
+     * Whether this arc was built from these values, or needs to be built again.
+     */
+    public boolean isFor(int centerX, int centerY, int radius, int trainerLevel) {
+        return this.centerX == centerX && this.centerY == centerY && this.radius == radius
+                && this.trainerLevel == trainerLevel;
+    }
+
+    public int getCenterX() {
+        return centerX;
+    }
+
+    public int getCenterY() {
+        return centerY;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getTrainerLevel() {
+        return trainerLevel;
+    }
+
+    /**
+     * The number of level indexes on the arc, from level 1 to the max level of the trainer.
+     */
+    public int getLevelCount() {
+        return x.length;
+    }
+
+    /**
+     * @param levelIndex The level index, see Data.maxPokeLevelToIndex()
+     * @return The horizontal ordinate of the point of that level
+     */
+    public int getX(int levelIndex) {
+        return x[levelIndex];
+    }
+
+    /**
+     * @param levelIndex The level index, see Data.maxPokeLevelToIndex()
+     * @return The vertical ordinate of the point of that level
+     */
+    public int getY(int levelIndex) {
+        return y[levelIndex];
+    }
+}
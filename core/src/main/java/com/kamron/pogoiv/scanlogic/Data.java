@@ -1,7 +1,5 @@
 package com.kamron.pogoiv.scanlogic;
 
-import com.kamron.pogoiv.pokeflycomponents.ocrhelper.ScanPoint;
-
 /**
  * Created by Pascal on 17.08.2016.
  */
@@ -34,48 +32,6 @@ public class Data {
             0.767397165298462f, 0.770297293677362f, 0.773186504840851f, 0.776064947064992f, 0.778932750225067f,
             0.781790050767666f, 0.784636974334717f, 0.787473608513275f, 0.790300011634827f};
 
-    public static final int[] POWER_UP_CANDY_COSTS = {
-            1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2,
-            2, 2, 2, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 6, 6, 6, 6, 8, 8,
-            8, 8, 10, 10, 10, 10, 12, 12, 12, 12, 15, 15, 15, 15 };
-    public static int arcInitX;
-    public static int arcInitY;
-    public static int[] arcX;
-    public static int[] arcY;
-
-    /**
-     * setupArcPoints
-     * Sets up the x,y coordinates of the arc using the trainer level, stores it in Data.arcX/arcY
-     */
-    public static void setupArcPoints(ScanPoint arcInit, int arcRadius, int trainerLevel) {
-        arcInitX = arcInit.xCoord;
-        arcInitY = arcInit.yCoord;
-        /*
-         * Pokemon levels go from 1 to trainerLevel + 2, in increments of 0.5.
-         * Here we use levelIdx for levels that are doubled and shifted by - 2; after this adjustment,
-         * the level can be used to index CpM, arcX and arcY.
-         */
-        int maxPokeLevelIndex = (trainerLevelToMaxPokeLevelIndex(trainerLevel));
-        arcX = new int[maxPokeLevelIndex + 1]; //We access entries [0..maxPokeLevelIndex], hence + 1.
-        arcY = new int[maxPokeLevelIndex + 1];
-
-        double baseCpM = CpM[0];
-
-
-        //amount of possible levels: level*2 + 3
-        double maxPokeCpMDelta = CpM[Math.min(maxPokeLevelIndex, CpM.length - 1)] - baseCpM;
-
-        //pokeLevelIdx <= maxPokeLevelIndex ensures we never overflow CpM/arc/arcY
-        for (int pokeLevelIdx = 0; pokeLevelIdx <= maxPokeLevelIndex; pokeLevelIdx++) {
-            double pokeCurrCpMDelta = CpM[pokeLevelIdx] - baseCpM;
-            double arcRatio = pokeCurrCpMDelta / maxPokeCpMDelta;
-            double angleInRadians = (arcRatio + 1) * Math.PI;
-
-            arcX[pokeLevelIdx] = (int) Math.round(arcInit.xCoord + (arcRadius * Math.cos(angleInRadians)));
-            arcY[pokeLevelIdx] = (int) Math.round(arcInit.yCoord + (arcRadius * Math.sin(angleInRadians))* Data.LEVEL_ARC_SQUISH_FACTOR);
-        }
-    }
-
     /**
      * Convert a pokemon/trainer level to a <em>level index</em> (<code>levelIdx</code> in code).
      * The mapping is invertible, but level indexes can be used to index an array (like Data.CpM), or seekbars.
@@ -120,70 +76,18 @@ public class Data {
     /*
      * Pokemon levels go from 1 to trainerLevel + 2, in increments of 0.5.
      * Here we use levelIdx for levels that are doubled and shifted by - 2; after this adjustment,
-     * the level can be used to index CpM, arcX and arcY.
+     * the level can be used to index CpM and the arc points.
      */
     public static int trainerLevelToMaxPokeLevelIndex(int trainerLevel) {
         // This is Math.min(2 * trainerLevel + 1, 79).
         return maxPokeLevelToIndex(trainerLevelToMaxPokeLevel(trainerLevel));
     }
 
-    public static boolean isValidPowerUpCandyCost(int powerUpCandyCost) {
-        for (int currentCost : POWER_UP_CANDY_COSTS) {
-            if (currentCost == powerUpCandyCost) {
-                return true;
-            } else if (currentCost > powerUpCandyCost) {
-                break; // Costs are ascending ordered. There won't be a cost equal to the input in the array.
-            }
-        }
-        return false;
-    }
-
-    // should be pretty fast https://en.wikibooks.org/wiki/Algorithm_Implementation/Strings/Levenshtein_distance#Java
+    /**
+     * Get the Levenshtein distance between two strings, see {@link StringDistance#levenshtein(CharSequence,
+     * CharSequence)}.
+     */
     public static int levenshteinDistance(CharSequence lhs, CharSequence rhs) {
-        if (rhs == null) {
-            return Integer.MAX_VALUE;
-        }
-
-        int len0 = lhs.length() + 1;
-        int len1 = rhs.length() + 1;
-
-        // the array of distances
-        int[] cost = new int[len0];
-        int[] newcost = new int[len0];
-
-        // initial cost of skipping prefix in String s0
-        for (int i = 0; i < len0; i++) {
-            cost[i] = i;
-        }
-
-        // dynamically computing the array of distances
-
-        // transformation cost for each letter in s1
-        for (int j = 1; j < len1; j++) {
-            // initial cost of skipping prefix in String s1
-            newcost[0] = j;
-
-            // transformation cost for each letter in s0
-            for (int i = 1; i < len0; i++) {
-                // matching current letters in both strings
-                int match = (lhs.charAt(i - 1) == rhs.charAt(j - 1)) ? 0 : 1;
-
-                // computing cost for each transformation
-                int cost_replace = cost[i - 1] + match;
-                int cost_insert = cost[i] + 1;
-                int cost_delete = newcost[i - 1] + 1;
-
-                // keep minimum cost
-                newcost[i] = Math.min(Math.min(cost_insert, cost_delete), cost_replace);
-            }
-
-            // swap cost/newcost arrays
-            int[] swap = cost;
-            cost = newcost;
-            newcost = swap;
-        }
-
-        // the distance is the cost for transforming all letters in both strings
-        return cost[len0 - 1];
+        return StringDistance.levenshtein(lhs, rhs);
     }
 }
@@ -21,8 +21,27 @@ public class IVCombination {
         percentPerfect = Math.round((att + def + sta) / 45f * 100);
     }
 
-    public static IVCombination MAX = new IVCombination(15, 15, 15);
-    public static IVCombination MIN = new IVCombination(0, 0, 0);
+    /**
+     * Shared instances of every valid combination, indexed by their packed value.
+     */
+    private static final IVCombination[] ALL = new IVCombination[IVLookupIndex.COMBINATION_COUNT];
+
+    static {
+        for (int i = 0; i < ALL.length; i++) {
+            ALL[i] = new IVCombination(IVLookupIndex.unpackAttack(i), IVLookupIndex.unpackDefense(i),
+                    IVLookupIndex.unpackStamina(i));
+        }
+    }
+
+    public static IVCombination MAX = of(15, 15, 15);
+    public static IVCombination MIN = of(0, 0, 0);
+
+    /**
+     * Get the shared instance of a combination of IVs between 0 and 15, avoiding an allocation.
+     */
+    public static IVCombination of(int att, int def, int sta) {
+        return ALL[IVLookupIndex.pack(att, def, sta)];
+    }
 
     @Override
     public boolean equals(Object o) {
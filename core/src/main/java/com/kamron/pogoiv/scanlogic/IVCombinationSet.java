@@ -0,0 +1,273 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact set of IV combinations.
+ * <p>
+ * Combinations are stored packed in 12 bits (see {@link IVLookupIndex#pack(int, int, int)}): a 4096 bit mask gives
+ * O(1) insertion and de-duplication, while a short array keeps them in insertion (or sorted) order. IVCombination
+ * objects are only handed out when a reader asks for them, and they're the shared instances from
+ * {@link IVCombination#of(int, int, int)}, so filling the set never allocates per combination.
+ * <p>
+ * Per stat histograms are kept up to date on every insertion and removal, so the lowest/highest value of each stat,
+ * the IV total bounds and the average are available at any time without rescanning the combinations. Candidates can
+ * be narrowed in place when new information arrives, see {@link #retain(Filter)} and {@link #retainAll}.
+ */
+public class IVCombinationSet {
+    private static final int MAX_TOTAL = 45;
+
+    private final long[] bits = new long[IVLookupIndex.COMBINATION_COUNT / 64];
+    private short[] packed = new short[64];
+    private int size = 0;
+
+    private final int[] attackCounts = new int[16];
+    private final int[] defenseCounts = new int[16];
+    private final int[] staminaCounts = new int[16];
+    private final int[] totalCounts = new int[MAX_TOTAL + 1];
+    private int totalSum = 0;
+
+    /**
+     * A constraint an IV combination must satisfy to stay in the set.
+     */
+    public interface Filter {
+        boolean accept(int att, int def, int sta);
+    }
+
+    private final List<IVCombination> view = new AbstractList<IVCombination>() {
+        @Override public IVCombination get(int index) {
+            return IVCombinationSet.this.get(index);
+        }
+
+        @Override public int size() {
+            return size;
+        }
+
+        @Override public boolean contains(Object o) {
+            if (!(o instanceof IVCombination)) {
+                return false;
+            }
+            IVCombination combination = (IVCombination) o;
+            return IVCombinationSet.this.contains(combination.att, combination.def, combination.sta);
+        }
+    };
+
+    /**
+     * Adds a combination to the set.
+     *
+     * @return true if the combination wasn't in the set yet
+     */
+    public boolean add(int att, int def, int sta) {
+        int key = IVLookupIndex.pack(att, def, sta);
+        long mask = 1L << (key & 63);
+        if ((bits[key >> 6] & mask) != 0) {
+            return false;
+        }
+        bits[key >> 6] |= mask;
+
+        if (size == packed.length) {
+            packed = Arrays.copyOf(packed, Math.min(size * 2, IVLookupIndex.COMBINATION_COUNT));
+        }
+        packed[size++] = (short) key;
+        count(att, def, sta, 1);
+        return true;
+    }
+
+    /**
+     * Removes every combination the filter doesn't accept, keeping the order of the others.
+     *
+     * @return the amount of removed combinations
+     */
+    public int retain(@NonNull Filter filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int key = packed[i];
+            int att = IVLookupIndex.unpackAttack(key);
+            int def = IVLookupIndex.unpackDefense(key);
+            int sta = IVLookupIndex.unpackStamina(key);
+            if (filter.accept(att, def, sta)) {
+                packed[kept++] = (short) key;
+            } else {
+                bits[key >> 6] &= ~(1L << (key & 63));
+                count(att, def, sta, -1);
+            }
+        }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /**
+     * Removes every combination which isn't also in the other set, keeping the order of the others.
+     *
+     * @return the amount of removed combinations
+     */
+    public int retainAll(@NonNull final IVCombinationSet other) {
+        return retain(new Filter() {
+            @Override public boolean accept(int att, int def, int sta) {
+                return other.contains(att, def, sta);
+            }
+        });
+    }
+
+    /**
+     * Replaces the content of this set with the content of the other set.
+     */
+    public void copyFrom(@NonNull IVCombinationSet other) {
+        System.arraycopy(other.bits, 0, bits, 0, bits.length);
+        if (packed.length < other.size) {
+            packed = new short[other.packed.length];
+        }
+        System.arraycopy(other.packed, 0, packed, 0, other.size);
+        size = other.size;
+        System.arraycopy(other.attackCounts, 0, attackCounts, 0, attackCounts.length);
+        System.arraycopy(other.defenseCounts, 0, defenseCounts, 0, defenseCounts.length);
+        System.arraycopy(other.staminaCounts, 0, staminaCounts, 0, staminaCounts.length);
+        System.arraycopy(other.totalCounts, 0, totalCounts, 0, totalCounts.length);
+        totalSum = other.totalSum;
+    }
+
+    private void count(int att, int def, int sta, int delta) {
+        attackCounts[att] += delta;
+        defenseCounts[def] += delta;
+        staminaCounts[sta] += delta;
+        totalCounts[att + def + sta] += delta;
+        totalSum += delta * (att + def + sta);
+    }
+
+    public boolean contains(int att, int def, int sta) {
+        if (att < 0 || att > 15 || def < 0 || def > 15 || sta < 0 || sta > 15) {
+            return false;
+        }
+        int key = IVLookupIndex.pack(att, def, sta);
+        return (bits[key >> 6] & (1L << (key & 63))) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the packed combination at a position, see {@link IVLookupIndex#pack(int, int, int)}.
+     */
+    public int getPacked(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return packed[index];
+    }
+
+    public IVCombination get(int index) {
+        int key = getPacked(index);
+        return IVCombination.of(IVLookupIndex.unpackAttack(key), IVLookupIndex.unpackDefense(key),
+                IVLookupIndex.unpackStamina(key));
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0);
+        size = 0;
+        Arrays.fill(attackCounts, 0);
+        Arrays.fill(defenseCounts, 0);
+        Arrays.fill(staminaCounts, 0);
+        Arrays.fill(totalCounts, 0);
+        totalSum = 0;
+    }
+
+    /**
+     * Get the sum of att + def + sta over all combinations.
+     */
+    public int getTotalSum() {
+        return totalSum;
+    }
+
+    public int getLowestAttack() {
+        return lowestIndex(attackCounts, 15);
+    }
+
+    public int getHighestAttack() {
+        return highestIndex(attackCounts, 0);
+    }
+
+    public int getLowestDefense() {
+        return lowestIndex(defenseCounts, 15);
+    }
+
+    public int getHighestDefense() {
+        return highestIndex(defenseCounts, 0);
+    }
+
+    public int getLowestStamina() {
+        return lowestIndex(staminaCounts, 15);
+    }
+
+    public int getHighestStamina() {
+        return highestIndex(staminaCounts, 0);
+    }
+
+    /**
+     * Get the lowest att + def + sta of all combinations, or 45 if the set is empty.
+     */
+    public int getLowestTotal() {
+        return lowestIndex(totalCounts, MAX_TOTAL);
+    }
+
+    /**
+     * Get the highest att + def + sta of all combinations, or 0 if the set is empty.
+     */
+    public int getHighestTotal() {
+        return highestIndex(totalCounts, 0);
+    }
+
+    private static int lowestIndex(int[] counts, int fallback) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return i;
+            }
+        }
+        return fallback;
+    }
+
+    private static int highestIndex(int[] counts, int fallback) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return i;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Get a read-only list view of this set. The view reflects later changes to the set.
+     */
+    public @NonNull List<IVCombination> asList() {
+        return view;
+    }
+
+    /**
+     * Sorts the combinations by perfection percentage, then attack, defense and stamina, all ascending.
+     */
+    public void sort() {
+        // percentPerfect is monotonic in the IV total, so (total, att, def, sta) gives the same order
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            int key = packed[i];
+            int att = IVLookupIndex.unpackAttack(key);
+            int def = IVLookupIndex.unpackDefense(key);
+            int sta = IVLookupIndex.unpackStamina(key);
+            keys[i] = (att + def + sta) << 12 | att << 8 | def << 4 | sta;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            int key = keys[i];
+            packed[i] = (short) IVLookupIndex.pack((key >> 8) & 0xF, (key >> 4) & 0xF, key & 0xF);
+        }
+    }
+}
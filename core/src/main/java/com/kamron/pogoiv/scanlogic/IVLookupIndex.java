@@ -0,0 +1,179 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed inverse HP/CP lookup for a single pokemon form.
+ * <p>
+ * For every level index the index stores the HP of each stamina IV, and all 4096 IV combinations sorted by the CP
+ * they produce. Solving IVs for a (level, HP, CP) triple then becomes an HP table scan plus a binary search, instead
+ * of brute-forcing every combination. Levels are built lazily the first time they're queried, since most scans only
+ * touch a handful of them.
+ * <p>
+ * IV combinations are packed in 12 bits as {@code sta << 8 | def << 4 | att}, see {@link #pack(int, int, int)}.
+ */
+public class IVLookupIndex {
+    private static final int IV_COUNT = 16;
+    public static final int COMBINATION_COUNT = IV_COUNT * IV_COUNT * IV_COUNT;
+
+    private final int baseAttack;
+    private final int baseDefense;
+    private final int baseStamina;
+
+    /**
+     * HP for each (level index, stamina IV).
+     */
+    private final int[][] hpTable;
+    /**
+     * CP of every IV combination for each level index, sorted ascending. Null until the level is first queried.
+     */
+    private final int[][] cpTable;
+    /**
+     * Packed IV combination matching each entry of cpTable.
+     */
+    private final short[][] combinationTable;
+
+    public IVLookupIndex(int baseAttack, int baseDefense, int baseStamina) {
+        this.baseAttack = baseAttack;
+        this.baseDefense = baseDefense;
+        this.baseStamina = baseStamina;
+
+        int levelCount = Data.maxPokeLevelToIndex(Data.MAXIMUM_POKEMON_LEVEL) + 1;
+        hpTable = new int[levelCount][IV_COUNT];
+        cpTable = new int[levelCount][];
+        combinationTable = new short[levelCount][];
+
+        for (int levelIdx = 0; levelIdx < levelCount; levelIdx++) {
+            double lvlScalar = Data.getLevelCpM(Data.levelIdxToLevel(levelIdx));
+            for (int staminaIV = 0; staminaIV < IV_COUNT; staminaIV++) {
+                hpTable[levelIdx][staminaIV] = (int) Math.max(Math.floor((baseStamina + staminaIV) * lvlScalar), 10);
+            }
+        }
+    }
+
+    public static int pack(int att, int def, int sta) {
+        return sta << 8 | def << 4 | att;
+    }
+
+    public static int unpackAttack(int packed) {
+        return packed & 0xF;
+    }
+
+    public static int unpackDefense(int packed) {
+        return (packed >> 4) & 0xF;
+    }
+
+    public static int unpackStamina(int packed) {
+        return (packed >> 8) & 0xF;
+    }
+
+    /**
+     * Get the stamina IVs which produce the given HP at a level.
+     *
+     * @param levelIdx Level index, see {@link Data#maxPokeLevelToIndex(double)}
+     * @param hp       The HP to match
+     * @return A bit mask where bit n is set if stamina IV n matches the HP
+     */
+    public int getStaminaMask(int levelIdx, int hp) {
+        int[] hpForStamina = hpTable[levelIdx];
+        int mask = 0;
+        for (int staminaIV = 0; staminaIV < IV_COUNT; staminaIV++) {
+            int candidate = hpForStamina[staminaIV];
+            if (candidate == hp) {
+                mask |= 1 << staminaIV;
+            } else if (candidate > hp) {
+                break; // HP never decreases as stamina IV grows
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Write every IV combination matching a (level, HP, CP) triple into the output array.
+     * Combinations are written in ascending packed order (stamina, then defense, then attack).
+     *
+     * @param levelIdx Level index, see {@link Data#maxPokeLevelToIndex(double)}
+     * @param hp       The scanned HP
+     * @param cp       The scanned CP
+     * @param out      Destination for packed combinations; must be able to hold {@link #COMBINATION_COUNT} entries
+     * @return The amount of combinations written to out
+     */
+    public int findCombinations(int levelIdx, int hp, int cp, @NonNull short[] out) {
+        int staminaMask = getStaminaMask(levelIdx, hp);
+        if (staminaMask == 0) {
+            return 0;
+        }
+
+        int[] cps;
+        short[] combinations;
+        synchronized (this) {
+            if (cpTable[levelIdx] == null) {
+                buildLevel(levelIdx);
+            }
+            cps = cpTable[levelIdx];
+            combinations = combinationTable[levelIdx];
+        }
+
+        int count = 0;
+        for (int i = firstIndexOf(cps, cp); i < COMBINATION_COUNT && cps[i] == cp; i++) {
+            short packed = combinations[i];
+            if ((staminaMask & (1 << unpackStamina(packed))) != 0) {
+                out[count++] = packed;
+            }
+        }
+        Arrays.sort(out, 0, count);
+        return count;
+    }
+
+    /**
+     * Computes and sorts the CP of all IV combinations at a level. Uses the exact same floating point evaluation order
+     * as the brute force solver it replaces, so the results are identical.
+     */
+    private void buildLevel(int levelIdx) {
+        double lvlScalar = Data.getLevelCpM(Data.levelIdxToLevel(levelIdx));
+        double lvlScalarPow2 = Math.pow(lvlScalar, 2) * 0.1;
+
+        long[] sortable = new long[COMBINATION_COUNT];
+        for (int staminaIV = 0; staminaIV < IV_COUNT; staminaIV++) {
+            double lvlScalarStamina = Math.sqrt(baseStamina + staminaIV) * lvlScalarPow2;
+            for (int defenseIV = 0; defenseIV < IV_COUNT; defenseIV++) {
+                double defenseFactor = Math.sqrt(baseDefense + defenseIV);
+                for (int attackIV = 0; attackIV < IV_COUNT; attackIV++) {
+                    int cp = Math.max(10,
+                            (int) Math.floor((baseAttack + attackIV) * defenseFactor * lvlScalarStamina));
+                    int packed = pack(attackIV, defenseIV, staminaIV);
+                    sortable[packed] = ((long) cp << 16) | packed;
+                }
+            }
+        }
+        Arrays.sort(sortable);
+
+        int[] cps = new int[COMBINATION_COUNT];
+        short[] combinations = new short[COMBINATION_COUNT];
+        for (int i = 0; i < COMBINATION_COUNT; i++) {
+            cps[i] = (int) (sortable[i] >>> 16);
+            combinations[i] = (short) (sortable[i] & 0xFFFF);
+        }
+        cpTable[levelIdx] = cps;
+        combinationTable[levelIdx] = combinations;
+    }
+
+    /**
+     * Binary search for the first index holding a value greater or equal to the key.
+     */
+    private static int firstIndexOf(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,164 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Finds the white dot on the level arc of the pokemon screen, to estimate the pokemon level.
+ * <p>
+ * For each level, the dot is measured by walking from its point of the arc in both directions along the radius,
+ * for as long as the pixels are white. The pixels walked over only depend on the arc, so they're computed once
+ * when the detector is built: detecting the level then only reads these pixels, without any trigonometry.
+ */
+public class LevelArcDetector {
+
+    private static final int WHITE = 0xFFFFFFFF;
+
+    /**
+     * How far from the arc the dot is measured, as a fraction of the arc radius. The dot is much smaller.
+     */
+    private static final int PROBE_DISTANCE_RADIUS_DIVISOR = 8;
+
+    private final ArcGeometry arc;
+    private final int imageWidth;
+    private final int imageHeight;
+
+    /**
+     * The probes of level index i are at [probesStart[i], probesStart[i + 1]). The probe at r is the pair of pixels
+     * at a distance r from the arc, towards its center and away from it.
+     */
+    private final int[] probesStart;
+    private final int[] inwardX;
+    private final int[] inwardY;
+    private final int[] outwardX;
+    private final int[] outwardY;
+
+    /**
+     * Reads the pixels of a screenshot.
+     */
+    public interface Pixels {
+        /**
+         * @return The ARGB color of a pixel
+         */
+        int getPixel(int x, int y);
+    }
+
+    /**
+     * @param arc         The level arc
+     * @param imageWidth  The width of the screenshots
+     * @param imageHeight The height of the screenshots
+     */
+    public LevelArcDetector(@NonNull ArcGeometry arc, int imageWidth, int imageHeight) {
+        this.arc = arc;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+
+        int levelCount = arc.getLevelCount();
+        int maxDistance = arc.getRadius() / PROBE_DISTANCE_RADIUS_DIVISOR;
+        int maxProbeCount = levelCount * (maxDistance + 1);
+        int[] probesInX = new int[maxProbeCount];
+        int[] probesInY = new int[maxProbeCount];
+        int[] probesOutX = new int[maxProbeCount];
+        int[] probesOutY = new int[maxProbeCount];
+        probesStart = new int[levelCount + 1];
+        int probeCount = 0;
+        for (int level = 0; level < levelCount; level++) {
+            probesStart[level] = probeCount;
+            int x = arc.getX(level);
+            int y = arc.getY(level);
+            double angle = Math.atan2(arc.getCenterY() - y, arc.getCenterX() - x);
+            double cos = Math.cos(angle);
+            double sin = Math.sin(angle);
+            for (int r = 0; r <= maxDistance; r++) {
+                int inX = (int) Math.round(x + r * cos);
+                int inY = (int) Math.round(y + r * sin);
+                int outX = (int) Math.round(x - r * cos);
+                int outY = (int) Math.round(y - r * sin);
+                if (!isInImage(inX, inY) || !isInImage(outX, outY)) {
+                    break; // The dot can't be measured past the edge of the screen
+                }
+                probesInX[probeCount] = inX;
+                probesInY[probeCount] = inY;
+                probesOutX[probeCount] = outX;
+                probesOutY[probeCount] = outY;
+                probeCount++;
+            }
+        }
+        probesStart[levelCount] = probeCount;
+        inwardX = Arrays.copyOf(probesInX, probeCount);
+        inwardY = Arrays.copyOf(probesInY, probeCount);
+        outwardX = Arrays.copyOf(probesOutX, probeCount);
+        outwardY = Arrays.copyOf(probesOutY, probeCount);
+    }
+
+    private boolean isInImage(int x, int y) {
+        return x >= 0 && x < imageWidth && y >= 0 && y < imageHeight;
+    }
+
+    /**
+     * Whether this detector was built for an arc and a screen size, or needs to be rebuilt.
+     */
+    public boolean isBuiltFor(@NonNull ArcGeometry arc, int imageWidth, int imageHeight) {
+        return this.arc == arc && this.imageWidth == imageWidth && this.imageHeight == imageHeight;
+    }
+
+    /**
+     * Measure the white line across the arc at a level.
+     *
+     * @param pixels     The screenshot
+     * @param levelIndex The level index, see Data.maxPokeLevelToIndex()
+     * @return -1 if the arc isn't white at that level, otherwise the distance from the arc which is white in both
+     * directions along the radius.
+     */
+    public int getWhiteLineDistance(@NonNull Pixels pixels, int levelIndex) {
+        int start = probesStart[levelIndex];
+        int length = probesStart[levelIndex + 1] - start;
+        if (length == 0) {
+            return -1;
+        }
+        int r = -1;
+        int probe = start;
+        while (pixels.getPixel(inwardX[probe], inwardY[probe]) == WHITE
+                || pixels.getPixel(outwardX[probe], outwardY[probe]) == WHITE) {
+            r++;
+            if (r >= length) {
+                return -1; // Not a dot: white all the way
+            }
+            probe = start + r;
+        }
+        return r;
+    }
+
+    /**
+     * Estimate the pokemon level. The levels are measured from the highest one down, and the first level where
+     * the white line is longest is the center of the dot.
+     *
+     * @param pixels       The screenshot
+     * @param trainerLevel The trainer level, which caps the pokemon level
+     * @return The estimated pokemon level, or 1 if the dot wasn't found
+     */
+    public double detectLevel(@NonNull Pixels pixels, int trainerLevel) {
+        double maxPokemonLevel = Data.trainerLevelToMaxPokeLevel(trainerLevel);
+        double previousLevel = maxPokemonLevel + 0.5; // Initial value out of range
+        int previousDistance = -1; // Initial value indicating no found white pixels
+        for (double level = maxPokemonLevel; level >= 1.0; level -= 0.5) {
+            int index = Data.maxPokeLevelToIndex(level);
+            if (index >= probesStart.length - 1) {
+                continue; // Not on the arc of this trainer level
+            }
+            int distance = getWhiteLineDistance(pixels, index);
+
+            // If we found a lower white line distance than our last calculation, last calculation was best match.
+            // If the actual level is 1.0, we fall out to the default case below the for loop.
+            if (distance < previousDistance) {
+                return previousLevel;
+            }
+
+            // Have not passed the best match yet; store current values for next loop cycle
+            previousLevel = level;
+            previousDistance = distance;
+        }
+        return 1;
+    }
+}
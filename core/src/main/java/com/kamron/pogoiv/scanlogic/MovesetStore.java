@@ -0,0 +1,172 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.internal.LinkedTreeMap;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Holds the known movesets of every pokemon.
+ * <p>
+ * The store is empty until {@link #load(Reader, Reader, String[])} is called with the moveset list and its
+ * translations; loading them from the app assets or from disk is up to the caller.
+ */
+public class MovesetStore {
+
+    private static final Logger LOGGER = Logger.getLogger(MovesetStore.class.getName());
+
+    // This is a map that matches each pokemon number with a list of its movesets
+    private static volatile Map<Integer, LinkedHashSet<MovesetData>> movesets =
+            Collections.<Integer, LinkedHashSet<MovesetData>>emptyMap();
+
+    private MovesetStore() {
+    }
+
+    /**
+     * Get all the possible movesets for a pokemon, and their attack/ defense score.
+     *
+     * @param pokedexNumber The number of the pokemon whose movesets are requested.
+     * @return A list of all possible movesets and their attack & defense score, or null if unknown.
+     */
+    public static @Nullable LinkedHashSet<MovesetData> getMovesetsForDexNumber(int pokedexNumber) {
+        return movesets.get(pokedexNumber);
+    }
+
+    /**
+     * Parses the moveset list and replaces the content of the store with it.
+     *
+     * @param movesetsJson     The moveset list, movesets grouped by upper case english pokemon name
+     * @param translationsJson The move and type names of the user's language
+     * @param pokemonNames     The english pokemon names, indexed by pokemon number
+     */
+    public static void load(@NonNull Reader movesetsJson, @NonNull Reader translationsJson,
+                            @NonNull String[] pokemonNames) {
+        movesets = parseJson(movesetsJson, translationsJson, pokemonNames);
+    }
+
+    private static Map<Integer, LinkedHashSet<MovesetData>> parseJson(Reader movesetsJson, Reader translationsJson,
+                                                                      String[] pokemonNames) {
+        // Get upper case english names
+        ArrayList<String> enMonNamesList = new ArrayList<>();
+        for (int i = 0; i < pokemonNames.length; i++) {
+            final String upperCaseName;
+            switch (i) {
+                case 28: // Nidoran♀
+                    upperCaseName = "NIDORAN_FEMALE";
+                    break;
+                case 31: // Nidoran♂
+                    upperCaseName = "NIDORAN_MALE";
+                    break;
+                default:
+                    upperCaseName = pokemonNames[i].trim().toUpperCase();
+                    break;
+            }
+            enMonNamesList.add(upperCaseName.replaceAll("[^A-Z0-9]+", "_"));
+        }
+
+        HashMap<String, String> translatedMoveNames = new HashMap<>();
+        HashMap<String, String> translatedTypeNames = new HashMap<>();
+        parseTranslations(translationsJson, translatedMoveNames, translatedTypeNames);
+
+        // Init result object
+        HashMap<Integer, LinkedHashSet<MovesetData>> result = new HashMap<>();
+
+        // Parse all the moveset JSON
+        Gson gson = new GsonBuilder().create();
+        LinkedTreeMap<String, Object> movesetListsByMonsterName =
+                gson.fromJson(new JsonReader(movesetsJson), Object.class);
+
+        for (String monName : movesetListsByMonsterName.keySet()) {
+            String speciesName = monName;
+            if (speciesName.endsWith("_FORM")) {
+                // This is a special form of a particular species. Since we don't handle forms yet, add all the
+                // movesets to the "generic" species.
+                int underscoreIndex = speciesName.lastIndexOf("_", speciesName.length() - 6);
+                speciesName = speciesName.substring(0, underscoreIndex);
+            }
+
+            int dexIndex = enMonNamesList.indexOf(speciesName);
+            if (dexIndex < 0) {
+                LOGGER.fine("Can't find monster named " + speciesName);
+                continue;
+            }
+
+            //noinspection unchecked
+            ArrayList<LinkedTreeMap<String, Object>> jsonMovesets
+                    = (ArrayList<LinkedTreeMap<String, Object>>) movesetListsByMonsterName.get(monName);
+
+            LinkedHashSet<MovesetData> movesetList = result.get(dexIndex);
+            if (movesetList == null) {
+                movesetList = new LinkedHashSet<>(jsonMovesets.size());
+                result.put(dexIndex, movesetList);
+            }
+            // Different forms of the same species end up in the same list. The linked hash set preserve insertion
+            // order and avoid duplicates. This last statement relies on a correct implementation of
+            // MovesetData.hashCode().
+            for (LinkedTreeMap<String, Object> jsonMoveset : jsonMovesets) {
+                String fastMove = translatedMoveNames.get(jsonMoveset.get("fast"));
+                String chargeMove = translatedMoveNames.get(jsonMoveset.get("charge"));
+
+                if (Strings.isNullOrEmpty(fastMove)) {
+                    LOGGER.warning("Missing fast move " + jsonMoveset.get("fast") + " translation");
+                    continue;
+                }
+                if (Strings.isNullOrEmpty(chargeMove)) {
+                    LOGGER.warning("Missing charge move " + jsonMoveset.get("charge") + " translation");
+                    continue;
+                }
+
+                //noinspection SuspiciousMethodCalls
+                MovesetData movesetData = new MovesetData(
+                        (String) jsonMoveset.get("fast"),
+                        (String) jsonMoveset.get("charge"),
+                        fastMove,
+                        chargeMove,
+                        translatedTypeNames.get("POKEMON_TYPE_" + jsonMoveset.get("fastMoveType")),
+                        translatedTypeNames.get("POKEMON_TYPE_" + jsonMoveset.get("chargeMoveType")),
+                        (Boolean) jsonMoveset.get("fastIsLegacy"),
+                        (Boolean) jsonMoveset.get("chargeIsLegacy"),
+                        (Double) jsonMoveset.get("atkScore"),
+                        (Double) jsonMoveset.get("defScore"));
+                movesetList.add(movesetData);
+            }
+        }
+
+        return result;
+    }
+
+    private static void parseTranslations(Reader translationsJson, Map<String, String> moveNames,
+                                          Map<String, String> typeNames) {
+        Gson gson = new GsonBuilder().create();
+        LinkedTreeMap<String, Object> translations = gson.fromJson(new JsonReader(translationsJson), Object.class);
+
+        for (String attributeName : translations.keySet()) {
+            if (attributeName.equals("moves")) {
+                //noinspection unchecked
+                LinkedTreeMap<String, Object> moves = (LinkedTreeMap<String, Object>) translations.get(attributeName);
+                for (String move : moves.keySet()) {
+                    moveNames.put(move, (String) moves.get(move));
+                }
+
+            } else if (attributeName.equals("types")) {
+                //noinspection unchecked
+                LinkedTreeMap<String, Object> types = (LinkedTreeMap<String, Object>) translations.get(attributeName);
+                for (String type : types.keySet()) {
+                    typeNames.put(type, (String) types.get(type));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A BK-tree over names, to find the name closest to an OCR'd string without computing the distance to every name.
+ * Names are compared with {@link StringDistance#ocrDistance(CharSequence, CharSequence, int)}.
+ * <p>
+ * Each child hangs off its parent by its distance to it. The triangle inequality then tells which subtrees
+ * can't contain anything closer than the best match found so far, so a lookup typically only compares against a
+ * small part of the names.
+ * <p>
+ * When several names are equally close, the one added first wins, which is what a linear scan over the names in the
+ * same order would return.
+ *
+ * @param <T> The value stored for each name
+ */
+public class NameIndex<T> {
+    private Node<T> root;
+    private int size = 0;
+    /**
+     * Every node by name, so exact matches (the common case for readable names) don't walk the tree.
+     */
+    private final Map<String, Node<T>> nodesByName = new HashMap<>();
+
+    private static class Node<T> {
+        final String name;
+        final T value;
+        final int order;
+        /**
+         * Children by their distance to this node. Null until the first child is added.
+         */
+        Node<T>[] children;
+
+        Node(String name, T value, int order) {
+            this.name = name;
+            this.value = value;
+            this.order = order;
+        }
+    }
+
+    /**
+     * The closest name of a lookup.
+     */
+    public static class Match<T> {
+        public final String name;
+        public final T value;
+        /**
+         * The distance between the query and the name, in {@link StringDistance#OCR_EDIT_COST} units per edit.
+         */
+        public final int dist;
+
+        Match(String name, T value, int dist) {
+            this.name = name;
+            this.value = value;
+            this.dist = dist;
+        }
+    }
+
+    /**
+     * Creates an index of the map keys, added in the map iteration order.
+     */
+    public static <T> NameIndex<T> of(@NonNull Map<String, T> names) {
+        NameIndex<T> index = new NameIndex<>();
+        for (Map.Entry<String, T> entry : names.entrySet()) {
+            index.add(entry.getKey(), entry.getValue());
+        }
+        return index;
+    }
+
+    /**
+     * Adds a name to the index. A name that's already in the index keeps its first value.
+     */
+    public void add(@NonNull String name, T value) {
+        if (nodesByName.containsKey(name)) {
+            return;
+        }
+        Node<T> node = new Node<>(name, value, size);
+        nodesByName.put(name, node);
+        if (root == null) {
+            root = node;
+            size++;
+            return;
+        }
+
+        Node<T> current = root;
+        while (true) {
+            int dist = StringDistance.ocrDistance(current.name, name, Integer.MAX_VALUE);
+            if (current.children == null) {
+                current.children = newChildren(dist + 1);
+            } else if (current.children.length <= dist) {
+                current.children = Arrays.copyOf(current.children, dist + 1);
+            }
+            if (current.children[dist] == null) {
+                current.children[dist] = node;
+                size++;
+                return;
+            }
+            current = current.children[dist];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newChildren(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the name closest to the query.
+     *
+     * @param query The string to match
+     * @return The closest name, or null if the index is empty
+     */
+    public @Nullable Match<T> findClosest(@NonNull String query) {
+        if (root == null) {
+            return null;
+        }
+        Node<T> exact = nodesByName.get(query);
+        if (exact != null) {
+            return new Match<>(exact.name, exact.value, 0);
+        }
+
+        Node<T> best = null;
+        int bestDist = Integer.MAX_VALUE;
+        ArrayDeque<Node<T>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<T> node = pending.pop();
+            // A node further than bestDist + its longest edge is no match and has no child worth visiting
+            int maxEdge = node.children == null ? 0 : node.children.length - 1;
+            int bound = (int) Math.min((long) bestDist + maxEdge, Integer.MAX_VALUE - 1);
+            int dist = StringDistance.ocrDistance(node.name, query, bound);
+            if (dist < bestDist || (dist == bestDist && node.order < best.order)) {
+                best = node;
+                bestDist = dist;
+            }
+            if (node.children != null) {
+                // Only subtrees at a distance in [dist - bestDist, dist + bestDist] can hold a name at most as close
+                // Push the children closest to dist last, so they're visited first and tighten bestDist early
+                int maxOffset = (int) Math.min((long) bestDist, Math.max(dist, node.children.length - 1 - dist));
+                for (int offset = maxOffset; offset >= 0; offset--) {
+                    pushChild(pending, node, dist + offset);
+                    if (offset != 0) {
+                        pushChild(pending, node, dist - offset);
+                    }
+                }
+            }
+        }
+        return new Match<>(best.name, best.value, bestDist);
+    }
+
+    private static <T> void pushChild(ArrayDeque<Node<T>> pending, Node<T> node, int childDist) {
+        if (childDist >= 0 && childDist < node.children.length && node.children[childDist] != null) {
+            pending.push(node.children[childDist]);
+        }
+    }
+}
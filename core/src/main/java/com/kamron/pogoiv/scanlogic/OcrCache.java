@@ -0,0 +1,171 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Optional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers what was read from a screenshot crop, by field and by hash of the crop, so scanning the same screen again
+ * doesn't run the OCR again.
+ * <p>
+ * Values are stored parsed: numeric fields store an {@code Optional<Integer>}, absent when the crop couldn't be read,
+ * so a crop that failed once isn't OCR'd again either. Every field has its own least recently used eviction, so
+ * frequently changing fields (HP, CP) can't push out the stable ones (name, type).
+ * <p>
+ * Safe to use from several threads.
+ */
+public class OcrCache {
+
+    /**
+     * A scanned field, and the type of the value read from it.
+     */
+    public static final class Field<V> {
+        public static final Field<String> NAME = new Field<>("name", 40);
+        public static final Field<String> TYPE = new Field<>("type", 20);
+        public static final Field<String> CANDY_NAME = new Field<>("candyName", 40);
+        public static final Field<Optional<Integer>> HP = new Field<>("hp", 60);
+        public static final Field<Optional<Integer>> CANDY_AMOUNT = new Field<>("candyAmount", 40);
+        public static final Field<Optional<Integer>> EVOLUTION_COST = new Field<>("evolutionCost", 20);
+        public static final Field<Optional<Integer>> POWER_UP_CANDY_COST = new Field<>("powerUpCandyCost", 20);
+        public static final Field<Optional<Integer>> POWER_UP_STARDUST_COST =
+                new Field<>("powerUpStardustCost", 20);
+        /**
+         * The fast and charged move names, separated by a newline.
+         */
+        public static final Field<String> MOVESET = new Field<>("moveset", 20);
+
+        public final String name;
+        /**
+         * How many values of this field are kept.
+         */
+        public final int capacity;
+
+        private Field(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+
+        @Override public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Counters of a field's cache.
+     */
+    public static class Stats {
+        public final int size;
+        public final int hits;
+        public final int misses;
+        public final int evictions;
+
+        Stats(int size, int hits, int misses, int evictions) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        @Override public String toString() {
+            return size + " values, " + hits + " hits, " + misses + " misses, " + evictions + " evictions";
+        }
+    }
+
+    private static class FieldCache extends LinkedHashMap<Long, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private int hits = 0;
+        private int misses = 0;
+        private int evictions = 0;
+
+        FieldCache(int capacity) {
+            super(16, 0.75f, true); // Access order, for the LRU eviction
+            this.capacity = capacity;
+        }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+            if (size() > capacity) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final ConcurrentMap<Field<?>, FieldCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Get the value read from a crop.
+     *
+     * @param field The field the crop shows
+     * @param hash  The hash of the crop
+     * @return The value, or null if the crop wasn't read yet or was evicted
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable <V> V get(@NonNull Field<V> field, long hash) {
+        FieldCache cache = getFieldCache(field);
+        synchronized (cache) {
+            Object value = cache.get(hash);
+            if (value != null) {
+                cache.hits++;
+            } else {
+                cache.misses++;
+            }
+            return (V) value;
+        }
+    }
+
+    /**
+     * Remember the value read from a crop.
+     *
+     * @param field The field the crop shows
+     * @param hash  The hash of the crop
+     * @param value The value read
+     */
+    public <V> void put(@NonNull Field<V> field, long hash, @NonNull V value) {
+        FieldCache cache = getFieldCache(field);
+        synchronized (cache) {
+            cache.put(hash, value);
+        }
+    }
+
+    public @NonNull Stats getStats(@NonNull Field<?> field) {
+        FieldCache cache = getFieldCache(field);
+        synchronized (cache) {
+            return new Stats(cache.size(), cache.hits, cache.misses, cache.evictions);
+        }
+    }
+
+    private FieldCache getFieldCache(Field<?> field) {
+        FieldCache cache = caches.get(field);
+        if (cache == null) {
+            FieldCache newCache = new FieldCache(field.capacity);
+            cache = caches.putIfAbsent(field, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Lists the stats of every field used so far, for diagnostics.
+     */
+    @Override public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Field<?> field : caches.keySet()) {
+            if (builder.length() > 0) {
+                builder.append("; ");
+            }
+            builder.append(field).append(": ").append(getStats(field));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,208 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers on disk what was read from the crops of the fields which don't change from scan to scan of a monster
+ * (name, type and candy name), by hash of the crop, so the first scans after a restart don't run the OCR again. Unlike
+ * {@link OcrCache} it outlives the process.
+ * <p>
+ * The file is memory mapped, and records are only appended to it. Its header holds the end of the last complete
+ * record, so a record cut short by the process dying is ignored. When the file is full it's started over, which
+ * caps its size.
+ * <p>
+ * Safe to use from several threads.
+ */
+public class OcrDiskMemo implements Closeable {
+
+    /**
+     * The fields remembered, the index of a field is its id in the file.
+     */
+    private static final List<OcrCache.Field<String>> FIELDS =
+            Arrays.asList(OcrCache.Field.NAME, OcrCache.Field.TYPE, OcrCache.Field.CANDY_NAME);
+
+    private static final int MAGIC = 0x474f4956; // "GOIV"
+    /**
+     * Bump when the records change, or when the same crop would be read differently, to start the file over.
+     */
+    private static final int VERSION = 1;
+    private static final int END_POSITION = 8;
+    private static final int HEADER_SIZE = 12; // Magic, version, end of the records
+    private static final int RECORD_HEADER_SIZE = 10; // Field id, crop hash, text length
+    private static final int MAX_TEXT_BYTES = 255;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    /**
+     * The texts of every field by crop hash, indexed like FIELDS. Guarded by this.
+     */
+    private final List<Map<Long, String>> texts = new ArrayList<>(FIELDS.size());
+    private int end;
+
+    private OcrDiskMemo(RandomAccessFile file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        for (int i = 0; i < FIELDS.size(); i++) {
+            texts.add(new HashMap<Long, String>());
+        }
+    }
+
+    /**
+     * Open a memo file, creating it if it doesn't exist, and read its records.
+     *
+     * @param path     The file
+     * @param capacity The size of the file, in bytes
+     * @return The memo, to be closed when no longer used
+     * @throws IOException If the file can't be mapped
+     */
+    public static @NonNull OcrDiskMemo open(@NonNull File path, int capacity) throws IOException {
+        if (capacity < HEADER_SIZE + RECORD_HEADER_SIZE + MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("Capacity too small: " + capacity);
+        }
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            OcrDiskMemo memo = new OcrDiskMemo(file, buffer);
+            memo.load();
+            return memo;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private synchronized void load() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            reset();
+            return;
+        }
+        int recordsEnd = buffer.getInt(END_POSITION);
+        if (recordsEnd < HEADER_SIZE || recordsEnd > buffer.capacity()) {
+            reset();
+            return;
+        }
+
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= recordsEnd) {
+            int fieldId = buffer.get(position);
+            long hash = buffer.getLong(position + 1);
+            int length = buffer.get(position + 9) & 0xff;
+            int next = position + RECORD_HEADER_SIZE + length;
+            if (fieldId < 0 || fieldId >= FIELDS.size() || next > recordsEnd) {
+                break; // Not written by this version: keep what was read so far
+            }
+            byte[] bytes = new byte[length];
+            buffer.position(position + RECORD_HEADER_SIZE);
+            buffer.get(bytes);
+            texts.get(fieldId).put(hash, new String(bytes, UTF_8));
+            position = next;
+        }
+        setEnd(position);
+    }
+
+    /**
+     * Get the text read from a crop in a previous session.
+     *
+     * @param field The field the crop shows, one of name, type or candy name
+     * @param hash  The hash of the crop
+     * @return The text, or null if the crop wasn't read yet or was dropped when the file was started over
+     */
+    public synchronized @Nullable String get(@NonNull OcrCache.Field<String> field, long hash) {
+        return texts.get(getFieldId(field)).get(hash);
+    }
+
+    /**
+     * Remember the text read from a crop. Texts longer than 255 bytes in UTF-8 aren't remembered.
+     *
+     * @param field The field the crop shows, one of name, type or candy name
+     * @param hash  The hash of the crop
+     * @param text  The text read
+     */
+    public synchronized void put(@NonNull OcrCache.Field<String> field, long hash, @NonNull String text) {
+        int fieldId = getFieldId(field);
+        if (text.equals(texts.get(fieldId).get(hash))) {
+            return;
+        }
+        byte[] bytes = text.getBytes(UTF_8);
+        if (bytes.length > MAX_TEXT_BYTES) {
+            return;
+        }
+        if (end + RECORD_HEADER_SIZE + bytes.length > buffer.capacity()) {
+            reset();
+        }
+
+        buffer.put(end, (byte) fieldId);
+        buffer.putLong(end + 1, hash);
+        buffer.put(end + 9, (byte) bytes.length);
+        buffer.position(end + RECORD_HEADER_SIZE);
+        buffer.put(bytes);
+        // Only now the record is complete: make it part of the file
+        setEnd(end + RECORD_HEADER_SIZE + bytes.length);
+        texts.get(fieldId).put(hash, text);
+    }
+
+    /**
+     * How many texts are remembered.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Map<Long, String> fieldTexts : texts) {
+            size += fieldTexts.size();
+        }
+        return size;
+    }
+
+    /**
+     * Write the records to the file now, rather than when the system gets to it. Not needed for the records to
+     * survive the process; they only could be lost if the device itself goes down.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override public synchronized void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+
+    private static int getFieldId(OcrCache.Field<String> field) {
+        int fieldId = FIELDS.indexOf(field);
+        if (fieldId < 0) {
+            throw new IllegalArgumentException("Not remembered on disk: " + field);
+        }
+        return fieldId;
+    }
+
+    private void reset() {
+        for (Map<Long, String> fieldTexts : texts) {
+            fieldTexts.clear();
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        setEnd(HEADER_SIZE);
+    }
+
+    private void setEnd(int end) {
+        this.end = end;
+        buffer.putInt(END_POSITION, end);
+    }
+
+    @Override public synchronized String toString() {
+        return size() + " values, " + end + " of " + buffer.capacity() + " bytes";
+    }
+}
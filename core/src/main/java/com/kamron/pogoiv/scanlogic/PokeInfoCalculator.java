@@ -1,20 +1,16 @@
 package com.kamron.pogoiv.scanlogic;
 
 
-import android.content.Context;
-import android.content.res.Configuration;
-import android.content.res.Resources;
-import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import com.kamron.pogoiv.GoIVSettings;
-import com.kamron.pogoiv.R;
+import com.kamron.pogoiv.utils.LevelRange;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 /**
  * Created by Johan Swanberg on 2016-08-18.
@@ -40,9 +36,29 @@ public class PokeInfoCalculator {
      */
     private ArrayList<PokemonBase> candyPokemons = new ArrayList<>();
 
-    protected static synchronized @NonNull PokeInfoCalculator getInstance(@NonNull Context context) {
+    private final UpgradeCostTable upgradeCostTable;
+
+    /**
+     * Lookup indexes of the most recently scanned pokemon forms. Each fully built index takes a couple of MB, so only
+     * a few are kept around; rescans of the same species are by far the common case.
+     */
+    private static final int IV_LOOKUP_INDEX_CACHE_SIZE = 4;
+    private final Map<Pokemon, IVLookupIndex> ivLookupIndexes =
+            new LinkedHashMap<Pokemon, IVLookupIndex>(IV_LOOKUP_INDEX_CACHE_SIZE, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<Pokemon, IVLookupIndex> eldest) {
+                    return size() > IV_LOOKUP_INDEX_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Get the instance of pokeInfoCalculator, creating it from the data source if it doesn't exist yet.
+     *
+     * @param dataSource The species data; only read the first time
+     * @return the instance of PokeInfoCalculator.
+     */
+    public static synchronized @NonNull PokeInfoCalculator getInstance(@NonNull PokedexDataSource dataSource) {
         if (instance == null) {
-            instance = new PokeInfoCalculator(GoIVSettings.getInstance(context), context.getResources());
+            instance = new PokeInfoCalculator(dataSource);
         }
         return instance;
     }
@@ -59,11 +75,12 @@ public class PokeInfoCalculator {
     /**
      * Creates a pokemon info calculator with the pokemon as argument.
      *
-     * @param settings Settings instance
-     * @param res      System resources
+     * @param dataSource Source of the species data
      */
-    private PokeInfoCalculator(@NonNull GoIVSettings settings, @NonNull Resources res) {
-        populatePokemon(settings, res);
+    private PokeInfoCalculator(@NonNull PokedexDataSource dataSource) {
+        populatePokemon(dataSource);
+        upgradeCostTable = new UpgradeCostTable(dataSource.getPowerUpCandyCosts(),
+                dataSource.getPowerUpStardustCosts());
 
         // create and cache the full pokemon display name list
         ArrayList<String> pokemonNamesArray = new ArrayList<>();
@@ -127,35 +144,6 @@ public class PokeInfoCalculator {
         return get(number).getForm(formName);
     }
 
-    public static String[] getPokemonNamesArray(Resources res) {
-        if (res.getBoolean(R.bool.use_default_pokemonsname_as_ocrstring)) {
-            // If flag ON, force to use English strings as pokemon name for OCR.
-            Configuration conf = res.getConfiguration();
-            Locale originalLocale; // Save original locale
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-                originalLocale = conf.getLocales().get(0);
-            } else {
-                originalLocale = conf.locale;
-            }
-            conf.setLocale(Locale.ENGLISH);
-            res.updateConfiguration(conf, null);
-            String[] rtn = res.getStringArray(R.array.pokemon);
-            conf.setLocale(originalLocale); // Restore to original locale
-            res.updateConfiguration(conf, null);
-            return rtn;
-        }
-        return res.getStringArray(R.array.pokemon);
-    }
-
-    private static String[] getPokemonDisplayNamesArray(GoIVSettings settings, Resources res) {
-        if (settings.isShowTranslatedPokemonName()) {
-            // If pref ON, use translated strings as pokemon name.
-            return res.getStringArray(R.array.pokemon);
-        }
-        // Otherwise, use default locale's pokemon name.
-        return getPokemonNamesArray(res);
-    }
-
     /**
      * Return the full pokemon display names list, including forms.
      *
@@ -166,19 +154,24 @@ public class PokeInfoCalculator {
     }
 
     /**
-     * Fills the list "pokemon" with the information of all pokemon by reading the
-     * arrays in integers.xml and the names from the strings.xml resources.
+     * Fills the list "pokemon" with the information of all pokemon read from the data source.
      */
-    private void populatePokemon(@NonNull GoIVSettings settings, @NonNull Resources res) {
-        final String[] names = getPokemonNamesArray(res);
-        final String[] displayNames = getPokemonDisplayNamesArray(settings, res);
-        final int[] attack = res.getIntArray(R.array.attack);
-        final int[] defense = res.getIntArray(R.array.defense);
-        final int[] stamina = res.getIntArray(R.array.stamina);
-        final int[] devolution = res.getIntArray(R.array.devolutionNumber);
-        final int[] evolutionCandyCost = res.getIntArray(R.array.evolutionCandyCost);
-        final int[] candyNamesArray = res.getIntArray(R.array.candyNames);
-        final int[] formsCountIndex = res.getIntArray(R.array.formsCountIndex);
+    private void populatePokemon(@NonNull PokedexDataSource dataSource) {
+        final String[] names = dataSource.getPokemonNames();
+        final String[] displayNames = dataSource.getPokemonDisplayNames();
+        final int[] attack = dataSource.getAttack();
+        final int[] defense = dataSource.getDefense();
+        final int[] stamina = dataSource.getStamina();
+        // Patched below, so work on copies
+        final int[] devolution = dataSource.getDevolutionNumber().clone();
+        final int[] evolutionCandyCost = dataSource.getEvolutionCandyCost();
+        final int[] candyNamesArray = dataSource.getCandyNames().clone();
+        final int[] formsCountIndex = dataSource.getFormsCountIndex();
+        final int[] formsCount = dataSource.getFormsCount();
+        final String[] formNames = dataSource.getFormNames();
+        final int[] formAttack = dataSource.getFormAttack();
+        final int[] formDefense = dataSource.getFormDefense();
+        final int[] formStamina = dataSource.getFormStamina();
 
         int pokeListSize = names.length;
         ArrayList<Pokemon> formVariantPokemons = new ArrayList<>();
@@ -213,7 +206,6 @@ public class PokeInfoCalculator {
 
             //Check for different pokemon forms, such as alolan forms, and add them to the formsCount.
             if (formsCountIndex[i] != -1) {
-                int[] formsCount = res.getIntArray(R.array.formsCount);
                 int formsStartIndex = 0;
 
                 for (int j = 0; j < formsCountIndex[i]; j++) {
@@ -222,10 +214,10 @@ public class PokeInfoCalculator {
 
                 for (int j = 0; j < formsCount[formsCountIndex[i]]; j++) {
                     Pokemon formPokemon = new Pokemon(base,
-                            res.getStringArray(R.array.formNames)[formsStartIndex + j],
-                            res.getIntArray(R.array.formAttack)[formsStartIndex + j],
-                            res.getIntArray(R.array.formDefense)[formsStartIndex + j],
-                            res.getIntArray(R.array.formStamina)[formsStartIndex + j]);
+                            formNames[formsStartIndex + j],
+                            formAttack[formsStartIndex + j],
+                            formDefense[formsStartIndex + j],
+                            formStamina[formsStartIndex + j]);
                     base.forms.add(formPokemon);
                     formVariantPokemons.add(formPokemon);
                 }
@@ -249,57 +241,12 @@ public class PokeInfoCalculator {
      * @return The text that shows the amount of candy and stardust needed.
      */
     public UpgradeCost getUpgradeCost(double goalLevel, double estimatedPokemonLevel, boolean isLucky) {
-        int neededCandy = 0;
-        int neededStarDust = 0;
-        while (estimatedPokemonLevel != goalLevel) {
-            int rank = 5;
-            if ((estimatedPokemonLevel % 10) >= 1 && (estimatedPokemonLevel % 10) <= 2.5) {
-                rank = 1;
-            } else if ((estimatedPokemonLevel % 10) > 2.5 && (estimatedPokemonLevel % 10) <= 4.5) {
-                rank = 2;
-            } else if ((estimatedPokemonLevel % 10) > 4.5 && (estimatedPokemonLevel % 10) <= 6.5) {
-                rank = 3;
-            } else if ((estimatedPokemonLevel % 10) > 6.5 && (estimatedPokemonLevel % 10) <= 8.5) {
-                rank = 4;
-            }
-
-            if (estimatedPokemonLevel <= 10.5) {
-                neededCandy++;
-                neededStarDust += rank * 200;
-            } else if (estimatedPokemonLevel > 10.5 && estimatedPokemonLevel <= 20.5) {
-                neededCandy += 2;
-                neededStarDust += 1000 + (rank * 300);
-            } else if (estimatedPokemonLevel > 20.5 && estimatedPokemonLevel <= 25.5) {
-                neededCandy += 3;
-                neededStarDust += 2500 + (rank * 500);
-            } else if (estimatedPokemonLevel > 25.5 && estimatedPokemonLevel <= 30.5) {
-                neededCandy += 4;
-                neededStarDust += 2500 + (rank * 500);
-            } else if (estimatedPokemonLevel > 30.5 && estimatedPokemonLevel <= 32.5) {
-                neededCandy += 6;
-                neededStarDust += 5000 + (rank * 1000);
-            } else if (estimatedPokemonLevel > 32.5 && estimatedPokemonLevel <= 34.5) {
-                neededCandy += 8;
-                neededStarDust += 5000 + (rank * 1000);
-            } else if (estimatedPokemonLevel > 34.5 && estimatedPokemonLevel <= 36.5) {
-                neededCandy += 10;
-                neededStarDust += 5000 + (rank * 1000);
-            } else if (estimatedPokemonLevel > 36.5 && estimatedPokemonLevel <= 38.5) {
-                neededCandy += 12;
-                neededStarDust += 5000 + (rank * 1000);
-            } else if (estimatedPokemonLevel > 38.5) {
-                neededCandy += 15;
-                neededStarDust += 5000 + (rank * 1000);
-            }
-
-            estimatedPokemonLevel += 0.5;
-        }
-
-        if (isLucky) {
-            neededStarDust /= 2;
-        }
+        return upgradeCostTable.getCost(Data.maxPokeLevelToIndex(estimatedPokemonLevel),
+                Data.maxPokeLevelToIndex(goalLevel), isLucky);
+    }
 
-        return new UpgradeCost(neededStarDust, neededCandy);
+    public UpgradeCostTable getUpgradeCostTable() {
+        return upgradeCostTable;
     }
 
 
@@ -312,48 +259,83 @@ public class PokeInfoCalculator {
     public void getIVPossibilities(ScanResult scanResult) {
         scanResult.clearIVCombinations();
 
-        if (scanResult.levelRange.min == scanResult.levelRange.max) {
-            getSingleLevelIVPossibility(scanResult, scanResult.levelRange.min);
-        }
-
-        for (double i = scanResult.levelRange.min; i <= scanResult.levelRange.max; i += 0.5) {
-            getSingleLevelIVPossibility(scanResult, i);
+        IVLookupIndex index = getIVLookupIndex(scanResult.pokemon);
+        short[] matches = new short[IVLookupIndex.COMBINATION_COUNT];
+        int minLevelIdx = Data.maxPokeLevelToIndex(scanResult.levelRange.min);
+        int maxLevelIdx = Data.maxPokeLevelToIndex(scanResult.levelRange.max);
+        for (int levelIdx = minLevelIdx; levelIdx <= maxLevelIdx; levelIdx++) {
+            int count = index.findCombinations(levelIdx, scanResult.hp, scanResult.cp, matches);
+            for (int i = 0; i < count; i++) {
+                scanResult.addIVCombination(IVLookupIndex.unpackAttack(matches[i]),
+                        IVLookupIndex.unpackDefense(matches[i]), IVLookupIndex.unpackStamina(matches[i]));
+            }
         }
     }
 
     /**
-     * Calculates all the IV information that can be gained from the pokemon level, hp and cp
-     * and fills the information in an ScanResult.
+     * Narrows down the IV combinations of a scan result with a second reading of the same pokemon taken after one
+     * power up, without solving the IVs again. A combination is kept only if it matches the original reading at some
+     * level of the result's level range and the new reading at the level half a level above it.
      *
-     * @param scanResult Pokefly scan results
-     *                   many possibilities.
+     * @param scanResult The result to refine, already filled by getIVPossibilities
+     * @param poweredUpHp The HP read after the power up
+     * @param poweredUpCp The CP read after the power up
      */
-    private void getSingleLevelIVPossibility(ScanResult scanResult, double level) {
-        int baseAttack = scanResult.pokemon.baseAttack;
-        int baseDefense = scanResult.pokemon.baseDefense;
-        int baseStamina = scanResult.pokemon.baseStamina;
+    public void refineWithPowerUp(ScanResult scanResult, int poweredUpHp, int poweredUpCp) {
+        scanResult.refineWithCandidates(findPowerUpCandidates(getIVLookupIndex(scanResult.pokemon),
+                scanResult.levelRange, scanResult.hp, scanResult.cp, poweredUpHp, poweredUpCp));
+    }
 
-        double lvlScalar = Data.getLevelCpM(level);
-        double lvlScalarPow2 = Math.pow(lvlScalar, 2) * 0.1; // instead of computing again in every loop
-        //IV vars for lower and upper end cp ranges
-
-        for (int staminaIV = 0; staminaIV < 16; staminaIV++) {
-            int hp = (int) Math.max(Math.floor((baseStamina + staminaIV) * lvlScalar), 10);
-            if (hp == scanResult.hp) {
-                double lvlScalarStamina = Math.sqrt(baseStamina + staminaIV) * lvlScalarPow2;
-                for (int defenseIV = 0; defenseIV < 16; defenseIV++) {
-                    for (int attackIV = 0; attackIV < 16; attackIV++) {
-                        int cp = Math.max(10, (int) Math.floor((baseAttack + attackIV) * Math.sqrt(baseDefense
-                                + defenseIV) * lvlScalarStamina));
-                        if (cp == scanResult.cp) {
-                            scanResult.addIVCombination(attackIV, defenseIV, staminaIV);
-                        }
-                    }
+    /**
+     * Get the IV combinations matching a reading at some level of a level range, and a second reading at the level
+     * half a level above it. See refineWithPowerUp.
+     */
+    static IVCombinationSet findPowerUpCandidates(@NonNull IVLookupIndex index, @NonNull LevelRange levelRange,
+                                                  int hp, int cp, int poweredUpHp, int poweredUpCp) {
+        IVCombinationSet candidates = new IVCombinationSet();
+        short[] before = new short[IVLookupIndex.COMBINATION_COUNT];
+        short[] after = new short[IVLookupIndex.COMBINATION_COUNT];
+        int minLevelIdx = Data.maxPokeLevelToIndex(levelRange.min);
+        int maxLevelIdx = Math.min(Data.maxPokeLevelToIndex(levelRange.max),
+                Data.maxPokeLevelToIndex(Data.MAXIMUM_POKEMON_LEVEL) - 1);
+        for (int levelIdx = minLevelIdx; levelIdx <= maxLevelIdx; levelIdx++) {
+            int beforeCount = index.findCombinations(levelIdx, hp, cp, before);
+            if (beforeCount == 0) {
+                continue;
+            }
+            int afterCount = index.findCombinations(levelIdx + 1, poweredUpHp, poweredUpCp, after);
+            // Both arrays are sorted, so intersect them with a merge
+            for (int i = 0, j = 0; i < beforeCount && j < afterCount; ) {
+                if (before[i] < after[j]) {
+                    i++;
+                } else if (before[i] > after[j]) {
+                    j++;
+                } else {
+                    candidates.add(IVLookupIndex.unpackAttack(before[i]), IVLookupIndex.unpackDefense(before[i]),
+                            IVLookupIndex.unpackStamina(before[i]));
+                    i++;
+                    j++;
                 }
-            } else if (hp > scanResult.hp) {
-                break;
             }
         }
+        return candidates;
+    }
+
+    /**
+     * Get the cached inverse HP/CP lookup index of a pokemon form, building it if needed.
+     *
+     * @param pokemon The pokemon form
+     * @return The lookup index for that form
+     */
+    public IVLookupIndex getIVLookupIndex(@NonNull Pokemon pokemon) {
+        synchronized (ivLookupIndexes) {
+            IVLookupIndex index = ivLookupIndexes.get(pokemon);
+            if (index == null) {
+                index = new IVLookupIndex(pokemon.baseAttack, pokemon.baseDefense, pokemon.baseStamina);
+                ivLookupIndexes.put(pokemon, index);
+            }
+            return index;
+        }
     }
 
 
@@ -0,0 +1,80 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Source of the species data the scan logic is built from.
+ * <p>
+ * Arrays are indexed by the number the application internally uses to identify pokemon (pokedex number - 1), except
+ * the form arrays and the power up costs. Forms are stored group after group, see {@link #getFormsCountIndex()} and
+ * {@link #getFormsCount()}; power up costs are indexed by level index. Implementations may return their internal
+ * arrays; the scan logic never modifies them.
+ */
+public interface PokedexDataSource {
+
+    /**
+     * Get the pokemon names as they appear on screen, which is what OCR output is compared to.
+     */
+    @NonNull String[] getPokemonNames();
+
+    /**
+     * Get the pokemon names to show to the user.
+     */
+    @NonNull String[] getPokemonDisplayNames();
+
+    @NonNull int[] getAttack();
+
+    @NonNull int[] getDefense();
+
+    @NonNull int[] getStamina();
+
+    /**
+     * Get the number of the pokemon each pokemon evolves from, or -1 for base evolutions.
+     */
+    @NonNull int[] getDevolutionNumber();
+
+    @NonNull int[] getEvolutionCandyCost();
+
+    /**
+     * Get the number of the pokemon whose name appears on the candy of each pokemon.
+     */
+    @NonNull int[] getCandyNames();
+
+    /**
+     * Get the index in {@link #getFormsCount()} of the form group of each pokemon, or -1 if it has a single form.
+     */
+    @NonNull int[] getFormsCountIndex();
+
+    /**
+     * Get the amount of forms in each form group.
+     */
+    @NonNull int[] getFormsCount();
+
+    @NonNull String[] getFormNames();
+
+    @NonNull int[] getFormAttack();
+
+    @NonNull int[] getFormDefense();
+
+    @NonNull int[] getFormStamina();
+
+    /**
+     * Get the type names in {@link Pokemon.Type} order, as they appear on screen.
+     */
+    @NonNull String[] getTypeNames();
+
+    /**
+     * Get the word shown after the pokemon name on the candy label, for example "Candy".
+     */
+    @NonNull String getCandyWord();
+
+    /**
+     * Get the candy needed to power up a pokemon from each level index to the next one.
+     */
+    @NonNull int[] getPowerUpCandyCosts();
+
+    /**
+     * Get the stardust needed to power up a pokemon from each level index to the next one.
+     */
+    @NonNull int[] getPowerUpStardustCosts();
+}
@@ -1,13 +1,10 @@
 package com.kamron.pogoiv.scanlogic;
 
 
-import android.content.Context;
-import android.content.res.Resources;
 import android.support.annotation.NonNull;
 
 import com.google.common.base.Optional;
 
-import com.kamron.pogoiv.R;
 import com.kamron.pogoiv.utils.StringUtils;
 
 import java.util.ArrayList;
@@ -28,15 +25,16 @@ public class PokemonNameCorrector {
     private static PokemonNameCorrector instance;
     private final PokeInfoCalculator pokeInfoCalculator;
     private final Map<String, Pokemon> normalizedPokemonNameMap;
-    private final Map<String, Pokemon> normalizedCandyPokemons;
+    private final NameIndex<Pokemon> normalizedPokemonNameIndex;
+    private final NameIndex<Pokemon> normalizedCandyPokemonIndex;
     private final Map<Pokemon.Type, String> normalizedTypeNames;
-    private Resources res;
+    private final String normalizedCandyWord;
     private static String nidoFemale;
     private static String nidoMale;
     private static String nidoUngendered;
 
-    private PokemonNameCorrector(Context context) {
-        this.pokeInfoCalculator = PokeInfoCalculator.getInstance(context);
+    private PokemonNameCorrector(PokedexDataSource dataSource) {
+        this.pokeInfoCalculator = PokeInfoCalculator.getInstance(dataSource);
 
         // create and cache the pokedex pokemons collection with normalized their names as keys
         Map<String, Pokemon> pokemap = new HashMap<>();
@@ -44,7 +42,8 @@ public class PokemonNameCorrector {
             pokemap.put(StringUtils.normalize(pokemon.name), pokemon.forms.get(0));
         }
         this.normalizedPokemonNameMap = pokemap;
-        this.res = context.getResources();
+        this.normalizedPokemonNameIndex = NameIndex.of(pokemap);
+        this.normalizedCandyWord = StringUtils.normalize(dataSource.getCandyWord());
 
         nidoFemale = StringUtils.normalize(pokeInfoCalculator.get(28).name);
         nidoMale = StringUtils.normalize(pokeInfoCalculator.get(31).name);
@@ -52,21 +51,22 @@ public class PokemonNameCorrector {
 
         // create and cache the normalized pokemon type locale name
         this.normalizedTypeNames = new EnumMap<>(Pokemon.Type.class);
-        for (int i = 0; i < res.getStringArray(R.array.typeName).length; i++) {
-            this.normalizedTypeNames.put(Pokemon.Type.values()[i],
-                    StringUtils.normalize(res.getStringArray(R.array.typeName)[i]));
+        String[] typeNames = dataSource.getTypeNames();
+        for (int i = 0; i < typeNames.length; i++) {
+            this.normalizedTypeNames.put(Pokemon.Type.values()[i], StringUtils.normalize(typeNames[i]));
         }
 
         // create and cache the candy pokemons collection with normalized their names as keys
-        this.normalizedCandyPokemons = new HashMap<>();
+        Map<String, Pokemon> normalizedCandyPokemons = new HashMap<>();
         for (PokemonBase pokemon : pokeInfoCalculator.getCandyPokemons()) {
-            this.normalizedCandyPokemons.put(StringUtils.normalize(pokemon.name), pokemon.forms.get(0));
+            normalizedCandyPokemons.put(StringUtils.normalize(pokemon.name), pokemon.forms.get(0));
         }
+        this.normalizedCandyPokemonIndex = NameIndex.of(normalizedCandyPokemons);
     }
 
-    public static PokemonNameCorrector getInstance(Context context) {
+    public static PokemonNameCorrector getInstance(PokedexDataSource dataSource) {
         if (instance == null) {
-            instance = new PokemonNameCorrector(context);
+            instance = new PokemonNameCorrector(dataSource);
         }
 
         return instance;
@@ -192,7 +192,7 @@ public class PokemonNameCorrector {
 
         //7. All else failed: make a wild guess based only on closest name match
         if (guess.pokemon == null) {
-            guess = guessBestPokemonByNormalizedName(normalizedPokemonName, normalizedPokemonNameMap);
+            guess = guessBestPokemonByNormalizedName(normalizedPokemonName, normalizedPokemonNameIndex);
         }
 
 
@@ -215,11 +215,10 @@ public class PokemonNameCorrector {
     private String getNormalizedCandyName(ScanData scanData) {
         String normalizedCandyName;
         String normalizedCandyText = scanData.getNormalizedCandyName();
-        String candyWordLocale = res.getString(R.string.candy);
 
         // remove characters not included in pokemon names or candy word. (ex. white space, -, etc)
         normalizedCandyText = normalizedCandyText.replaceAll("[^\\w♂♀]", "");
-        normalizedCandyName = normalizedCandyText.replace(StringUtils.normalize(candyWordLocale), "");
+        normalizedCandyName = normalizedCandyText.replace(normalizedCandyWord, "");
         if (normalizedCandyName.contains(nidoUngendered)) {
             normalizedCandyName = getNidoranGenderName(scanData.getPokemonGender());
         }
@@ -430,7 +429,8 @@ public class PokemonNameCorrector {
 
     /**
      * A method which returns the best guess at which pokemon it is according to similarity with the name
-     * in the given pokemons collection.
+     * in the given pokemons collection. Characters OCR easily confuses count as half an edit, see
+     * StringDistance.ocrDistance.
      *
      * @param normalizedName the normalized input name to compare with
      * @param pokemons the pokemons collection with normalized their names as keys to search the normalized name into.
@@ -441,14 +441,27 @@ public class PokemonNameCorrector {
         Pokemon bestMatchPokemon = null;
         int lowestDist = Integer.MAX_VALUE;
         for (Map.Entry<String, Pokemon> trypoke : pokemons.entrySet()) {
-            int dist = Data.levenshteinDistance(trypoke.getKey(), normalizedName);
+            // Only a strictly closer name is interesting
+            int dist = StringDistance.ocrDistance(trypoke.getKey(), normalizedName, lowestDist - 1);
             if (dist < lowestDist) {
                 bestMatchPokemon = trypoke.getValue();
                 lowestDist = dist;
                 if (dist == 0) break;
             }
         }
-        return new PokeDist(bestMatchPokemon, lowestDist);
+        return new PokeDist(bestMatchPokemon, StringDistance.ocrDistanceToEdits(lowestDist));
+    }
+
+    /**
+     * Same as {@link #guessBestPokemonByNormalizedName(String, Map)}, for the prebuilt indexes of all pokemon or
+     * candy names.
+     */
+    private PokeDist guessBestPokemonByNormalizedName(String normalizedName, NameIndex<Pokemon> pokemons) {
+        NameIndex.Match<Pokemon> match = pokemons.findClosest(normalizedName);
+        if (match == null) {
+            return new PokeDist(null, Integer.MAX_VALUE);
+        }
+        return new PokeDist(match.value, StringDistance.ocrDistanceToEdits(match.dist));
     }
 
     /**
@@ -459,7 +472,7 @@ public class PokemonNameCorrector {
      * @return an evolution line which the string best matches the base evolution pokemon name
      */
     private ArrayList<Pokemon> getBestGuessForEvolutionLine(String input) {
-        PokeDist bestMatch = guessBestPokemonByNormalizedName(input, normalizedCandyPokemons);
+        PokeDist bestMatch = guessBestPokemonByNormalizedName(input, normalizedCandyPokemonIndex);
         return pokeInfoCalculator.getEvolutionForms(bestMatch.pokemon);
     }
 
@@ -0,0 +1,446 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.kamron.pogoiv.utils.LevelRange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * A class which represents all possible iv combinations for a pokemon.
+ * An object contains:
+ * count - the amount of IV combinations the pokemon has
+ * highpercent: Best case iv%
+ * cp: the cp scanned from the image
+ * getIVPercentAvg: returns the average IV% of all alternativs
+ * ivPercentLow: worst case IV%
+ * low attack,defence,stamina - the value for the IV stat where the lowest % was found
+ * high attack,defence,stamina - the value for hte IV stat where the highest % was found
+ * <p>
+ * The ivscanresult object has evolved (bloated) to incluide several other things not needed to calculate the ivs,
+ * which are used by other methods, such as the scanned hp and an identifier for the pokemon.
+ * <p/>
+ * Created by Johan on 2016-08-18.
+ */
+public class ScanResult {
+    public Pokemon pokemon;
+    public Pokemon.Gender gender;
+    public final LevelRange levelRange;
+    public final int cp;
+    public int hp;
+    public boolean isLucky;
+    private ArrayList<MovesetData> movesets;
+    public MovesetData selectedMoveset;
+    private final IVCombinationSet iVCombinations = new IVCombinationSet();
+    public IVCombination selectedIVCombination;
+    private boolean hasBeenAppraiseRefined = false;
+    /**
+     * Whether the combinations were narrowed down by appraisal, lucky or power up information. The low and high stat
+     * getters then report the bounds of each stat, otherwise the stats of the worst and best combinations.
+     */
+    private boolean refined = false;
+    /**
+     * The combinations picked from iVCombinations by getBestCombination(), getWorstCombination(),
+     * getHighestIVCombination() and getLowestIVCombination(), null until asked for. Each takes a pass over the
+     * combinations: they're kept until the combinations change.
+     */
+    private IVCombination bestCombination;
+    private IVCombination worstCombination;
+    private IVCombination highestTotalCombination;
+    private IVCombination lowestTotalCombination;
+
+    private static final int LUCKY_MIN_IV = 12;
+
+    public ScanResult(@NonNull PokemonNameCorrector corrector, @NonNull ScanData scanData) {
+        this(corrector.getPossiblePokemon(scanData).pokemon, scanData);
+        if (scanData.getPokemon() != null){
+            //user manually input pokemon, override calculated from scan data pokemon
+            pokemon = scanData.getPokemon();
+        }
+    }
+
+    /**
+     * Creates a holder object for IV scan results.
+     *
+     * @param pokemon  Which pokemon it is
+     * @param scanData The OCR results
+     */
+    public ScanResult(@NonNull Pokemon pokemon, @NonNull ScanData scanData) {
+        this.pokemon = pokemon;
+        this.levelRange = scanData.getEstimatedPokemonLevel();
+        this.hp = scanData.getPokemonHP().get();
+        this.cp = scanData.getPokemonCP().get();
+        this.gender = scanData.getPokemonGender();
+        this.isLucky = scanData.getIsLucky();
+
+        LinkedHashSet<MovesetData> m;
+        try {
+            m = MovesetStore.getMovesetsForDexNumber(pokemon.number);
+        } catch (NullPointerException e) {
+            m = null;
+        }
+
+        if (m != null) {
+            this.movesets = new ArrayList<>(m);
+            if (scanData.getFastMove() != null && scanData.getChargeMove() != null) {
+                // Detect the best matching moveset with the moves names Pokefly OCR'd
+                selectScannedMoveset(scanData.getFastMove(), scanData.getChargeMove());
+            }
+        } else {
+            this.movesets = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Creates a snapshot of another result, including its IV combinations. The level range is copied, so later changes
+     * to the original's level range don't affect the snapshot.
+     *
+     * @param other The result to copy
+     */
+    public ScanResult(@NonNull ScanResult other) {
+        this.pokemon = other.pokemon;
+        this.gender = other.gender;
+        this.levelRange = new LevelRange(other.levelRange.min, other.levelRange.max);
+        this.cp = other.cp;
+        this.hp = other.hp;
+        this.isLucky = other.isLucky;
+        this.movesets = new ArrayList<>(other.movesets);
+        this.selectedMoveset = other.selectedMoveset;
+        this.iVCombinations.copyFrom(other.iVCombinations);
+        this.selectedIVCombination = other.selectedIVCombination;
+        this.hasBeenAppraiseRefined = other.hasBeenAppraiseRefined;
+        this.refined = other.refined;
+    }
+
+    public List<IVCombination> getIVCombinations() {
+        return iVCombinations.asList();
+    }
+
+    public IVCombination getIVCombinationAt(int position) {
+        if (selectedIVCombination != null) {
+            if (position != 0) {
+                throw new IndexOutOfBoundsException();
+            }
+            return selectedIVCombination;
+        }
+        return iVCombinations.get(position);
+    }
+
+    public int getIVCombinationsCount() {
+        if (selectedIVCombination != null) {
+            return 1;
+        } else {
+            return iVCombinations.size();
+        }
+    }
+
+    /**
+     * Calculates and returns the average % of the possible IVs.
+     */
+    public int getIVPercentAvg() {
+        if (selectedIVCombination != null) {
+            return Math.round(selectedIVCombination.getTotal() * 100f / 45f);
+        }
+        return Math.round(iVCombinations.getTotalSum() * 100f / (45f * iVCombinations.size()));
+    }
+
+    public int getIVAttackLow() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination.att;
+        }
+        if (!refined) {
+            return getWorstCombination().att;
+        }
+        return iVCombinations.getLowestAttack();
+    }
+
+    public int getIVAttackHigh() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination.att;
+        }
+        if (!refined) {
+            return getBestCombination().att;
+        }
+        return iVCombinations.getHighestAttack();
+    }
+
+    public int getIVDefenseLow() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination.def;
+        }
+        if (!refined) {
+            return getWorstCombination().def;
+        }
+        return iVCombinations.getLowestDefense();
+    }
+
+    public int getIVDefenseHigh() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination.def;
+        }
+        if (!refined) {
+            return getBestCombination().def;
+        }
+        return iVCombinations.getHighestDefense();
+    }
+
+    public int getIVStaminaLow() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination.sta;
+        }
+        if (!refined) {
+            return getWorstCombination().sta;
+        }
+        return iVCombinations.getLowestStamina();
+    }
+
+    public int getIVStaminaHigh() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination.sta;
+        }
+        if (!refined) {
+            return getBestCombination().sta;
+        }
+        return iVCombinations.getHighestStamina();
+    }
+
+    public boolean getHasBeenAppraised() {
+        return hasBeenAppraiseRefined;
+    }
+
+
+
+    public void sortIVCombinations() {
+        iVCombinations.sort();
+        onIVCombinationsChanged(); // The order breaks the ties of getHighestIVCombination and getLowestIVCombination
+    }
+
+    /**
+     * Adds an IV possibility to the scan results.
+     *
+     * @param attackIV  the attack iv
+     * @param defenseIV the defense iv
+     * @param staminaIV the stamina iv
+     */
+    public void addIVCombination(int attackIV, int defenseIV, int staminaIV) {
+        iVCombinations.add(attackIV, defenseIV, staminaIV);
+        onIVCombinationsChanged();
+    }
+
+    public void clearIVCombinations() {
+        selectedIVCombination = null;
+        refined = false;
+        iVCombinations.clear();
+        onIVCombinationsChanged();
+    }
+
+    /**
+     * Replaces the IV combinations of this result with the ones of another result, typically an unrefined solution of
+     * the same reading, so they can be refined again without solving the IVs from scratch.
+     */
+    public void copyIVCombinationsFrom(@NonNull ScanResult other) {
+        selectedIVCombination = null;
+        refined = other.refined;
+        iVCombinations.copyFrom(other.iVCombinations);
+        onIVCombinationsChanged();
+    }
+
+    /**
+     * Forgets the combinations picked from the previous combinations.
+     */
+    private void onIVCombinationsChanged() {
+        bestCombination = null;
+        worstCombination = null;
+        highestTotalCombination = null;
+        lowestTotalCombination = null;
+    }
+
+    /**
+     * Check whether this result was computed from the same pokemon, HP, CP and level range as another one, and
+     * therefore has the same unrefined IV combinations.
+     */
+    public boolean hasSameReadingAs(@NonNull ScanResult other) {
+        return pokemon == other.pokemon
+                && hp == other.hp
+                && cp == other.cp
+                && levelRange.min == other.levelRange.min
+                && levelRange.max == other.levelRange.max;
+    }
+
+    /**
+     * Get the IV combination which has the highest sum of att+def+sta, or tied to equal.
+     */
+    public @Nullable IVCombination getHighestIVCombination() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination;
+        }
+        if (iVCombinations.size() == 0) {
+            return null;
+        }
+        if (highestTotalCombination == null) {
+            highestTotalCombination = Collections.max(iVCombinations.asList(), IVCombination.totalComparator);
+        }
+        return highestTotalCombination;
+    }
+
+    /**
+     * Get the IV combination which has the lowest sum of att+def+sta, or tied to equal.
+     */
+    public @Nullable IVCombination getLowestIVCombination() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination;
+        }
+        if (iVCombinations.size() == 0) {
+            return null;
+        }
+        if (lowestTotalCombination == null) {
+            lowestTotalCombination = Collections.min(iVCombinations.asList(), IVCombination.totalComparator);
+        }
+        return lowestTotalCombination;
+    }
+
+    /**
+     * Get IVCombination of highest IVs. Until the combinations are refined, this is the best possible combination;
+     * afterwards it's made of the highest value of each stat, and is probably not a combination of possible IVs. See
+     * getHighestIVCombination() for the combination with the highest total.
+     */
+    public IVCombination getCombinationHighIVs() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination;
+        }
+        if (!refined) {
+            return getBestCombination();
+        }
+        return IVCombination.of(iVCombinations.getHighestAttack(), iVCombinations.getHighestDefense(),
+                iVCombinations.getHighestStamina());
+    }
+
+    /**
+     * Get IVCombination of lowest IVs. Until the combinations are refined, this is the worst possible combination;
+     * afterwards it's made of the lowest value of each stat, and is probably not a combination of possible IVs. See
+     * getLowestIVCombination() for the combination with the lowest total.
+     */
+    public IVCombination getCombinationLowIVs() {
+        if (selectedIVCombination != null) {
+            return selectedIVCombination;
+        }
+        if (!refined) {
+            return getWorstCombination();
+        }
+        return IVCombination.of(iVCombinations.getLowestAttack(), iVCombinations.getLowestDefense(),
+                iVCombinations.getLowestStamina());
+    }
+
+    /**
+     * Get the possible combination with the highest total, and the highest attack among those. 0/0/0 if there's none.
+     */
+    private IVCombination getBestCombination() {
+        if (bestCombination == null) {
+            bestCombination = findCombination(true);
+        }
+        return bestCombination;
+    }
+
+    /**
+     * Get the possible combination with the lowest total, and the lowest attack among those. 15/15/15 if there's none.
+     */
+    private IVCombination getWorstCombination() {
+        if (worstCombination == null) {
+            worstCombination = findCombination(false);
+        }
+        return worstCombination;
+    }
+
+    private IVCombination findCombination(boolean best) {
+        if (iVCombinations.isEmpty()) {
+            return best ? IVCombination.MIN : IVCombination.MAX;
+        }
+        int total = best ? iVCombinations.getHighestTotal() : iVCombinations.getLowestTotal();
+        int found = -1;
+        int foundAtt = 0;
+        int foundSta = 0;
+        for (int i = 0; i < iVCombinations.size(); i++) {
+            int key = iVCombinations.getPacked(i);
+            int att = IVLookupIndex.unpackAttack(key);
+            int sta = IVLookupIndex.unpackStamina(key);
+            if (att + IVLookupIndex.unpackDefense(key) + sta != total) {
+                continue;
+            }
+            // Ties on the attack go to the lowest stamina, the first combination the solver adds
+            if (found < 0 || (best ? att > foundAtt : att < foundAtt) || (att == foundAtt && sta < foundSta)) {
+                found = key;
+                foundAtt = att;
+                foundSta = sta;
+            }
+        }
+        return IVCombination.of(foundAtt, IVLookupIndex.unpackDefense(found), foundSta);
+    }
+
+
+    /**
+     * Removes the combinations which don't match the available appraisal information.
+     *
+     * @param appraisal Accepts the combinations matching the appraisal, see AppraisalManager
+     */
+    public void refineWithAvailableInfoFrom(@NonNull IVCombinationSet.Filter appraisal) {
+        iVCombinations.retain(appraisal);
+        refined = true;
+        onIVCombinationsChanged();
+
+        //Check if any appraisal has been done or if appraisal is uneccesary for the clipboard token.
+        hasBeenAppraiseRefined = iVCombinations.size() == 1;
+    }
+
+    /**
+     * Removes the combinations a lucky pokemon can't have. Lucky pokemon always have at least 12 in each stat.
+     */
+    public void refineWithLuckyFloor() {
+        isLucky = true;
+        refined = true;
+        iVCombinations.retain(new IVCombinationSet.Filter() {
+            @Override public boolean accept(int att, int def, int sta) {
+                return att >= LUCKY_MIN_IV && def >= LUCKY_MIN_IV && sta >= LUCKY_MIN_IV;
+            }
+        });
+        onIVCombinationsChanged();
+        hasBeenAppraiseRefined = iVCombinations.size() == 1;
+    }
+
+    /**
+     * Removes every combination which isn't in the given set of candidates, for example the candidates computed from
+     * a second reading of the same pokemon. See PokeInfoCalculator.refineWithPowerUp.
+     *
+     * @param candidates The combinations which are still possible
+     */
+    public void refineWithCandidates(@NonNull IVCombinationSet candidates) {
+        iVCombinations.retainAll(candidates);
+        refined = true;
+        onIVCombinationsChanged();
+        hasBeenAppraiseRefined = iVCombinations.size() == 1;
+    }
+
+    private void selectScannedMoveset(@NonNull String moveFast, @NonNull String moveCharge) {
+        int bestDistance = Integer.MAX_VALUE;
+        String fast = moveFast.toLowerCase();
+        String charge = moveCharge.toLowerCase();
+        for (MovesetData moveset : movesets) {
+            // (fast + 1) * (charge + 1) must stay below bestDistance, and each factor is at least 1
+            int fastDistance = StringDistance.levenshtein(fast, moveset.getFast().toLowerCase(), bestDistance - 2);
+            if (fastDistance > bestDistance - 2) {
+                continue;
+            }
+            int chargeDistance = StringDistance.levenshtein(charge, moveset.getCharge().toLowerCase(),
+                    (bestDistance - 1) / (fastDistance + 1) - 1);
+            int combinedDistance = (fastDistance + 1) * (chargeDistance + 1);
+            if (combinedDistance < bestDistance) {
+                selectedMoveset = moveset;
+                bestDistance = combinedDistance;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Tells which screen of the game a screenshot shows, from the colors of a few points.
+ * <p>
+ * Every kind of screen has a fingerprint: points and the color each of them is expected to have. The colors of all
+ * the points are read at once, then each fingerprint is scored by the share of its points whose color is within a
+ * tolerance of the expected one. A few pixels off because of night mode, HDR or a color profile lower the
+ * confidence instead of failing the detection.
+ */
+public class ScreenClassifier {
+
+    public enum Screen {
+        /**
+         * The detail screen of a pokemon, with its info card.
+         */
+        POKEMON,
+        /**
+         * The appraisal speech bubble over the pokemon screen.
+         */
+        APPRAISAL
+    }
+
+    /**
+     * A point of a screen, and the color it's expected to have on that screen.
+     */
+    public static class Marker {
+        public final Screen screen;
+        public final int x;
+        public final int y;
+        public final int color;
+
+        public Marker(@NonNull Screen screen, int x, int y, int color) {
+            this.screen = screen;
+            this.x = x;
+            this.y = y;
+            this.color = color;
+        }
+    }
+
+    public static class Result {
+        /**
+         * The screen matching best, or null if no marker matched at all.
+         */
+        public final @Nullable Screen screen;
+        /**
+         * The share of the markers of that screen which matched, in [0, 1].
+         */
+        public final float confidence;
+
+        Result(@Nullable Screen screen, float confidence) {
+            this.screen = screen;
+            this.confidence = confidence;
+        }
+
+        /**
+         * Whether the screenshot shows a screen, confidently enough.
+         */
+        public boolean is(@NonNull Screen screen, float minConfidence) {
+            return this.screen == screen && confidence >= minConfidence;
+        }
+
+        @Override public String toString() {
+            return screen + " (" + confidence + ")";
+        }
+    }
+
+    private final Marker[] markers;
+    private final int tolerance;
+
+    /**
+     * @param markers   The markers of every screen
+     * @param tolerance How far from its expected color each of the R, G and B channels of a marker may be
+     */
+    public ScreenClassifier(@NonNull List<Marker> markers, int tolerance) {
+        this.markers = markers.toArray(new Marker[markers.size()]);
+        this.tolerance = tolerance;
+    }
+
+    public int getMarkerCount() {
+        return markers.length;
+    }
+
+    public @NonNull Marker getMarker(int index) {
+        return markers[index];
+    }
+
+    /**
+     * Score every screen.
+     *
+     * @param colors The ARGB color of each marker of the screenshot, in the order of the markers
+     * @return The screen matching best, with its confidence
+     */
+    public @NonNull Result classify(@NonNull int[] colors) {
+        Screen[] screens = Screen.values();
+        int[] matches = new int[screens.length];
+        int[] totals = new int[screens.length];
+        for (int i = 0; i < markers.length; i++) {
+            Marker marker = markers[i];
+            totals[marker.screen.ordinal()]++;
+            if (isInTolerance(colors[i], marker.color)) {
+                matches[marker.screen.ordinal()]++;
+            }
+        }
+
+        Screen bestScreen = null;
+        float bestConfidence = 0;
+        for (Screen screen : screens) {
+            int total = totals[screen.ordinal()];
+            if (total > 0) {
+                float confidence = matches[screen.ordinal()] / (float) total;
+                if (confidence > bestConfidence) {
+                    bestScreen = screen;
+                    bestConfidence = confidence;
+                }
+            }
+        }
+        return new Result(bestScreen, bestConfidence);
+    }
+
+    private boolean isInTolerance(int color, int expectedColor) {
+        return Math.abs(((color >> 16) & 0xFF) - ((expectedColor >> 16) & 0xFF)) <= tolerance
+                && Math.abs(((color >> 8) & 0xFF) - ((expectedColor >> 8) & 0xFF)) <= tolerance
+                && Math.abs((color & 0xFF) - (expectedColor & 0xFF)) <= tolerance;
+    }
+}
@@ -0,0 +1,164 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Edit distances between OCR'd text and known names.
+ * <p>
+ * All distances can be bounded: once every cell of a row of the distance matrix is above the bound, the strings can't
+ * get any closer, so the computation stops there. Callers looking for the closest of many names pass the best distance
+ * found so far and skip most of the work for the bad candidates. The matrix rows are per thread scratch buffers, so
+ * computing a distance doesn't allocate.
+ */
+public class StringDistance {
+
+    /**
+     * The cost of a full edit in {@link #ocrDistance(CharSequence, CharSequence, int)}.
+     */
+    public static final int OCR_EDIT_COST = 2;
+    /**
+     * The cost of replacing a character by one OCR often mistakes it for, see {@link #OCR_CLASSES}.
+     */
+    private static final int OCR_CONFUSION_COST = 1;
+
+    /**
+     * Groups the characters OCR tends to confuse with each other, by character. 0 for characters that aren't easily
+     * confused with another one.
+     */
+    private static final byte[] OCR_CLASSES = new byte[128];
+
+    static {
+        String[] groups = {"liI1|", "oO0", "sS5", "bB8", "zZ2"};
+        for (int group = 0; group < groups.length; group++) {
+            for (char c : groups[group].toCharArray()) {
+                OCR_CLASSES[c] = (byte) (group + 1);
+            }
+        }
+    }
+
+    private static final ThreadLocal<int[][]> rows = new ThreadLocal<int[][]>() {
+        @Override protected int[][] initialValue() {
+            return new int[2][32];
+        }
+    };
+
+    private StringDistance() {
+    }
+
+    /**
+     * Get the Levenshtein distance between two strings: the amount of single character insertions, deletions and
+     * replacements which turn one into the other.
+     *
+     * @return The distance, or Integer.MAX_VALUE if rhs is null
+     */
+    public static int levenshtein(@NonNull CharSequence lhs, CharSequence rhs) {
+        return levenshtein(lhs, rhs, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the Levenshtein distance between two strings, if it's at most maxDistance.
+     *
+     * @param maxDistance The highest distance the caller is interested in
+     * @return The distance if it's at most maxDistance, maxDistance + 1 otherwise, or Integer.MAX_VALUE if rhs is null
+     */
+    public static int levenshtein(@NonNull CharSequence lhs, CharSequence rhs, int maxDistance) {
+        if (rhs == null) {
+            return Integer.MAX_VALUE;
+        }
+        return distance(lhs, rhs, maxDistance, false);
+    }
+
+    /**
+     * Get the edit distance between two strings, where replacing a character by one OCR easily mistakes it for (l, i
+     * and 1, o and 0, s and 5, b and 8, z and 2) costs half an edit. Distances are in {@link #OCR_EDIT_COST} units
+     * per edit. Like the Levenshtein distance, this is a metric, so it can be used to build a {@link NameIndex}.
+     *
+     * @param maxDistance The highest distance the caller is interested in
+     * @return The distance if it's at most maxDistance, maxDistance + 1 otherwise, or Integer.MAX_VALUE if rhs is null
+     */
+    public static int ocrDistance(@NonNull CharSequence lhs, CharSequence rhs, int maxDistance) {
+        if (rhs == null) {
+            return Integer.MAX_VALUE;
+        }
+        return distance(lhs, rhs, maxDistance, true);
+    }
+
+    /**
+     * Convert an {@link #ocrDistance(CharSequence, CharSequence, int)} result to a number of edits, rounding half
+     * edits up.
+     */
+    public static int ocrDistanceToEdits(int ocrDistance) {
+        if (ocrDistance == Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (ocrDistance + OCR_EDIT_COST - 1) / OCR_EDIT_COST;
+    }
+
+    private static int distance(CharSequence lhs, CharSequence rhs, int maxDistance, boolean ocrWeighted) {
+        int editCost = ocrWeighted ? OCR_EDIT_COST : 1;
+        int len0 = lhs.length() + 1;
+        int len1 = rhs.length() + 1;
+        if ((long) Math.abs(len0 - len1) * editCost > maxDistance) {
+            return maxDistance + 1; // Even the length difference alone costs too much
+        }
+
+        int[][] buffers = rows.get();
+        if (buffers[0].length < len0) {
+            buffers = new int[2][Math.max(len0, buffers[0].length * 2)];
+            rows.set(buffers);
+        }
+        int[] cost = buffers[0];
+        int[] newcost = buffers[1];
+
+        // initial cost of skipping prefix in String s0
+        for (int i = 0; i < len0; i++) {
+            cost[i] = i * editCost;
+        }
+
+        // transformation cost for each letter in s1
+        for (int j = 1; j < len1; j++) {
+            // initial cost of skipping prefix in String s1
+            newcost[0] = j * editCost;
+            int rowMin = newcost[0];
+            char rhsChar = rhs.charAt(j - 1);
+            int rhsClass = ocrWeighted ? ocrClass(rhsChar) : 0;
+
+            // transformation cost for each letter in s0
+            for (int i = 1; i < len0; i++) {
+                char lhsChar = lhs.charAt(i - 1);
+                int match;
+                if (lhsChar == rhsChar) {
+                    match = 0;
+                } else if (rhsClass != 0 && ocrClass(lhsChar) == rhsClass) {
+                    match = OCR_CONFUSION_COST;
+                } else {
+                    match = editCost;
+                }
+
+                // keep minimum cost of replace, insert and delete
+                int value = Math.min(Math.min(cost[i] + editCost, newcost[i - 1] + editCost), cost[i - 1] + match);
+                newcost[i] = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+
+            if (rowMin > maxDistance) {
+                return maxDistance + 1; // Every path through this row already costs too much
+            }
+
+            // swap cost/newcost arrays
+            int[] swap = cost;
+            cost = newcost;
+            newcost = swap;
+        }
+
+        // the distance is the cost for transforming all letters in both strings
+        int distance = cost[len0 - 1];
+        return distance > maxDistance ? maxDistance + 1 : distance;
+    }
+
+    private static int ocrClass(char c) {
+        return c < OCR_CLASSES.length ? OCR_CLASSES[c] : 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.kamron.pogoiv.scanlogic;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Candy and stardust needed to power up a pokemon between any two levels.
+ * <p>
+ * Built from the cost of each single power up, and stored as running totals per level index, so the cost between two
+ * levels is the difference of two entries. The table covers as many levels as the cost data does, so a higher level
+ * cap only needs more data.
+ */
+public class UpgradeCostTable {
+    /**
+     * Total candy / stardust to power up from level index 0 to each level index.
+     */
+    private final int[] candyTotals;
+    private final int[] stardustTotals;
+    private final int[] luckyStardustTotals;
+
+    /**
+     * Creates a table from the cost of each single power up.
+     *
+     * @param candyCosts    Candy to power up from each level index to the next one
+     * @param stardustCosts Stardust to power up from each level index to the next one. Lucky pokemon pay half.
+     */
+    public UpgradeCostTable(@NonNull int[] candyCosts, @NonNull int[] stardustCosts) {
+        if (candyCosts.length != stardustCosts.length) {
+            throw new IllegalArgumentException("Candy and stardust costs must cover the same levels");
+        }
+        int levelCount = candyCosts.length + 1;
+        candyTotals = new int[levelCount];
+        stardustTotals = new int[levelCount];
+        luckyStardustTotals = new int[levelCount];
+        for (int levelIdx = 1; levelIdx < levelCount; levelIdx++) {
+            candyTotals[levelIdx] = candyTotals[levelIdx - 1] + candyCosts[levelIdx - 1];
+            stardustTotals[levelIdx] = stardustTotals[levelIdx - 1] + stardustCosts[levelIdx - 1];
+            luckyStardustTotals[levelIdx] = luckyStardustTotals[levelIdx - 1] + stardustCosts[levelIdx - 1] / 2;
+        }
+    }
+
+    /**
+     * Get the highest level index the table knows the cost to reach.
+     */
+    public int getMaxLevelIdx() {
+        return candyTotals.length - 1;
+    }
+
+    /**
+     * Get the cost to power up a pokemon between two levels. Levels outside the table are clamped to it, and nothing
+     * is needed to reach a level the pokemon already has.
+     *
+     * @param fromLevelIdx Current level index of the pokemon, see {@link Data#maxPokeLevelToIndex(double)}
+     * @param toLevelIdx   Level index to reach
+     * @param isLucky      Whether the pokemon is lucky, therefore costs one half normal dust
+     * @return The candy and stardust needed.
+     */
+    public UpgradeCost getCost(int fromLevelIdx, int toLevelIdx, boolean isLucky) {
+        int from = clamp(fromLevelIdx);
+        int to = clamp(toLevelIdx);
+        if (to <= from) {
+            return new UpgradeCost(0, 0);
+        }
+        int[] stardustTotals = isLucky ? luckyStardustTotals : this.stardustTotals;
+        return new UpgradeCost(stardustTotals[to] - stardustTotals[from], candyTotals[to] - candyTotals[from]);
+    }
+
+    /**
+     * Get the candy needed by a single power up.
+     *
+     * @param levelIdx Level index to power up from
+     * @return The candy needed to reach the next level index, 0 from the highest level index of the table.
+     */
+    public int getCandyCost(int levelIdx) {
+        return candyTotals[clamp(levelIdx + 1)] - candyTotals[clamp(levelIdx)];
+    }
+
+    /**
+     * Check whether a single power up costs this much candy at some level, for example to validate a scanned cost.
+     */
+    public boolean isCandyCost(int candy) {
+        for (int levelIdx = 0; levelIdx < candyTotals.length - 1; levelIdx++) {
+            int currentCost = getCandyCost(levelIdx);
+            if (currentCost == candy) {
+                return true;
+            } else if (currentCost > candy) {
+                break; // Costs are ascending ordered. There won't be a cost equal to the input in the array.
+            }
+        }
+        return false;
+    }
+
+    private int clamp(int levelIdx) {
+        return Math.max(0, Math.min(levelIdx, candyTotals.length - 1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.kamron.pogoiv.utils;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Sorts the pixels of an image by which of a few target colors they're close to, in a single pass. Each target
+ * color gives a binarized mask of the image, and how many pixels are in it.
+ * <p>
+ * A pixel belongs to the first target color within its distance, so targets should be far enough apart not to
+ * overlap.
+ */
+public class ColorClassifier {
+
+    /**
+     * The class of a pixel which isn't close to any target color.
+     */
+    public static final int NONE = -1;
+
+    private final int[] targetReds;
+    private final int[] targetGreens;
+    private final int[] targetBlues;
+    private final int[] distancesSq;
+
+    /**
+     * @param targetColors The RGB colors to look for, the alpha channel is ignored
+     * @param distances    For each target color, how far from it in RGB space a pixel may be to belong to it
+     */
+    public ColorClassifier(@NonNull int[] targetColors, @NonNull int[] distances) {
+        if (targetColors.length != distances.length) {
+            throw new IllegalArgumentException("Expected a distance for each of the " + targetColors.length
+                    + " target colors, got " + distances.length);
+        }
+        targetReds = new int[targetColors.length];
+        targetGreens = new int[targetColors.length];
+        targetBlues = new int[targetColors.length];
+        distancesSq = new int[targetColors.length];
+        for (int i = 0; i < targetColors.length; i++) {
+            targetReds[i] = (targetColors[i] >> 16) & 0xFF;
+            targetGreens[i] = (targetColors[i] >> 8) & 0xFF;
+            targetBlues[i] = targetColors[i] & 0xFF;
+            distancesSq[i] = distances[i] * distances[i];
+        }
+    }
+
+    public int getTargetCount() {
+        return distancesSq.length;
+    }
+
+    /**
+     * Classify pixels.
+     *
+     * @param pixels  The ARGB pixels, as returned by Bitmap.getPixels()
+     * @param length  How many pixels to classify, from the first one
+     * @param classes Receives the index of the target color of each pixel, or {@link #NONE}
+     * @param counts  Receives how many pixels belong to each target color, at least {@link #getTargetCount()} long
+     */
+    public void classify(@NonNull int[] pixels, int length, @NonNull int[] classes, @NonNull int[] counts) {
+        int targetCount = distancesSq.length;
+        for (int t = 0; t < targetCount; t++) {
+            counts[t] = 0;
+        }
+
+        int lastPixel = 0;
+        int lastClass = NONE;
+        boolean hasLast = false;
+        for (int i = 0; i < length; i++) {
+            int pixel = pixels[i];
+            // Text crops are mostly runs of background: don't do the math again for the same color
+            if (!hasLast || pixel != lastPixel) {
+                int red = (pixel >> 16) & 0xFF;
+                int green = (pixel >> 8) & 0xFF;
+                int blue = pixel & 0xFF;
+                lastClass = NONE;
+                for (int t = 0; t < targetCount; t++) {
+                    int rDiff = targetReds[t] - red;
+                    int gDiff = targetGreens[t] - green;
+                    int bDiff = targetBlues[t] - blue;
+                    if (rDiff * rDiff + gDiff * gDiff + bDiff * bDiff <= distancesSq[t]) {
+                        lastClass = t;
+                        break;
+                    }
+                }
+                lastPixel = pixel;
+                hasLast = true;
+            }
+            classes[i] = lastClass;
+            if (lastClass != NONE) {
+                counts[lastClass]++;
+            }
+        }
+    }
+
+    /**
+     * Count how many classified pixels of a range belong to a target color.
+     *
+     * @param classes     The classes written by {@link #classify(int[], int, int[], int[])}
+     * @param offset      The index of the first pixel to count
+     * @param length      How many pixels to count
+     * @param targetIndex The target color
+     * @return The number of pixels of the target color
+     */
+    public static int count(@NonNull int[] classes, int offset, int length, int targetIndex) {
+        int count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (classes[i] == targetIndex) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Build the mask of a target color: its pixels are kept, every other pixel is replaced.
+     *
+     * @param pixels       The classified pixels
+     * @param length       How many pixels to mask
+     * @param classes      The classes written by {@link #classify(int[], int, int[], int[])}
+     * @param targetIndex  The target color to keep
+     * @param replaceColor The color of the pixels which don't belong to the target color
+     * @param mask         Receives the masked pixels, may be the pixels array itself
+     */
+    public static void mask(@NonNull int[] pixels, int length, @NonNull int[] classes, int targetIndex,
+                            int replaceColor, @NonNull int[] mask) {
+        for (int i = 0; i < length; i++) {
+            mask[i] = classes[i] == targetIndex ? pixels[i] : replaceColor;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.kamron.pogoiv.utils;
+
+import android.support.annotation.NonNull;
+
+/**
+ * A fast, non-cryptographic 64-bit hash of pixel data, to key OCR results by the image they were read from.
+ * <p>
+ * This is XXH64 over the little endian bytes of the pixels, so two pixels are consumed per 64-bit lane and no byte
+ * array has to be built.
+ */
+public class PixelHash {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private PixelHash() {
+    }
+
+    /**
+     * Hash a range of pixels.
+     *
+     * @param pixels The pixels, as returned by Bitmap.getPixels()
+     * @param offset The index of the first pixel to hash
+     * @param length How many pixels to hash
+     * @param seed   Distinguishes hashes of different kinds of images, so identical pixels don't collide
+     * @return The hash
+     */
+    public static long hash(@NonNull int[] pixels, int offset, int length, long seed) {
+        int i = offset;
+        int end = offset + length;
+        long hash;
+
+        if (length >= 8) {
+            long v1 = seed + PRIME1 + PRIME2;
+            long v2 = seed + PRIME2;
+            long v3 = seed;
+            long v4 = seed - PRIME1;
+            // 32 bytes, i.e. 8 pixels, per stripe
+            for (; i <= end - 8; i += 8) {
+                v1 = round(v1, lane(pixels, i));
+                v2 = round(v2, lane(pixels, i + 2));
+                v3 = round(v3, lane(pixels, i + 4));
+                v4 = round(v4, lane(pixels, i + 6));
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12)
+                    + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = seed + PRIME5;
+        }
+        hash += length * 4L;
+
+        for (; i <= end - 2; i += 2) {
+            hash ^= round(0, lane(pixels, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+        }
+        if (i < end) {
+            hash ^= (pixels[i] & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long lane(int[] pixels, int i) {
+        return (pixels[i] & 0xFFFFFFFFL) | ((long) pixels[i + 1] << 32);
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long merge(long hash, long acc) {
+        hash ^= round(0, acc);
+        return hash * PRIME1 + PRIME4;
+    }
+}
@@ -0,0 +1,32 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArcGeometryTest {
+
+    @Test
+    public void testSpansHalfACircle() throws Exception {
+        ArcGeometry arc = new ArcGeometry(540, 685, 439, 30);
+        assertEquals(Data.trainerLevelToMaxPokeLevelIndex(30) + 1, arc.getLevelCount());
+
+        // Level 1 on the left, the max level on the right, and the middle ones above the center
+        assertEquals(540 - 439, arc.getX(0));
+        assertEquals(685, arc.getY(0));
+        assertEquals(540 + 439, arc.getX(arc.getLevelCount() - 1));
+        assertEquals(685, arc.getY(arc.getLevelCount() - 1));
+        int middle = arc.getLevelCount() / 2;
+        assertTrue(arc.getY(middle) < 685 - 439 / 2);
+    }
+
+    @Test
+    public void testIsForItsValues() throws Exception {
+        ArcGeometry arc = new ArcGeometry(540, 685, 439, 30);
+        assertTrue(arc.isFor(540, 685, 439, 30));
+        assertFalse(arc.isFor(540, 685, 440, 30));
+        assertFalse(arc.isFor(540, 685, 439, 31));
+    }
+}
@@ -0,0 +1,71 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class IVLookupIndexTest {
+
+    private static final Pokemon BULBASAUR = new Pokemon(new PokemonBase("Bulbasaur", "Bulbasaur", 0, -1, 25),
+            "", 118, 111, 128);
+
+    @Test
+    public void testPackRoundTrip() throws Exception {
+        int packed = IVLookupIndex.pack(3, 14, 9);
+        assertEquals(IVLookupIndex.unpackAttack(packed), 3);
+        assertEquals(IVLookupIndex.unpackDefense(packed), 14);
+        assertEquals(IVLookupIndex.unpackStamina(packed), 9);
+    }
+
+    @Test
+    public void testMatchesBruteForceOnEveryLevel() throws Exception {
+        IVLookupIndex index = new IVLookupIndex(BULBASAUR.baseAttack, BULBASAUR.baseDefense, BULBASAUR.baseStamina);
+        short[] out = new short[IVLookupIndex.COMBINATION_COUNT];
+
+        for (int levelIdx = 0; levelIdx <= Data.maxPokeLevelToIndex(Data.MAXIMUM_POKEMON_LEVEL); levelIdx++) {
+            double lvlScalar = Data.getLevelCpM(Data.levelIdxToLevel(levelIdx));
+            int hp = (int) Math.max(Math.floor((BULBASAUR.baseStamina + 7) * lvlScalar), 10);
+            int cp = calculateCp(10, 4, 7, lvlScalar);
+
+            List<Integer> expected = bruteForce(hp, cp, lvlScalar);
+            int count = index.findCombinations(levelIdx, hp, cp, out);
+
+            assertEquals(expected.size(), count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(expected.get(i).intValue(), out[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testNoMatchForImpossibleHp() throws Exception {
+        IVLookupIndex index = new IVLookupIndex(BULBASAUR.baseAttack, BULBASAUR.baseDefense, BULBASAUR.baseStamina);
+        assertEquals(index.findCombinations(20, 1, 500, new short[IVLookupIndex.COMBINATION_COUNT]), 0);
+    }
+
+    private static int calculateCp(int att, int def, int sta, double lvlScalar) {
+        double lvlScalarStamina = Math.sqrt(BULBASAUR.baseStamina + sta) * Math.pow(lvlScalar, 2) * 0.1;
+        return Math.max(10, (int) Math.floor((BULBASAUR.baseAttack + att)
+                * Math.sqrt(BULBASAUR.baseDefense + def) * lvlScalarStamina));
+    }
+
+    private static List<Integer> bruteForce(int hp, int cp, double lvlScalar) {
+        List<Integer> result = new ArrayList<>();
+        for (int sta = 0; sta < 16; sta++) {
+            if ((int) Math.max(Math.floor((BULBASAUR.baseStamina + sta) * lvlScalar), 10) != hp) {
+                continue;
+            }
+            for (int def = 0; def < 16; def++) {
+                for (int att = 0; att < 16; att++) {
+                    if (calculateCp(att, def, sta, lvlScalar) == cp) {
+                        result.add(IVLookupIndex.pack(att, def, sta));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LevelArcDetectorTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int ARC_CENTER_X = 540;
+    private static final int ARC_CENTER_Y = 685;
+    private static final int ARC_RADIUS = 439;
+    private static final int TRAINER_LEVEL = 30;
+    private static final int DOT_RADIUS = 14;
+
+    private final ArcGeometry arc = new ArcGeometry(ARC_CENTER_X, ARC_CENTER_Y, ARC_RADIUS, TRAINER_LEVEL);
+
+    @Test
+    public void testFindsTheDot() throws Exception {
+        LevelArcDetector detector = new LevelArcDetector(arc, WIDTH, HEIGHT);
+
+        for (double level : new double[]{1, 4.5, 20, 31.5}) {
+            int[] screen = drawDot(arc, Data.maxPokeLevelToIndex(level));
+            assertEquals(level, detector.detectLevel(pixelsOf(screen), TRAINER_LEVEL), 0);
+        }
+
+        // No dot at all
+        int[] screen = new int[WIDTH * HEIGHT];
+        assertEquals(1, detector.detectLevel(pixelsOf(screen), TRAINER_LEVEL), 0);
+    }
+
+    @Test
+    public void testIsBuiltForItsArc() throws Exception {
+        LevelArcDetector detector = new LevelArcDetector(arc, WIDTH, HEIGHT);
+        assertTrue(detector.isBuiltFor(arc, WIDTH, HEIGHT));
+        assertFalse(detector.isBuiltFor(arc, WIDTH, HEIGHT + 1));
+
+        ArcGeometry otherArc = new ArcGeometry(ARC_CENTER_X, ARC_CENTER_Y, ARC_RADIUS, TRAINER_LEVEL + 1);
+        assertFalse(detector.isBuiltFor(otherArc, WIDTH, HEIGHT));
+    }
+
+    private static int[] drawDot(ArcGeometry arc, int levelIndex) {
+        int[] screen = new int[WIDTH * HEIGHT];
+        Arrays.fill(screen, 0xFF3A4F5E);
+        int dotX = arc.getX(levelIndex);
+        int dotY = arc.getY(levelIndex);
+        for (int y = dotY - DOT_RADIUS; y <= dotY + DOT_RADIUS; y++) {
+            for (int x = dotX - DOT_RADIUS; x <= dotX + DOT_RADIUS; x++) {
+                if ((x - dotX) * (x - dotX) + (y - dotY) * (y - dotY) <= DOT_RADIUS * DOT_RADIUS) {
+                    screen[y * WIDTH + x] = 0xFFFFFFFF;
+                }
+            }
+        }
+        return screen;
+    }
+
+    private static LevelArcDetector.Pixels pixelsOf(final int[] screen) {
+        return new LevelArcDetector.Pixels() {
+            @Override public int getPixel(int x, int y) {
+                return screen[y * WIDTH + x];
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MovesetStoreTest {
+
+    private static final String MOVESETS = "{"
+            + "\"BULBASAUR\": [{\"fast\": \"VINE_WHIP_FAST\", \"charge\": \"SLUDGE_BOMB\","
+            + " \"fastMoveType\": \"GRASS\", \"chargeMoveType\": \"POISON\","
+            + " \"fastIsLegacy\": false, \"chargeIsLegacy\": false, \"atkScore\": 0.9, \"defScore\": 0.8}],"
+            + "\"IVYSAUR_SPECIAL_FORM\": [{\"fast\": \"VINE_WHIP_FAST\", \"charge\": \"MISSING_MOVE\","
+            + " \"fastMoveType\": \"GRASS\", \"chargeMoveType\": \"POISON\","
+            + " \"fastIsLegacy\": false, \"chargeIsLegacy\": false, \"atkScore\": 0.5, \"defScore\": 0.5}]"
+            + "}";
+    private static final String TRANSLATIONS = "{"
+            + "\"moves\": {\"VINE_WHIP_FAST\": \"Vine Whip\", \"SLUDGE_BOMB\": \"Sludge Bomb\"},"
+            + "\"types\": {\"POKEMON_TYPE_GRASS\": \"Grass\", \"POKEMON_TYPE_POISON\": \"Poison\"}"
+            + "}";
+
+    @Test
+    public void testLoadsTranslatedMovesetsByPokemonNumber() throws Exception {
+        MovesetStore.load(new StringReader(MOVESETS), new StringReader(TRANSLATIONS),
+                new String[]{"Bulbasaur", "Ivysaur", "Venusaur"});
+
+        LinkedHashSet<MovesetData> movesets = MovesetStore.getMovesetsForDexNumber(0);
+        assertEquals(1, movesets.size());
+        MovesetData moveset = movesets.iterator().next();
+        assertEquals("Vine Whip", moveset.getFast());
+        assertEquals("Sludge Bomb", moveset.getCharge());
+        assertEquals("Poison", moveset.getChargeMoveType());
+
+        // Forms are merged into their species, movesets without translation are skipped
+        assertEquals(0, MovesetStore.getMovesetsForDexNumber(1).size());
+        assertNull(MovesetStore.getMovesetsForDexNumber(2));
+    }
+}
@@ -0,0 +1,68 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NameIndexTest {
+
+    @Test
+    public void testMatchesLinearScan() throws Exception {
+        Random random = new Random(42);
+        Map<String, Integer> names = new LinkedHashMap<>();
+        while (names.size() < 800) {
+            names.put(randomName(random), names.size());
+        }
+        NameIndex<Integer> index = NameIndex.of(names);
+        assertEquals(index.size(), 800);
+
+        for (int i = 0; i < 500; i++) {
+            String query = randomName(random);
+            int expectedValue = -1;
+            int lowestDist = Integer.MAX_VALUE;
+            for (Map.Entry<String, Integer> name : names.entrySet()) {
+                int dist = StringDistance.ocrDistance(name.getKey(), query, Integer.MAX_VALUE);
+                if (dist < lowestDist) {
+                    expectedValue = name.getValue();
+                    lowestDist = dist;
+                }
+            }
+
+            NameIndex.Match<Integer> match = index.findClosest(query);
+            assertEquals(lowestDist, match.dist);
+            assertEquals(expectedValue, match.value.intValue());
+        }
+    }
+
+    @Test
+    public void testExactMatch() throws Exception {
+        NameIndex<String> index = new NameIndex<>();
+        index.add("pidgey", "a");
+        index.add("pidgeotto", "b");
+        index.add("pidgey", "c");
+        assertEquals(index.size(), 2);
+
+        NameIndex.Match<String> match = index.findClosest("pidgey");
+        assertEquals(match.dist, 0);
+        assertEquals(match.value, "a");
+    }
+
+    @Test
+    public void testEmptyIndex() throws Exception {
+        assertNull(new NameIndex<String>().findClosest("pidgey"));
+    }
+
+    private static String randomName(Random random) {
+        // A small alphabet, so there are plenty of equally close names
+        char[] name = new char[3 + random.nextInt(10)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,48 @@
+package com.kamron.pogoiv.scanlogic;
+
+import com.google.common.base.Optional;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OcrCacheTest {
+
+    @Test
+    public void testKeepsFieldsApart() throws Exception {
+        OcrCache cache = new OcrCache();
+        cache.put(OcrCache.Field.NAME, 1, "pidgey");
+        cache.put(OcrCache.Field.HP, 1, Optional.<Integer>absent());
+
+        assertEquals("pidgey", cache.get(OcrCache.Field.NAME, 1));
+        assertEquals(Optional.<Integer>absent(), cache.get(OcrCache.Field.HP, 1));
+        assertNull(cache.get(OcrCache.Field.TYPE, 1));
+        assertNull(cache.get(OcrCache.Field.NAME, 2));
+
+        OcrCache.Stats stats = cache.getStats(OcrCache.Field.NAME);
+        assertEquals(1, stats.size);
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedPerField() throws Exception {
+        OcrCache cache = new OcrCache();
+        int capacity = OcrCache.Field.EVOLUTION_COST.capacity;
+        for (int i = 0; i < capacity; i++) {
+            cache.put(OcrCache.Field.EVOLUTION_COST, i, Optional.of(i));
+        }
+        cache.put(OcrCache.Field.NAME, 0, "pidgey");
+        cache.get(OcrCache.Field.EVOLUTION_COST, 0); // Now the most recently used
+        cache.put(OcrCache.Field.EVOLUTION_COST, capacity, Optional.of(capacity));
+
+        assertEquals(Optional.of(0), cache.get(OcrCache.Field.EVOLUTION_COST, 0));
+        assertNull(cache.get(OcrCache.Field.EVOLUTION_COST, 1));
+        assertEquals("pidgey", cache.get(OcrCache.Field.NAME, 0));
+
+        OcrCache.Stats stats = cache.getStats(OcrCache.Field.EVOLUTION_COST);
+        assertEquals(capacity, stats.size);
+        assertEquals(1, stats.evictions);
+    }
+}
@@ -0,0 +1,88 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OcrDiskMemoTest {
+
+    private static final int CAPACITY = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKeepsTextsAcrossSessions() throws Exception {
+        File path = folder.newFile();
+        OcrDiskMemo memo = OcrDiskMemo.open(path, CAPACITY);
+        memo.put(OcrCache.Field.NAME, 1, "Pidgey");
+        memo.put(OcrCache.Field.TYPE, 1, "Normal / Flying");
+        memo.put(OcrCache.Field.NAME, 2, "Flabébé");
+        memo.close();
+
+        memo = OcrDiskMemo.open(path, CAPACITY);
+        assertEquals("Pidgey", memo.get(OcrCache.Field.NAME, 1));
+        assertEquals("Normal / Flying", memo.get(OcrCache.Field.TYPE, 1));
+        assertEquals("Flabébé", memo.get(OcrCache.Field.NAME, 2));
+        assertNull(memo.get(OcrCache.Field.CANDY_NAME, 1));
+        assertEquals(3, memo.size());
+        memo.close();
+    }
+
+    @Test
+    public void testIgnoresIncompleteRecord() throws Exception {
+        File path = folder.newFile();
+        OcrDiskMemo memo = OcrDiskMemo.open(path, CAPACITY);
+        memo.put(OcrCache.Field.NAME, 1, "Pidgey");
+        memo.close();
+
+        // A record written without the end of the records moved past it, as if the process died meanwhile
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        file.seek(12 + 10 + 6);
+        file.write(new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 2, 6, 'R', 'a'});
+        file.close();
+
+        memo = OcrDiskMemo.open(path, CAPACITY);
+        assertEquals(1, memo.size());
+        memo.put(OcrCache.Field.NAME, 3, "Rattata");
+        memo.close();
+
+        memo = OcrDiskMemo.open(path, CAPACITY);
+        assertEquals("Pidgey", memo.get(OcrCache.Field.NAME, 1));
+        assertEquals("Rattata", memo.get(OcrCache.Field.NAME, 3));
+        assertEquals(2, memo.size());
+        memo.close();
+    }
+
+    @Test
+    public void testStartsOverWhenFull() throws Exception {
+        File path = folder.newFile();
+        OcrDiskMemo memo = OcrDiskMemo.open(path, CAPACITY);
+        long hash = 0;
+        while (memo.size() == hash) {
+            memo.put(OcrCache.Field.CANDY_NAME, ++hash, "Pidgey");
+        }
+
+        assertEquals(1, memo.size());
+        assertEquals("Pidgey", memo.get(OcrCache.Field.CANDY_NAME, hash));
+        assertNull(memo.get(OcrCache.Field.CANDY_NAME, 1));
+        memo.close();
+        assertEquals(CAPACITY, path.length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsChangingFields() throws Exception {
+        OcrDiskMemo memo = OcrDiskMemo.open(folder.newFile(), CAPACITY);
+        try {
+            memo.put(OcrCache.Field.MOVESET, 1, "Tackle\nStruggle");
+        } finally {
+            memo.close();
+        }
+    }
+}
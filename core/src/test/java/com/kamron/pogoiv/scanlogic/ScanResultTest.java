@@ -0,0 +1,142 @@
+package com.kamron.pogoiv.scanlogic;
+
+import com.google.common.base.Optional;
+import com.kamron.pogoiv.utils.LevelRange;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScanResultTest {
+
+    private static final Pokemon BULBASAUR = new Pokemon(new PokemonBase("Bulbasaur", "Bulbasaur", 0, -1, 25),
+            "", 118, 111, 128);
+
+    private static ScanResult newScanResult(LevelRange levelRange, int hp, int cp) {
+        ScanData scanData = new ScanData(levelRange, "Bulbasaur", "Grass / Poison", "Bulbasaur Candy",
+                Pokemon.Gender.M, Optional.of(hp), Optional.of(cp), Optional.<Integer>absent(),
+                Optional.<Integer>absent(), Optional.<Integer>absent(), Optional.<Integer>absent(), null, null,
+                false, "");
+        return new ScanResult(BULBASAUR, scanData);
+    }
+
+    private static ScanResult newScanResult() {
+        ScanResult scanResult = newScanResult(new LevelRange(20), 60, 600);
+        scanResult.addIVCombination(9, 2, 8);
+        scanResult.addIVCombination(3, 7, 9);
+        scanResult.addIVCombination(14, 15, 15);
+        scanResult.addIVCombination(15, 15, 14);
+        return scanResult;
+    }
+
+    @Test
+    public void testUnrefinedBoundsAreRealCombinations() throws Exception {
+        ScanResult scanResult = newScanResult();
+
+        // The lowest total, then the lowest attack; the highest total, then the highest attack
+        assertEquals(IVCombination.of(3, 7, 9), scanResult.getCombinationLowIVs());
+        assertEquals(IVCombination.of(15, 15, 14), scanResult.getCombinationHighIVs());
+        assertEquals(3, scanResult.getIVAttackLow());
+        assertEquals(7, scanResult.getIVDefenseLow());
+        assertEquals(9, scanResult.getIVStaminaLow());
+        assertEquals(14, scanResult.getIVStaminaHigh());
+    }
+
+    @Test
+    public void testRefinedBoundsArePerStat() throws Exception {
+        ScanResult scanResult = newScanResult();
+        scanResult.refineWithAvailableInfoFrom(new IVCombinationSet.Filter() {
+            @Override public boolean accept(int att, int def, int sta) {
+                return true;
+            }
+        });
+
+        assertEquals(IVCombination.of(3, 2, 8), scanResult.getCombinationLowIVs());
+        assertEquals(IVCombination.of(15, 15, 15), scanResult.getCombinationHighIVs());
+        assertEquals(2, scanResult.getIVDefenseLow());
+    }
+
+    @Test
+    public void testBoundsFollowChangedCombinations() throws Exception {
+        ScanResult scanResult = newScanResult();
+        assertEquals(IVCombination.of(15, 15, 14), scanResult.getCombinationHighIVs());
+        assertEquals(IVCombination.of(9, 2, 8), scanResult.getLowestIVCombination()); // The first of the lowest
+
+        scanResult.addIVCombination(15, 15, 15);
+        scanResult.addIVCombination(0, 1, 0);
+
+        assertEquals(IVCombination.of(15, 15, 15), scanResult.getCombinationHighIVs());
+        assertEquals(IVCombination.of(15, 15, 15), scanResult.getHighestIVCombination());
+        assertEquals(IVCombination.of(0, 1, 0), scanResult.getLowestIVCombination());
+    }
+
+    @Test
+    public void testLuckyFloorKeepsHighCombinations() throws Exception {
+        ScanResult scanResult = newScanResult();
+        scanResult.refineWithLuckyFloor();
+
+        assertTrue(scanResult.isLucky);
+        assertEquals(2, scanResult.getIVCombinationsCount());
+        assertEquals(IVCombination.of(14, 15, 14), scanResult.getCombinationLowIVs());
+        assertEquals(IVCombination.of(15, 15, 15), scanResult.getCombinationHighIVs());
+    }
+
+    @Test
+    public void testPowerUpKeepsCombinationsMatchingBothReadings() throws Exception {
+        LevelRange levelRange = new LevelRange(19, 21);
+        int hp = calculateHp(7, 20);
+        int cp = calculateCp(10, 4, 7, 20);
+        int poweredUpHp = calculateHp(7, 20.5);
+        int poweredUpCp = calculateCp(10, 4, 7, 20.5);
+
+        // Solved like PokeInfoCalculator.getIVPossibilities
+        IVLookupIndex index = new IVLookupIndex(BULBASAUR.baseAttack, BULBASAUR.baseDefense, BULBASAUR.baseStamina);
+        ScanResult scanResult = newScanResult(levelRange, hp, cp);
+        short[] matches = new short[IVLookupIndex.COMBINATION_COUNT];
+        for (int levelIdx = Data.maxPokeLevelToIndex(levelRange.min);
+             levelIdx <= Data.maxPokeLevelToIndex(levelRange.max); levelIdx++) {
+            int count = index.findCombinations(levelIdx, hp, cp, matches);
+            for (int i = 0; i < count; i++) {
+                scanResult.addIVCombination(IVLookupIndex.unpackAttack(matches[i]),
+                        IVLookupIndex.unpackDefense(matches[i]), IVLookupIndex.unpackStamina(matches[i]));
+            }
+        }
+        int solvedCount = scanResult.getIVCombinationsCount();
+
+        scanResult.refineWithCandidates(PokeInfoCalculator.findPowerUpCandidates(index, levelRange, hp, cp,
+                poweredUpHp, poweredUpCp));
+
+        Set<IVCombination> expected = new HashSet<>();
+        for (double level = levelRange.min; level <= levelRange.max; level += 0.5) {
+            for (int att = 0; att < 16; att++) {
+                for (int def = 0; def < 16; def++) {
+                    for (int sta = 0; sta < 16; sta++) {
+                        if (calculateHp(sta, level) == hp && calculateCp(att, def, sta, level) == cp
+                                && calculateHp(sta, level + 0.5) == poweredUpHp
+                                && calculateCp(att, def, sta, level + 0.5) == poweredUpCp) {
+                            expected.add(IVCombination.of(att, def, sta));
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(expected.contains(IVCombination.of(10, 4, 7)));
+        assertEquals(expected, new HashSet<>(scanResult.getIVCombinations()));
+        assertTrue(scanResult.getIVCombinationsCount() < solvedCount);
+    }
+
+    private static int calculateHp(int sta, double level) {
+        return (int) Math.max(Math.floor((BULBASAUR.baseStamina + sta) * Data.getLevelCpM(level)), 10);
+    }
+
+    private static int calculateCp(int att, int def, int sta, double level) {
+        double lvlScalar = Data.getLevelCpM(level);
+        double lvlScalarStamina = Math.sqrt(BULBASAUR.baseStamina + sta) * Math.pow(lvlScalar, 2) * 0.1;
+        return Math.max(10, (int) Math.floor((BULBASAUR.baseAttack + att)
+                * Math.sqrt(BULBASAUR.baseDefense + def) * lvlScalarStamina));
+    }
+}
@@ -0,0 +1,54 @@
+package com.kamron.pogoiv.scanlogic;
+
+import com.kamron.pogoiv.scanlogic.ScreenClassifier.Marker;
+import com.kamron.pogoiv.scanlogic.ScreenClassifier.Result;
+import com.kamron.pogoiv.scanlogic.ScreenClassifier.Screen;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ScreenClassifierTest {
+
+    private static final int WHITE = 0xFFFAFAFA;
+    private static final int GREEN = 0xFF1C8796;
+
+    private final ScreenClassifier classifier = new ScreenClassifier(Arrays.asList(
+            new Marker(Screen.POKEMON, 10, 100, WHITE),
+            new Marker(Screen.POKEMON, 10, 200, WHITE),
+            new Marker(Screen.POKEMON, 10, 300, WHITE),
+            new Marker(Screen.POKEMON, 90, 400, GREEN),
+            new Marker(Screen.APPRAISAL, 10, 300, 0xFFFFFFFF),
+            new Marker(Screen.APPRAISAL, 90, 400, 0xFFFFFFFF)), 8);
+
+    @Test
+    public void testToleratesShiftedColors() throws Exception {
+        // Slightly dimmed, as with night mode
+        Result result = classifier.classify(new int[]{0xFFF4F4F4, 0xFFF4F4F4, 0xFFF4F4F4, 0xFF188090, 0, 0});
+        assertEquals(Screen.POKEMON, result.screen);
+        assertEquals(1f, result.confidence, 0);
+        assertTrue(result.is(Screen.POKEMON, 0.75f));
+    }
+
+    @Test
+    public void testScoresEachScreen() throws Exception {
+        // One of the pokemon card points is covered
+        Result result = classifier.classify(new int[]{WHITE, 0xFF000000, WHITE, GREEN, 0, 0});
+        assertEquals(Screen.POKEMON, result.screen);
+        assertEquals(0.75f, result.confidence, 0);
+
+        // The speech bubble covers the menu button
+        result = classifier.classify(new int[]{WHITE, WHITE, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF});
+        assertEquals(Screen.APPRAISAL, result.screen);
+        assertFalse(result.is(Screen.POKEMON, 0.75f));
+
+        result = classifier.classify(new int[]{0xFF000000, 0xFF000000, 0xFF000000, 0xFF000000, 0, 0});
+        assertNull(result.screen);
+        assertEquals(0f, result.confidence, 0);
+    }
+}
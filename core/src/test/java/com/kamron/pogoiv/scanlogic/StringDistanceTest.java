@@ -0,0 +1,52 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringDistanceTest {
+
+    @Test
+    public void testLevenshtein() throws Exception {
+        assertEquals(StringDistance.levenshtein("kitten", "sitting"), 3);
+        assertEquals(StringDistance.levenshtein("", "pidgey"), 6);
+        assertEquals(StringDistance.levenshtein("pidgey", "pidgey"), 0);
+        assertEquals(StringDistance.levenshtein("pidgey", null), Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testBoundedMatchesFullDistance() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String lhs = randomString(random);
+            String rhs = randomString(random);
+            int maxDistance = random.nextInt(8);
+
+            int full = StringDistance.levenshtein(lhs, rhs);
+            assertEquals(Math.min(full, maxDistance + 1), StringDistance.levenshtein(lhs, rhs, maxDistance));
+
+            int fullOcr = StringDistance.ocrDistance(lhs, rhs, Integer.MAX_VALUE);
+            assertEquals(Math.min(fullOcr, maxDistance + 1), StringDistance.ocrDistance(lhs, rhs, maxDistance));
+        }
+    }
+
+    @Test
+    public void testOcrConfusionsCostHalfAnEdit() throws Exception {
+        assertEquals(StringDistance.ocrDistance("p1dgey", "pidgey", Integer.MAX_VALUE), 1);
+        assertEquals(StringDistance.ocrDistance("5n0rlax", "snorlax", Integer.MAX_VALUE), 2);
+        assertEquals(StringDistance.ocrDistance("pxdgey", "pidgey", Integer.MAX_VALUE), StringDistance.OCR_EDIT_COST);
+        assertEquals(StringDistance.ocrDistanceToEdits(1), 1);
+        assertEquals(StringDistance.ocrDistanceToEdits(4), 2);
+    }
+
+    private static String randomString(Random random) {
+        String alphabet = "abilos01258";
+        char[] chars = new char[random.nextInt(10)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,90 @@
+package com.kamron.pogoiv.scanlogic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UpgradeCostTableTest {
+
+    private static final int LEVEL_COUNT = 80;
+
+    @Test
+    public void testMatchesHalfLevelWalk() throws Exception {
+        int[] candyCosts = new int[LEVEL_COUNT];
+        int[] stardustCosts = new int[LEVEL_COUNT];
+        for (int levelIdx = 0; levelIdx < LEVEL_COUNT; levelIdx++) {
+            double level = Data.levelIdxToLevel(levelIdx);
+            UpgradeCost step = walk(level + 0.5, level, false);
+            candyCosts[levelIdx] = step.candy;
+            stardustCosts[levelIdx] = step.dust;
+        }
+        UpgradeCostTable table = new UpgradeCostTable(candyCosts, stardustCosts);
+
+        for (int from = 0; from <= LEVEL_COUNT; from++) {
+            for (int to = from; to <= LEVEL_COUNT; to++) {
+                for (boolean isLucky : new boolean[]{false, true}) {
+                    UpgradeCost expected = walk(Data.levelIdxToLevel(to), Data.levelIdxToLevel(from), isLucky);
+                    UpgradeCost actual = table.getCost(from, to, isLucky);
+                    assertEquals(expected.candy, actual.candy);
+                    assertEquals(expected.dust, actual.dust);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClampsOutOfRangeLevels() throws Exception {
+        UpgradeCostTable table = new UpgradeCostTable(new int[]{1, 2}, new int[]{100, 200});
+        assertEquals(table.getMaxLevelIdx(), 2);
+        assertEquals(table.getCost(-1, 5, false).candy, 3);
+        assertEquals(table.getCost(2, 0, false).dust, 0);
+        assertEquals(table.getCost(0, 2, true).dust, 150);
+    }
+
+    @Test
+    public void testSinglePowerUpCandyCosts() throws Exception {
+        UpgradeCostTable table = new UpgradeCostTable(new int[]{1, 1, 2, 4}, new int[]{100, 100, 200, 200});
+        assertEquals(2, table.getCandyCost(2));
+        assertEquals(0, table.getCandyCost(4));
+        assertTrue(table.isCandyCost(4));
+        assertFalse(table.isCandyCost(3));
+    }
+
+    /**
+     * Reference implementation: walks the levels one power up at a time.
+     */
+    private static UpgradeCost walk(double goalLevel, double level, boolean isLucky) {
+        int candy = 0;
+        int dust = 0;
+        while (level != goalLevel) {
+            int rank = 5;
+            if ((level % 10) >= 1 && (level % 10) <= 2.5) {
+                rank = 1;
+            } else if ((level % 10) > 2.5 && (level % 10) <= 4.5) {
+                rank = 2;
+            } else if ((level % 10) > 4.5 && (level % 10) <= 6.5) {
+                rank = 3;
+            } else if ((level % 10) > 6.5 && (level % 10) <= 8.5) {
+                rank = 4;
+            }
+
+            if (level <= 10.5) {
+                candy++;
+                dust += rank * 200;
+            } else if (level <= 20.5) {
+                candy += 2;
+                dust += 1000 + (rank * 300);
+            } else if (level <= 30.5) {
+                candy += level <= 25.5 ? 3 : 4;
+                dust += 2500 + (rank * 500);
+            } else {
+                candy += level <= 32.5 ? 6 : level <= 34.5 ? 8 : level <= 36.5 ? 10 : level <= 38.5 ? 12 : 15;
+                dust += 5000 + (rank * 1000);
+            }
+            level += 0.5;
+        }
+        return new UpgradeCost(isLucky ? dust / 2 : dust, candy);
+    }
+}
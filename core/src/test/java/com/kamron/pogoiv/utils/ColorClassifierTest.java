@@ -0,0 +1,47 @@
+package com.kamron.pogoiv.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColorClassifierTest {
+
+    private static final int WHITE = 0xFFFFFFFF;
+    private static final int TEAL = 0xFF44696C; // rgb 68, 105, 108
+    private static final int PINK = 0xFFFF7373; // rgb 255, 115, 115
+
+    @Test
+    public void testClassifiesByDistanceToEachTarget() throws Exception {
+        ColorClassifier classifier = new ColorClassifier(new int[]{TEAL, PINK}, new int[]{30, 40});
+        int[] pixels = {
+                WHITE, TEAL, 0xFF50706C, // Close to teal
+                PINK, 0xFFFF5F64, // rgb 255, 95, 100: close to pink
+                0xFF000000, WHITE};
+        int[] classes = new int[pixels.length];
+        int[] counts = new int[classifier.getTargetCount()];
+        classifier.classify(pixels, pixels.length, classes, counts);
+
+        int none = ColorClassifier.NONE;
+        assertArrayEquals(new int[]{none, 0, 0, 1, 1, none, none}, classes);
+        assertArrayEquals(new int[]{2, 2}, counts);
+        assertEquals(1, ColorClassifier.count(classes, 2, 3, 0));
+        assertEquals(2, ColorClassifier.count(classes, 2, 3, 1));
+    }
+
+    @Test
+    public void testMasksOneTarget() throws Exception {
+        ColorClassifier classifier = new ColorClassifier(new int[]{TEAL, PINK}, new int[]{30, 40});
+        int[] pixels = {TEAL, PINK, 0xFF000000, PINK};
+        int[] classes = new int[pixels.length];
+        classifier.classify(pixels, pixels.length, classes, new int[2]);
+
+        int[] mask = new int[pixels.length];
+        ColorClassifier.mask(pixels, pixels.length, classes, 1, WHITE, mask);
+        assertArrayEquals(new int[]{WHITE, PINK, WHITE, PINK}, mask);
+
+        // In place
+        ColorClassifier.mask(pixels, pixels.length, classes, 0, WHITE, pixels);
+        assertArrayEquals(new int[]{TEAL, WHITE, WHITE, WHITE}, pixels);
+    }
+}
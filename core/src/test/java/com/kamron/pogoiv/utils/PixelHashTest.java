@@ -0,0 +1,44 @@
+package com.kamron.pogoiv.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PixelHashTest {
+
+    @Test
+    public void testMatchesXxh64OfLittleEndianBytes() throws Exception {
+        // Reference values computed with XXH64 over the little endian bytes of the ints
+        assertEquals(0xEF46DB3751D8E999L, PixelHash.hash(new int[0], 0, 0, 0));
+        assertEquals(-4335687505227368135L, PixelHash.hash(new int[]{5}, 0, 1, 0));
+        assertEquals(-5398535361462201860L, PixelHash.hash(new int[]{1, 2, 3}, 0, 3, 0));
+        assertEquals(-8820506253316583457L, PixelHash.hash(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, 0, 8, 0));
+        assertEquals(1599383883781075867L, PixelHash.hash(new int[]{0xFF476C6E}, 0, 1, 0));
+
+        int[] pixels = new int[13];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = i - 3;
+        }
+        assertEquals(1862526686379470345L, PixelHash.hash(pixels, 0, pixels.length, 0));
+        assertEquals(7082257767686311755L, PixelHash.hash(pixels, 0, pixels.length, 42));
+    }
+
+    @Test
+    public void testOnlyHashesTheRange() throws Exception {
+        int[] pixels = {9, 9, 1, 2, 3, 9};
+        assertEquals(PixelHash.hash(new int[]{1, 2, 3}, 0, 3, 0), PixelHash.hash(pixels, 2, 3, 0));
+    }
+
+    @Test
+    public void testSinglePixelChangesHash() throws Exception {
+        int[] pixels = new int[40 * 20];
+        long hash = PixelHash.hash(pixels, 0, pixels.length, 0);
+        for (int i = 0; i < pixels.length; i += 37) {
+            pixels[i] = 0xFFFFFFFF;
+            assertNotEquals(hash, PixelHash.hash(pixels, 0, pixels.length, 0));
+            pixels[i] = 0;
+        }
+        assertNotEquals(hash, PixelHash.hash(pixels, 0, pixels.length, 1));
+    }
+}